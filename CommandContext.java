@@ -0,0 +1,55 @@
+import java.util.function.Consumer;
+
+/**
+ * CommandContext class is what a PolygonCommand works on: the polygon store, the current selection, where detailed
+ * output goes, and optionally the statistics to record latencies in
+ * A context belongs to one thread at a time; the store it holds is safe to share
+ */
+public class CommandContext {
+
+    // Store the commands read and change
+    private final PolygonStore store;
+
+    // Receives each line of detailed output, such as the polygons printed by display
+    private final Consumer<String> output;
+
+    // Latency histograms to record operations in, or null to record nothing
+    private final OperationStats stats;
+
+    // Polygons chosen by the last add or search, which recolour works on
+    private RegPolygon[] selection = new RegPolygon[0];
+
+    public CommandContext(PolygonStore store, Consumer<String> output, OperationStats stats) {
+        this.store = store;
+        this.output = output;
+        this.stats = stats;
+    }
+
+    /* Gets the store the commands work on */
+    public PolygonStore getStore() {
+        return store;
+    }
+
+    /* Writes one line of detailed output */
+    public void println(String line) {
+        output.accept(line);
+    }
+
+    /* Records the latency of an operation that started at the given System.nanoTime, if statistics are kept */
+    public void record(int operation, long startNanos) {
+        if (stats != null) {
+            stats.record(operation, startNanos);
+        }
+    }
+
+    /* Gets the current selection */
+    public RegPolygon[] getSelection() {
+        return selection;
+    }
+
+    /* Replaces the current selection */
+    public void setSelection(RegPolygon[] selection) {
+        this.selection = selection;
+    }
+
+}
@@ -0,0 +1,90 @@
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * CommandRegistry class maps command names to PolygonCommands and runs command lines and scripts through them
+ *
+ * A command line is a name followed by its argument, such as "search 12****". A script is a text file of command
+ * lines, run in order at full speed; blank lines and lines starting with # are skipped, and the first failing line
+ * stops the script with its line number.
+ */
+public class CommandRegistry {
+
+    // Commands and their usage lines by name, in the order registered
+    private final LinkedHashMap<String, PolygonCommand> commands = new LinkedHashMap<>();
+    private final LinkedHashMap<String, String> usages = new LinkedHashMap<>();
+
+    /* Returns a registry holding the standard commands (see PolygonCommands) */
+    public static CommandRegistry standard() {
+        CommandRegistry registry = new CommandRegistry();
+        registry.register("add", "add id,sides,angle,radius[,fill[,colour]]", PolygonCommands::add);
+        registry.register("search", "search 123456 | 120000..129999 | 12****", PolygonCommands::search);
+        registry.register("lookup", "lookup 123456 234567 ... | lookup @ids.txt", PolygonCommands::lookup);
+        registry.register("sort", "sort [key,...] with keys " + PolygonSorter.getKeyNames() + ", - for descending",
+                PolygonCommands::sort);
+        registry.register("display", "display", PolygonCommands::display);
+        registry.register("recolour", "recolour #rrggbb", PolygonCommands::recolour);
+        registry.register("merge", "merge file [keep-existing | keep-incoming | renumber]", PolygonCommands::merge);
+        registry.register("export", "export file.svg [all | selected]", PolygonCommands::export);
+        return registry;
+    }
+
+    /* Adds a command under a name, replacing any command already registered under it */
+    public void register(String name, String usage, PolygonCommand command) {
+        commands.put(name, command);
+        usages.put(name, usage);
+    }
+
+    /* Returns the command registered under a name, or null if there is none */
+    public PolygonCommand get(String name) {
+        return commands.get(name);
+    }
+
+    /* Returns the usage line of every command, one per line */
+    public String getUsage() {
+        return String.join("\n", usages.values());
+    }
+
+    /*
+     * Runs one command line and returns the command's result
+     * Throws IllegalArgumentException for an unknown command or an invalid argument
+     */
+    public String dispatch(CommandContext context, String line) throws IOException {
+        String trimmed = line.trim();
+        int space = trimmed.indexOf(' ');
+        String name = space == -1 ? trimmed : trimmed.substring(0, space);
+        String argument = space == -1 ? "" : trimmed.substring(space + 1).trim();
+
+        PolygonCommand command = commands.get(name);
+        if (command == null) {
+            throw new IllegalArgumentException("Unknown command \"" + name + "\"; commands are:\n" + getUsage());
+        }
+        return command.execute(context, argument);
+    }
+
+    /*
+     * Runs the lines of a script in order, writing each command and its result to the context's output
+     * Returns the number of commands run; a failing line stops the script with an exception naming the line
+     */
+    public int runScript(CommandContext context, List<String> lines) throws IOException {
+        int run = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            context.println("> " + line);
+            try {
+                context.println(dispatch(context, line));
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("Line " + (i + 1) + ": " + ex.getMessage(), ex);
+            } catch (IOException ex) {
+                throw new IOException("Line " + (i + 1) + ": " + ex.getMessage(), ex);
+            }
+            run++;
+        }
+        return run;
+    }
+
+}
@@ -2,7 +2,7 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
-import java.util.ArrayList;
+import java.util.List;
 
 /**
  * ContainerFrame class extends JFrame and represents the main frame of the Polygon Drawing Tool
@@ -17,6 +17,27 @@ public class ContainerFrame extends JFrame {
     // Represents currently selected polygon for drawing
     protected RegPolygon selectedPolygon;
 
+    // All polygons currently selected for drawing, including selectedPolygon; several when chosen from a result list
+    protected RegPolygon[] selectedPolygons = new RegPolygon[0];
+
+    // Animator rotating or pulsing the selected polygons; null until animation is first started
+    protected PolygonAnimator animator;
+
+    // Draws the newest polygons while following a file or standard input; null until following first starts
+    protected LiveCanvas liveCanvas;
+
+    // Latency histograms for add, search, sort, display and paint, always recorded
+    protected final OperationStats stats = new OperationStats();
+
+    // Captures the commands issued through the buttons and fields while the Record button is down
+    protected final SessionRecorder recorder = new SessionRecorder();
+
+    // Handler running the buttons' actions, also used by SessionReplay to repeat recorded commands
+    protected ContainerFrameHandler handler;
+
+    // Run once when the draw panel is first painted, to time startup and begin deferred work; null afterwards
+    protected Runnable firstPaintListener;
+
     // Selected color for the polygon
     protected Color selectedColor;
 
@@ -41,7 +62,16 @@ public class ContainerFrame extends JFrame {
     // Button for searching for a polygon by ID
     protected JButton searchButton;
 
-    // Button for sorting polygons by their IDs
+    // Button for looking up a pasted or loaded list of IDs at once
+    protected JButton lookupButton;
+
+    // Button for generating a large set of random polygons
+    protected JButton generateButton;
+
+    // Button for filtering polygons by sides, colour, fill and radius
+    protected JButton filterButton;
+
+    // Button for sorting polygons by one or more keys such as sides, radius or ID
     protected JButton sortButton;
 
     // Button for choosing the color of a polygon
@@ -49,18 +79,67 @@ public class ContainerFrame extends JFrame {
 
     // Button for displaying polygons
     protected JButton displayButton;
+
+    // Button for exporting polygons to a file
+    protected JButton exportButton;
+
+    // Button for showing all polygons as a grid of thumbnails
+    protected JButton galleryButton;
+
+    // Button for merging polygons from a batch record file into the store
+    protected JButton mergeButton;
+
+    // Button for running a script file of polygon commands
+    protected JButton scriptButton;
+
+    // Button for finding polygons that overlap at their scene positions
+    protected JButton overlapButton;
+
+    // Toggle button for starting and stopping animation of the selected polygons
+    protected JToggleButton animateButton;
+
+    // Toggle button for starting and stopping recording of the session to a replayable script
+    protected JToggleButton recordButton;
+
+    // Toggle button for following a growing file or standard input, and its status label
+    protected JToggleButton followButton;
+    protected JLabel followStatus;
+
+    // Combo box for choosing the animation mode
+    protected JComboBox<String> animationModeBox;
+
+    // Label reporting achieved animation frame rate and dropped frames
+    protected JLabel animationStatus;
     
     // Text area for displaying shape updates and information
     protected JTextArea textArea;
 
-    // ArrayList to store all created polygons
-    private final ArrayList<RegPolygon> polygonList = new ArrayList<>();
+    // Checkbox for batch mode, in which notifications are queued instead of shown as dialogs
+    protected JCheckBox batchModeBox;
+
+    // Collapsible summary of notifications queued in batch mode
+    protected StatusPanel statusPanel;
+
+    // Panel the polygons are drawn on
+    protected ContainerPanel drawPanel;
+
+    // Checkbox for the scene view, drawing every polygon at its scene position with zoom and pan
+    protected JCheckBox sceneBox;
+
+    // Checkbox for the statistics overlay on the draw panel, and the timer refreshing it while shown, created when the
+    // overlay is first shown
+    protected JCheckBox statsBox;
+    protected Timer statsTimer;
+
+    // Store holding all created polygons, with a sorted ID index for searching
+    private final PolygonStore polygonStore = new PolygonStore();
 
     //Creates and initialises the components for the ContainerFrame
     public void createComponents() {
 
-        // Event handler for ContainerFrame, concerns ActionListener buttons
-        ContainerFrameHandler handler = new ContainerFrameHandler(this);
+        // Event handler for ContainerFrame, concerns ActionListener buttons; each button's action command selects its
+        // action in the handler, and is the command name for buttons that run a registry command
+        handler = new ContainerFrameHandler(this);
 
         // Creates a new JPanel for entering polygon details
         JPanel inputPanel = new JPanel();
@@ -177,6 +256,7 @@ public class ContainerFrame extends JFrame {
         colourButton.setOpaque(true);
 
         // Add ActionListener to colour button for handling color selection
+        colourButton.setActionCommand("colour");
         colourButton.addActionListener(handler);
 
         // Set tooltip for colour button to provide information about colour selection
@@ -191,14 +271,16 @@ public class ContainerFrame extends JFrame {
         JPanel mainPanel = new JPanel(new GridBagLayout());
         GridBagConstraints gbcMain = new GridBagConstraints();
 
-        // Draw panel for displaying polygons
-        JPanel drawPanel = new ContainerPanel(this);
+        // Draw panel for displaying polygons; its animator, live canvas and statistics timer are created on first use
+        drawPanel = new ContainerPanel(this);
         gbcMain.gridx = 0;
         gbcMain.gridy = 0;
+        gbcMain.gridheight = 2;
         gbcMain.weightx = 2.0;
         gbcMain.weighty = 1.0;
         gbcMain.fill = GridBagConstraints.BOTH;
         mainPanel.add(drawPanel, gbcMain);
+        gbcMain.gridheight = 1;
 
         // Text area for displaying output of shape information, opening with a welcome message
         textArea = new JTextArea();
@@ -224,6 +306,12 @@ public class ContainerFrame extends JFrame {
         gbcMain.fill = GridBagConstraints.BOTH;
         mainPanel.add(scrollPane, gbcMain);
 
+        // Status summary below the text area, collapsed until expanded by the user
+        statusPanel = new StatusPanel();
+        gbcMain.gridy = 1;
+        gbcMain.weighty = 0;
+        mainPanel.add(statusPanel, gbcMain);
+
         /* Sets initial delay of ToolTipManager to 0 milliseconds, to eliminate any delay before showing tooltips, and
         ensures that tooltips are displayed immediately upon hovering over components */
         ToolTipManager.sharedInstance().setInitialDelay(0);
@@ -232,24 +320,123 @@ public class ContainerFrame extends JFrame {
         addPolygon = new JButton("Add");
         addPolygon.setToolTipText("<html>Enter a unique ID and shape details in <br>the menu above to add a new " +
                 "polygon</html>");
+        addPolygon.setActionCommand("add");
         addPolygon.addActionListener(handler);
 
         // Button to search a polygon by ID, with a tooltip about the button and ActionListener for the button
         searchButton = new JButton("Search");
-        searchButton.setToolTipText("Search for a polygon with a unique ID");
+        searchButton.setToolTipText("<html>Search for a polygon with a unique ID, an ID range e.g. 120000..129999," +
+                "<br>or an ID prefix e.g. 12****</html>");
+        searchButton.setActionCommand("search");
         searchButton.addActionListener(handler);
 
+        // Button to look up many IDs at once, with a tooltip about the button and ActionListener for the button
+        lookupButton = new JButton("Lookup");
+        lookupButton.setToolTipText("Find every polygon in a pasted or loaded list of IDs and select them together");
+        lookupButton.setActionCommand("lookup");
+        lookupButton.addActionListener(handler);
+
+        // Button to generate random polygons, with a tooltip about the button and ActionListener for the button
+        generateButton = new JButton("Generate");
+        generateButton.setToolTipText("Generate a repeatable set of random polygons for testing");
+        generateButton.setActionCommand("generate");
+        generateButton.addActionListener(handler);
+
+        // Button to filter polygons by attributes, with a tooltip about the button and ActionListener for the button
+        filterButton = new JButton("Filter");
+        filterButton.setToolTipText("Find polygons by number of sides, colour, fill and radius");
+        filterButton.setActionCommand("filter");
+        filterButton.addActionListener(handler);
+
         // Button to sort polygons by ID, with a tooltip about the button and ActionListener for the button
         sortButton = new JButton("Sort");
-        sortButton.setToolTipText("Sort polygons by their respective IDs");
+        sortButton.setToolTipText("Sort polygons by keys such as sides, area, radius or ID, most significant first");
+        sortButton.setActionCommand("sort");
         sortButton.addActionListener(handler);
 
         // Button to display polygons by ID, with a tooltip about the button and ActionListener for the button
         displayButton = new JButton("Display");
         displayButton.setToolTipText("Display all polygons in the command line");
+        displayButton.setActionCommand("display");
         displayButton.addActionListener(handler);
 
 
+        // Button to export polygons to an SVG file, with a tooltip about the button and ActionListener for the button
+        exportButton = new JButton("Export");
+        exportButton.setToolTipText(
+                "Export all or selected polygons to an SVG file, or the whole scene to a poster PNG");
+        exportButton.setActionCommand("export");
+        exportButton.addActionListener(handler);
+
+        // Button to merge polygons from a record file, with a tooltip about the button and ActionListener for it
+        mergeButton = new JButton("Merge");
+        mergeButton.setToolTipText("Merge polygons from a file of id,sides,angle,radius[,fill[,colour]] records");
+        mergeButton.setActionCommand("merge");
+        mergeButton.addActionListener(handler);
+
+        // Button to run a script of commands, with a tooltip about the button and ActionListener for the button
+        scriptButton = new JButton("Script");
+        scriptButton.setToolTipText("Run a file of commands such as add, search, sort, display and recolour");
+        scriptButton.setActionCommand("script");
+        scriptButton.addActionListener(handler);
+
+        // Button to show polygons as thumbnails, with a tooltip about the button and ActionListener for the button
+        galleryButton = new JButton("Gallery");
+        galleryButton.setToolTipText("Show all polygons as a scrolling grid of thumbnails");
+        galleryButton.setActionCommand("gallery");
+        galleryButton.addActionListener(handler);
+
+        // Button to find overlapping polygons, with a tooltip about the button and ActionListener for the button
+        overlapButton = new JButton("Overlaps");
+        overlapButton.setToolTipText("Find every pair of polygons that overlap at their scene positions");
+        overlapButton.setActionCommand("overlaps");
+        overlapButton.addActionListener(handler);
+
+        // Toggle button to record a session of commands, with a tooltip about the button and ActionListener
+        recordButton = new JToggleButton("Record");
+        recordButton.setToolTipText("Record the commands issued from now on and save them as a replayable script");
+        recordButton.setActionCommand("record");
+        recordButton.addActionListener(handler);
+
+        // Toggle button to follow a growing file of polygon records, with a tooltip and ActionListener
+        followButton = new JToggleButton("Follow");
+        followButton.setToolTipText("<html>Add polygons from a growing file of id,sides,angle,radius[,fill[,colour]] " +
+                "records<br>as they are written, drawing the newest as they arrive</html>");
+        followButton.setActionCommand("follow");
+        followButton.addActionListener(handler);
+        followStatus = new JLabel(" ");
+
+        // Toggle button and mode choice to animate the selected polygons, with a tooltip and ActionListener
+        animateButton = new JToggleButton("Animate");
+        animateButton.setToolTipText("Rotate or pulse the selected polygons");
+        animateButton.setActionCommand("animate");
+        animateButton.addActionListener(handler);
+        animationModeBox = new JComboBox<>(new String[]{"Rotate", "Pulse"});
+
+        // Checkbox for batch mode, with a tooltip and ActionListener for reporting when batch mode ends
+        batchModeBox = new JCheckBox("Batch mode");
+        batchModeBox.setToolTipText("<html>Queue messages in the status summary instead of showing a dialog " +
+                "for each,<br>with one report when batch mode is turned off</html>");
+        batchModeBox.setActionCommand("batch");
+        batchModeBox.addActionListener(handler);
+
+        // Checkbox for the scene view, with a tooltip and ActionListener for repainting the draw panel
+        sceneBox = new JCheckBox("Scene view");
+        sceneBox.setToolTipText("<html>Draw every polygon at its scene position<br>" +
+                "Scroll to zoom, drag to pan, double-click to fit the whole scene</html>");
+        sceneBox.setActionCommand("scene");
+        sceneBox.addActionListener(handler);
+
+        // Checkbox for the statistics overlay, with a tooltip and ActionListener for starting its refresh
+        statsBox = new JCheckBox("Stats");
+        statsBox.setToolTipText("<html>Show polygon count, estimated memory, operation latencies<br>" +
+                "and paint frame rate over the drawing</html>");
+        statsBox.setActionCommand("stats");
+        statsBox.addActionListener(handler);
+
+        // Label for the animation frame rate, empty until animation starts
+        animationStatus = new JLabel(" ");
+
         // Creates JPanel to contain buttons with a centered FlowLayout, and custom gaps between buttons
         JPanel buttonPanel = new JPanel();
         buttonPanel.setLayout(new FlowLayout(FlowLayout.CENTER, 10, 10));
@@ -262,12 +449,71 @@ public class ContainerFrame extends JFrame {
         buttonPanel.add(searchButton);
         buttonPanel.add(Box.createHorizontalStrut(10));
 
+        // Add lookupButton to the button panel with spacing
+        buttonPanel.add(lookupButton);
+        buttonPanel.add(Box.createHorizontalStrut(10));
+
+        // Add generateButton to the button panel with spacing
+        buttonPanel.add(generateButton);
+        buttonPanel.add(Box.createHorizontalStrut(10));
+
+        // Add filterButton to the button panel with spacing
+        buttonPanel.add(filterButton);
+        buttonPanel.add(Box.createHorizontalStrut(10));
+
         // Add searchButton button to the button panel with spacing
         buttonPanel.add(sortButton);
         buttonPanel.add(Box.createHorizontalStrut(10));
 
-        // Add displayButton to the button panel
+        // Add displayButton to the button panel with spacing
         buttonPanel.add(displayButton);
+        buttonPanel.add(Box.createHorizontalStrut(10));
+
+        // Add exportButton to the button panel with spacing
+        buttonPanel.add(exportButton);
+        buttonPanel.add(Box.createHorizontalStrut(10));
+
+        // Add mergeButton to the button panel with spacing
+        buttonPanel.add(mergeButton);
+        buttonPanel.add(Box.createHorizontalStrut(10));
+
+        // Add scriptButton to the button panel with spacing
+        buttonPanel.add(scriptButton);
+        buttonPanel.add(Box.createHorizontalStrut(10));
+
+        // Add galleryButton to the button panel with spacing
+        buttonPanel.add(galleryButton);
+        buttonPanel.add(Box.createHorizontalStrut(10));
+
+        // Add overlapButton to the button panel with spacing
+        buttonPanel.add(overlapButton);
+        buttonPanel.add(Box.createHorizontalStrut(10));
+
+        // Add batch mode checkbox to the button panel with spacing
+        buttonPanel.add(batchModeBox);
+        buttonPanel.add(Box.createHorizontalStrut(10));
+
+        // Add scene view checkbox to the button panel with spacing
+        buttonPanel.add(sceneBox);
+        buttonPanel.add(Box.createHorizontalStrut(10));
+
+        // Add stats overlay checkbox to the button panel with spacing
+        buttonPanel.add(statsBox);
+        buttonPanel.add(Box.createHorizontalStrut(10));
+
+        // Add recordButton to the button panel with spacing
+        buttonPanel.add(recordButton);
+        buttonPanel.add(Box.createHorizontalStrut(10));
+
+        // Add follow controls and status to the button panel with spacing
+        buttonPanel.add(followButton);
+        buttonPanel.add(followStatus);
+        buttonPanel.add(Box.createHorizontalStrut(10));
+
+        // Add animation controls and status to the button panel
+        buttonPanel.add(animateButton);
+        buttonPanel.add(animationModeBox);
+        buttonPanel.add(animationStatus);
 
         // Add the input panel to the top of the frame
         add(inputPanel, BorderLayout.NORTH);
@@ -280,10 +526,55 @@ public class ContainerFrame extends JFrame {
 
     }
 
-    // Retrieves the list of polygons stored in ContainerFrame
-    public ArrayList<RegPolygon> getPolygonList() {
-        // Returns ArrayList containing polygons
-        return polygonList;
+    // Returns the animator driving the draw panel, creating it when animation is first started
+    public PolygonAnimator getAnimator() {
+        if (animator == null) {
+            animator = new PolygonAnimator(this, drawPanel);
+        }
+        return animator;
+    }
+
+    // Returns the live canvas driving the draw panel while following, creating it when following first starts
+    public LiveCanvas getLiveCanvas() {
+        if (liveCanvas == null) {
+            liveCanvas = new LiveCanvas(this, drawPanel);
+        }
+        return liveCanvas;
+    }
+
+    // Retrieves a read-only list of the polygons stored in ContainerFrame, as of the latest store snapshot
+    public List<RegPolygon> getPolygonList() {
+        // Returns the list containing polygons in display order
+        return polygonStore.getPolygonList();
+    }
+
+    // Retrieves the polygon store, for adding polygons and querying them by ID
+    public PolygonStore getPolygonStore() {
+        return polygonStore;
+    }
+
+    // Selects a single polygon for drawing, or clears the selection if the polygon is null
+    public void selectPolygon(RegPolygon polygon) {
+        selectedPolygon = polygon;
+        selectedPolygons = polygon == null ? new RegPolygon[0] : new RegPolygon[]{polygon};
+    }
+
+    // Selects several polygons for drawing together; the first becomes the current polygon
+    public void selectPolygons(RegPolygon[] polygons) {
+        selectedPolygon = polygons.length == 0 ? null : polygons[0];
+        selectedPolygons = polygons;
+    }
+
+    /*
+     * Shows a message dialog, or queues the message in the status summary without blocking while batch mode is on
+     * The message type is a JOptionPane message type such as JOptionPane.ERROR_MESSAGE
+     */
+    public void showMessage(String message, String title, int messageType) {
+        if (batchModeBox != null && batchModeBox.isSelected()) {
+            statusPanel.queue(message, title, messageType);
+        } else {
+            JOptionPane.showMessageDialog(null, message, title, messageType);
+        }
     }
 
     // Appends text to the textArea, for output of shape updates, with a new line
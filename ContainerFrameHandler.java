@@ -4,8 +4,17 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 
 /**
  * Handler class for managing action events in the ContainerFrame
@@ -13,13 +22,52 @@ import java.util.Collections;
  */
 class ContainerFrameHandler implements ActionListener {
 
+    // Most overlapping pairs listed in the command line after an overlap search
+    private static final int MAX_OVERLAPS_LISTED = 20;
+
     // Manages associated ContainerFrame and InputHandler
     private ContainerFrame theFrame;
     private InputHandler inputHandler;
 
+    // Commands shared with scripts; every button with a command asks for its argument and runs it through runCommand
+    private final CommandRegistry commands = CommandRegistry.standard();
+
+    // Store, command line and statistics the buttons' commands work on, and the selection they read and make
+    private final CommandContext context;
+
+    // Action of each button and checkbox by its action command; a button with a registry command uses its name
+    private final Map<String, Runnable> actions = new HashMap<>();
+
+    // Sort keys last entered, offered again by the next sort
+    private String sortKeys = "id";
+
     public ContainerFrameHandler(ContainerFrame frame) {
         this.theFrame = frame;
         this.inputHandler = new InputHandler(frame);
+        this.context = new CommandContext(frame.getPolygonStore(), frame::appendText, frame.stats);
+
+        // Buttons running a registry command
+        actions.put("add", this::addPolygon);
+        actions.put("search", this::searchPolygons);
+        actions.put("lookup", this::lookupIds);
+        actions.put("sort", this::sortPolygons);
+        actions.put("display", this::displayPolygons);
+        actions.put("merge", this::mergePolygons);
+        actions.put("export", this::exportPolygons);
+
+        // Buttons and checkboxes acting on the window
+        actions.put("script", this::runScript);
+        actions.put("generate", this::generatePolygons);
+        actions.put("filter", this::filterPolygons);
+        actions.put("colour", this::chooseColour);
+        actions.put("gallery", this::openGallery);
+        actions.put("overlaps", this::findOverlaps);
+        actions.put("record", this::toggleRecording);
+        actions.put("follow", this::toggleFollow);
+        actions.put("animate", this::toggleAnimation);
+        actions.put("scene", this::toggleSceneView);
+        actions.put("stats", this::toggleStats);
+        actions.put("batch", this::toggleBatchMode);
     }
 
     // Handles key events for ID input field, restricting input length to 6 characters
@@ -30,225 +78,367 @@ class ContainerFrameHandler implements ActionListener {
         }
     }
 
+    // Handles key events for the search field, restricting input length to an ID range such as 120000..129999
+    protected void handleSearchKeyInput(KeyEvent e, JTextField textField) {
+        // Consumes key event if input length exceeds 14 characters
+        if (textField.getText().length() >= 14) {
+            e.consume();
+        }
+    }
+
     /* ActionListener responding to button clicks in ContainerFrame
-     * Coordinates adding, searching, sorting, displaying buttons, and handles colour button
+     * Runs the action registered under the action command of the button or checkbox (see createComponents)
      */
     public void actionPerformed(ActionEvent e) {
+        Runnable action = actions.get(e.getActionCommand());
+        if (action != null) {
+            action.run();
+        }
+    }
 
-        // Check if event source is the addPolygon button
-        if (e.getSource() == theFrame.addPolygon) {
+    /*
+     * Validates the polygon fields, adds the polygon through the add command and makes it the current polygon
+     * The command refuses the ID if another source took it after the ID field was checked
+     */
+    private void addPolygon() {
 
-            // Adds new ID from ID field input (and checks for duplicate ID), validation done within the method
-            int id = addNewID();
-            // If the ID generation fails (returns -1), exit the method
-            if (id == -1) {
-                return;
-            }
+        // Adds new ID from ID field input (and checks for duplicate ID), validation done within the method
+        int id = addNewID();
+        // If the ID generation fails (returns -1), exit the method
+        if (id == -1) {
+            return;
+        }
 
-            // Validates input for number of polygon sides
-            int sides = inputHandler.validateSideInput();
-            // If the side input is invalid (returns -1), exit the method
-            if (sides == -1) {
-                return;
-            }
+        // Validates input for number of polygon sides
+        int sides = inputHandler.validateSideInput();
+        // If the side input is invalid (returns -1), exit the method
+        if (sides == -1) {
+            return;
+        }
 
-            // Validates input for polygon angle
-            double angle = inputHandler.validateAngleInput();
-            // If the angle input is invalid (returns -1), exit the method
-            if (angle == -1) {
-                return;
-            }
+        // Validates input for polygon angle
+        double angle = inputHandler.validateAngleInput();
+        // If the angle input is invalid (returns NaN), exit the method
+        if (Double.isNaN(angle)) {
+            return;
+        }
 
-            // Validates input for polygon radius
-            double radius = inputHandler.validateRadiusInput();
-            // If the radius input is invalid (returns -1), exit the method
-            if (radius == -1) {
-                return;
-            }
+        // Validates input for polygon radius
+        double radius = inputHandler.validateRadiusInput();
+        // If the radius input is invalid (returns -1), exit the method
+        if (radius == -1) {
+            return;
+        }
 
-            // Obtains fill status in ContainerPanel (if ticked, fill in shape with colour)
-            boolean filled = theFrame.fillCheckBox.isSelected();
+        // Obtains fill status in ContainerPanel (if ticked, fill in shape with colour)
+        boolean filled = theFrame.fillCheckBox.isSelected();
 
-            // Obtains selected colour from current point in ContainerPanel
-            Color color = theFrame.selectedColor;
+        // Obtains selected colour from current point in ContainerPanel
+        Color color = theFrame.selectedColor;
 
-            // Appends line of dashes for visual separation
-            theFrame.appendText("-".repeat(70));
-            // Validation message for successfully validated polygon, building a string
-            String validMessage = "";
+        // Appends line of dashes for visual separation
+        theFrame.appendText("-".repeat(70));
+        // Validation message for successfully validated polygon, building a string
+        String validMessage = "";
 
-            validMessage += "Validation checks passed for polygon " + theFrame.idField.getText() + "\n";
+        validMessage += "Validation checks passed for polygon " + theFrame.idField.getText() + "\n";
 
-            // Check if the color is not selected; if not, use default (black), otherwise, print the selected color
-            if (color == null) {
-                color = Color.BLACK;
-                validMessage += "Default colour selected for polygon " + theFrame.idField.getText() + " (black)\n";
-            } else {
-                validMessage += "Colour selected for polygon " + theFrame.idField.getText() + ": red("
-                        + color.getRed() + "), green(" + color.getRed() + "), " + "blue(" + color.getRed() + ")\n";
-            }
+        // Check if the color is not selected; if not, use default (black), otherwise, print the selected color
+        if (color == null) {
+            color = Color.BLACK;
+            validMessage += "Default colour selected for polygon " + theFrame.idField.getText() + " (black)\n";
+        } else {
+            validMessage += "Colour selected for polygon " + theFrame.idField.getText() + ": red("
+                    + color.getRed() + "), green(" + color.getRed() + "), " + "blue(" + color.getRed() + ")\n";
+        }
 
-            // Creates a new polygon with the validated parameters
-            RegPolygon polygon = new RegPolygon(sides, angle, radius, id, filled, color);
-            // Adds the polygon to the list of polygons
-            theFrame.getPolygonList().add(polygon);
-            validMessage += "Polygon " + theFrame.idField.getText() + " successfully added to list";
-            theFrame.appendText(validMessage);
-            // Prints a line of dashes for visual separation
-            theFrame.appendText("-".repeat(70));
-
-            // Sets selected polygon in the ContainerFrame to the newly added polygon
-            theFrame.selectedPolygon = polygon;
-            // Repaints ContainerFrame to update the drawing panel with the new polygon
-            theFrame.repaint();
+        // Adds the polygon with the validated parameters through the add command, as a batch record
+        if (runCommand("add " + String.format("%06d", id) + "," + sides + "," + angle + "," + radius + "," +
+                filled + "," + String.format("#%06x", color.getRGB() & 0xFFFFFF)) == null) {
+            inputHandler.clearIDField();
+            return;
+        }
+        RegPolygon polygon = context.getSelection()[0];
+        validMessage += "Polygon " + theFrame.idField.getText() + " successfully added to list";
+        theFrame.appendText(validMessage);
+        // Prints a line of dashes for visual separation
+        theFrame.appendText("-".repeat(70));
+
+        // Sets selected polygon in the ContainerFrame to the newly added polygon
+        theFrame.selectPolygon(polygon);
+        // Repaints ContainerFrame to update the drawing panel with the new polygon
+        theFrame.repaint();
+
+        // Prints a message indicating the currently displayed polygon
+        theFrame.appendText("Current Polygon: " + theFrame.idField.getText());
+
+        // Clears text fields for the next input
+        clearTextFields();
+        inputHandler.clearIDField();
+    }
 
-            // Prints a message indicating the currently displayed polygon
-            theFrame.appendText("Current Polygon: " + theFrame.idField.getText());
+    /*
+     * Asks for an ID, ID range or ID prefix and finds the matching polygons through the search command
+     * A single ID becomes the current polygon; the polygons matching a range or prefix open in a SearchResultView
+     */
+    private void searchPolygons() {
 
-            // Clears text fields for the next input
-            clearTextFields();
-            inputHandler.clearIDField();
+        // Obtains list of polygons from ContainerFrame
+        List<RegPolygon> polygonList = theFrame.getPolygonList();
 
+        // Checks if polygon list is empty
+        if (polygonList.size() == 0) {
+            // Displays a message dialog indicating that there are no polygons to display
+            theFrame.showMessage("No polygons have been added\n" +
+                            "Add polygons first to enable search functionality",
+                    "No Polygons", JOptionPane.INFORMATION_MESSAGE);
+            theFrame.appendText("Polygon list is empty; cannot search for a polygon");
+            return;
         }
 
-        // Check if event source is searchButton
-        else if (e.getSource() == theFrame.searchButton) {
+        // Creates a text field for user input
+        JTextField idInput = new JTextField(14);
+        // Adds a key listener to handle input restrictions (prevents input longer than an ID range)
+        idInput.addKeyListener(new KeyAdapter() {
+            public void keyTyped(KeyEvent e) {
+                handleSearchKeyInput(e, idInput);
+            }
+        });
 
-            // Obtains list of polygons from ContainerFrame
-            ArrayList<RegPolygon> polygonList = theFrame.getPolygonList();
+        // Creates object array for input message, including ID input field and input text field
+        Object[] message = {
+                "Enter ID, ID range (120000..129999) or ID prefix (12****) to search:", idInput
+        };
 
-            // Checks if polygon list is empty
-            if (polygonList.size() == 0) {
-                // Displays a message dialog indicating that there are no polygons to display
-                JOptionPane.showMessageDialog(null, "No polygons have been added\n" +
-                                "Add polygons first to enable search functionality",
-                        "No Polygons", JOptionPane.INFORMATION_MESSAGE);
-                theFrame.appendText("Polygon list is empty; cannot search for a polygon");
-            } else {
+        // Shows dialog box with ID input field for searching
+        int option = JOptionPane.showConfirmDialog(null, message, "Search Polygon",
+                JOptionPane.OK_CANCEL_OPTION);
 
-                // Creates a text field for user input
-                JTextField idInput = new JTextField(10);
-                // Adds a key listener to handle ID input restrictions (prevents input of more than 6 characters)
-                idInput.addKeyListener(new KeyAdapter() {
-                    public void keyTyped(KeyEvent e) {
-                        handleIDKeyInput(e, idInput);
-                    }
-                });
+        // Proceed with polygon searching if OK is clicked
+        if (option == JOptionPane.OK_OPTION) {
+            // Searches for the ID, range or prefix from the input field
+            searchPolygons(idInput.getText());
+        }
 
-                // Creates object array for input message, including ID input field and input text field
-                Object[] message = {
-                        "Enter ID to search:", idInput
-                };
-
-                // Shows dialog box with ID input field for searching
-                int option = JOptionPane.showConfirmDialog(null, message, "Search Polygon",
-                        JOptionPane.OK_CANCEL_OPTION);
-
-                // Proceed with polygon searching if OK is clicked
-                if (option == JOptionPane.OK_OPTION) {
-                    // Obtains the search ID from the input field
-                    String searchID = idInput.getText();
-                    // Searches for polygon with specified ID
-                    theFrame.selectedPolygon = searchPolygon(searchID);
-                    // Repaints drawing panel to update display with selected polygon
-                    theFrame.repaint();
-                }
+        // Clears text fields for the next input
+        clearTextFields();
+    }
 
-                // Clears text fields for the next input
-                clearTextFields();
+    /* Finds the polygons matching an ID, ID range or ID prefix, as entered in the search dialog */
+    private void searchPolygons(String query) {
+        if (query.contains("..") || query.contains("*")) {
+            // Range and prefix queries open a result list instead of selecting a single polygon
+            searchPolygonRange(query);
+        } else {
+            // Searches for polygon with specified ID
+            theFrame.selectPolygon(searchPolygon(query));
+            // Repaints drawing panel to update display with selected polygon
+            theFrame.repaint();
+        }
+    }
 
+    /*
+     * Asks for the sort keys when there is anything to sort, then publishes the new order through the sort command;
+     * nothing is sorted if the dialog is cancelled or the keys are not valid
+     */
+    private void sortPolygons() {
+        String keys = sortKeys;
+        if (theFrame.getPolygonStore().size() > 1) {
+            keys = JOptionPane.showInputDialog(theFrame, "Sort by (" + PolygonSorter.getKeyNames() +
+                    "),\nmost significant first, with - before a key for descending order:", sortKeys);
+            if (keys == null) {
+                return;
             }
-
         }
+        sortPolygons(keys.trim().isEmpty() ? "id" : keys.trim());
+    }
 
-        // Checks if event source is colourButton
-        else if (e.getSource() == theFrame.colourButton) {
+    /* Sorts by the keys when there is anything to sort, as entered in the sort dialog, and reports the count */
+    private void sortPolygons(String keys) {
 
-            // If the colour chooser has not been initialised, create and display it for the user
-            if (theFrame.colourChooser == null) {
-                theFrame.colourChooser = new ColourSelector(theFrame);
-                theFrame.colourChooser.createColorSelector();
-                // Set location for colour chooser
-                theFrame.colourChooser.frame.setLocationRelativeTo(theFrame);
-            } else {
-                // If the colour chooser has been initialised, show its frame and set its location on the screen
-                theFrame.colourChooser.frame.setLocationRelativeTo(theFrame);
-                theFrame.colourChooser.frame.setVisible(true);
-            }
+        // Obtains the polygon store from ContainerFrame
+        PolygonStore store = theFrame.getPolygonStore();
 
+        if (store.size() > 1) {
+            if (runCommand("sort " + keys) == null) {
+                return;
+            }
+            sortKeys = keys;
         }
 
-        // Checks if event source is sortButton
-        else if (e.getSource() == theFrame.sortButton) {
+        // Displays a message indicating the number of polygons sorted
+        showSortMessage(store.size());
 
-            // Obtains list of polygons from getter method in ContainerFrame
-            ArrayList<RegPolygon> polygonList = theFrame.getPolygonList();
+        // Clears text fields to remove current input values, if any, for a fresh interface
+        clearTextFields();
+        inputHandler.clearIDField();
+    }
 
-            if (polygonList.size() > 1) {
-                // Sort the list of polygons if the size of the list is greater than one
-                Collections.sort(polygonList);
-            }
+    /* Prints every polygon in display order, then their area and perimeter totals, through the display command */
+    private void displayPolygons() {
 
-            // Displays a message indicating the number of polygons sorted
-            showSortMessage(polygonList.size());
+        // Obtains list of polygons from the latest store snapshot
+        List<RegPolygon> polygonList = theFrame.getPolygonList();
 
-            // Clears text fields to remove current input values, if any, for a fresh interface
-            clearTextFields();
-            inputHandler.clearIDField();
+        // Checks if the polygon list is empty
+        if (polygonList.size() == 0) {
+            // Displays a message dialog indicating that there are no polygons to display
+            theFrame.showMessage("No polygons to display",
+                    "Display", JOptionPane.INFORMATION_MESSAGE);
+            theFrame.appendText("Polygon list is empty; no polygons to display");
+        } else {
+
+            // Prints the details of each polygon, then their area and perimeter totals
+            runCommand("display");
 
+            // Displays a message dialog indicating the number of polygons printed to the command line
+            if (polygonList.size() == 1) {
+                theFrame.showMessage("1 polygon printed to command line",
+                        "Display", JOptionPane.INFORMATION_MESSAGE);
+            } else {
+                theFrame.showMessage(polygonList.size() +
+                                " polygons printed to command line",
+                        "Display", JOptionPane.INFORMATION_MESSAGE);
+            }
         }
 
-        // Checks if event source is displayButton
-        else if (e.getSource() == theFrame.displayButton) {
+        // Clears text fields to remove current input values, if any, for a fresh interface
+        clearTextFields();
+        inputHandler.clearIDField();
+    }
 
-            // Obtains list of polygons from getter method in ContainerFrame
-            ArrayList<RegPolygon> polygonList = theFrame.getPolygonList();
+    // Opens the colour chooser, creating it on first use
+    private void chooseColour() {
 
-            // Checks if the polygon list is empty
-            if (polygonList.size() == 0) {
-                // Displays a message dialog indicating that there are no polygons to display
-                JOptionPane.showMessageDialog(null, "No polygons to display",
-                        "Display", JOptionPane.INFORMATION_MESSAGE);
-                theFrame.appendText("Polygon list is empty; no polygons to display");
-            } else {
+        // If the colour chooser has not been initialised, create and display it for the user
+        if (theFrame.colourChooser == null) {
+            theFrame.colourChooser = new ColourSelector(theFrame);
+            theFrame.colourChooser.createColorSelector();
+            // Set location for colour chooser
+            theFrame.colourChooser.frame.setLocationRelativeTo(theFrame);
+        } else {
+            // If the colour chooser has been initialised, show its frame and set its location on the screen
+            theFrame.colourChooser.frame.setLocationRelativeTo(theFrame);
+            theFrame.colourChooser.frame.setVisible(true);
+        }
+    }
 
-                // Displays number of polygons that will be displayed
-                if (polygonList.size() == 1) {
-                    theFrame.appendText("Displaying " + polygonList.size() + " polygon:");
-                } else if (polygonList.size() > 1) {
-                    theFrame.appendText("Displaying " + polygonList.size() + " polygons:");
-                }
+    // Opens every polygon as a thumbnail gallery in its own window
+    private void openGallery() {
 
-                // Iterate through polygon list and display details of each one in the command line
-                for (int i = 0; i < polygonList.size(); i++) {
-                    RegPolygon p = polygonList.get(i);
-                    theFrame.appendText(String.valueOf(p));
-
-                    // If not the last polygon, print a line of dashes to separate polygons and their information
-                    if (i < polygonList.size() - 1) {
-                        String dash = "-";
-                        theFrame.appendText(dash.repeat(100));
-                    } else {
-                        System.out.println();
-                    }
-                }
+        // Checks if polygon list is empty
+        if (theFrame.getPolygonStore().size() == 0) {
+            theFrame.showMessage("No polygons to show\n" +
+                    "Add or generate polygons to see them in the gallery", "Gallery",
+                    JOptionPane.INFORMATION_MESSAGE);
+            theFrame.appendText("Polygon list is empty; no polygons to show in the gallery");
+            return;
+        }
+        GalleryView galleryView = new GalleryView(theFrame);
+        galleryView.createGalleryView();
+        theFrame.appendText("Gallery opened with " + theFrame.getPolygonStore().size() + " polygons");
+        theFrame.recorder.recordSkipped("gallery opened");
+    }
 
-                // Displays a message dialog indicating the number of polygons printed to the command line
-                if (polygonList.size() == 1) {
-                    JOptionPane.showMessageDialog(null, "1 polygon printed to command line",
-                            "Display", JOptionPane.INFORMATION_MESSAGE);
-                } else {
-                    JOptionPane.showMessageDialog(null, polygonList.size() +
-                                    " polygons printed to command line",
-                            "Display", JOptionPane.INFORMATION_MESSAGE);
-                }
+    // Starts recording the commands issued, or stops and offers to save them
+    private void toggleRecording() {
+        if (theFrame.recordButton.isSelected()) {
+            theFrame.recorder.start();
+            theFrame.appendText("Recording session; add, search, lookup, sort, display, merge and export are " +
+                    "recorded, and other actions are noted as comments");
+        } else {
+            saveSession(theFrame.recorder.stop());
+        }
+    }
+
+    // Starts following a chosen file, or stops following and reports the ingestion and backpressure measures
+    private void toggleFollow() {
+        if (theFrame.followButton.isSelected()) {
+            // Asks which file to follow; standard input can only be followed from the command line
+            JFileChooser chooser = new JFileChooser();
+            chooser.setDialogTitle("Follow File");
+            if (chooser.showOpenDialog(theFrame) != JFileChooser.APPROVE_OPTION) {
+                theFrame.followButton.setSelected(false);
+                return;
             }
+            theFrame.getLiveCanvas().start(chooser.getSelectedFile().getPath());
+            theFrame.recorder.recordSkipped("follow " + chooser.getSelectedFile().getPath());
+        } else {
+            theFrame.getLiveCanvas().stop();
+            theFrame.recorder.recordSkipped("follow stopped");
+        }
+    }
 
-            // Clears text fields to remove current input values, if any, for a fresh interface
-            clearTextFields();
-            inputHandler.clearIDField();
+    // Starts animating the selected polygons in the chosen mode, or stops and reports the achieved frame rate
+    private void toggleAnimation() {
+        if (theFrame.animateButton.isSelected()) {
+            // Checks there is something to animate
+            if (theFrame.selectedPolygons.length == 0) {
+                theFrame.showMessage("No polygons selected\n" +
+                                "Add, search or filter polygons to select them for animation",
+                        "Animate", JOptionPane.INFORMATION_MESSAGE);
+                theFrame.appendText("No polygons selected; cannot start animation");
+                theFrame.animateButton.setSelected(false);
+                return;
+            }
+
+            int mode = theFrame.animationModeBox.getSelectedIndex() == 0 ?
+                    PolygonAnimator.ROTATE : PolygonAnimator.PULSE;
+            theFrame.getAnimator().start(theFrame.selectedPolygons, mode);
+            theFrame.recorder.recordSkipped("animate " + theFrame.animationModeBox.getSelectedItem() + " for " +
+                    theFrame.selectedPolygons.length + " polygons");
+            theFrame.appendText("Animation started for " + theFrame.selectedPolygons.length +
+                    (theFrame.selectedPolygons.length == 1 ? " polygon" : " polygons"));
+        } else {
+            theFrame.getAnimator().stop();
+            theFrame.appendText(theFrame.getAnimator().getReport());
+            theFrame.recorder.recordSkipped("animate stopped");
+        }
+    }
+
+    // Switches the draw panel between the selected polygons and the whole scene
+    private void toggleSceneView() {
+        if (theFrame.sceneBox.isSelected()) {
+            theFrame.appendText("Scene view on; scroll to zoom, drag to pan, double-click to fit the scene");
+        } else {
+            theFrame.appendText("Scene view off; showing the selected polygons");
         }
+        theFrame.repaint();
+    }
 
+    // Refreshes the statistics overlay while it is shown, and repaints once to show or remove it
+    private void toggleStats() {
+        if (theFrame.statsBox.isSelected()) {
+            // Rebuilds the overlay text and repaints twice a second while the overlay is shown; created when first
+            // shown, and run once now so the overlay opens with current figures
+            if (theFrame.statsTimer == null) {
+                theFrame.statsTimer = new Timer(500, e -> {
+                    theFrame.stats.refresh(theFrame.getPolygonStore());
+                    theFrame.drawPanel.repaint();
+                });
+            }
+            theFrame.stats.refresh(theFrame.getPolygonStore());
+            theFrame.statsTimer.start();
+            theFrame.appendText("Statistics overlay on");
+        } else {
+            theFrame.statsTimer.stop();
+            theFrame.appendText("Statistics overlay off");
+        }
+        theFrame.repaint();
+    }
+
+    // Starts a batch with empty totals, or ends it and reports the whole batch at once
+    private void toggleBatchMode() {
+        if (theFrame.batchModeBox.isSelected()) {
+            theFrame.statusPanel.reset();
+            theFrame.appendText("Batch mode on; messages are queued in the status summary");
+        } else {
+            String summary = theFrame.statusPanel.getSummary();
+            theFrame.appendText("Batch mode off; batch produced " + summary);
+            JOptionPane.showMessageDialog(null, "Batch produced " + summary +
+                            "\nExpand the status summary to see each message",
+                    "Batch Report", JOptionPane.INFORMATION_MESSAGE);
+        }
     }
 
     /*
@@ -265,20 +455,15 @@ class ContainerFrameHandler implements ActionListener {
             return -1;
         }
 
-        // Obtains the list of polygons from the ContainerFrame
-        ArrayList<RegPolygon> polygonList = theFrame.getPolygonList();
-
-        // Checks if input ID already exists in the list of polygons
-        for (RegPolygon p : polygonList) {
-            if (p.getID() == id) {
-                // Display an error message for duplicate ID
-                JOptionPane.showMessageDialog(null, "ID " + theFrame.idField.getText() +
-                        " already exists\nUse a new ID value","Duplicate ID", JOptionPane.ERROR_MESSAGE);
-                // Clears ID field for input of a new polygon ID
-                inputHandler.clearIDField();
-                theFrame.appendText("Error: ID " + theFrame.idField.getText() +  "already exists in the polygon list");
-                return -1;
-            }
+        // Checks if input ID already exists in the polygon store, using its sorted ID index
+        if (theFrame.getPolygonStore().containsId(id)) {
+            // Display an error message for duplicate ID
+            theFrame.showMessage("ID " + theFrame.idField.getText() +
+                    " already exists\nUse a new ID value","Duplicate ID", JOptionPane.ERROR_MESSAGE);
+            // Clears ID field for input of a new polygon ID
+            inputHandler.clearIDField();
+            theFrame.appendText("Error: ID " + theFrame.idField.getText() +  "already exists in the polygon list");
+            return -1;
         }
 
         // Returns validated unique ID
@@ -299,17 +484,19 @@ class ContainerFrameHandler implements ActionListener {
             return null;
         }
 
-        // Search for the polygon with the provided ID
-        for (RegPolygon p : theFrame.getPolygonList()) {
-            if (p.getID() == id) {
-                theFrame.appendText(("Polygon " + searchId + " successfully retrieved"));
-                theFrame.appendText(("Current Polygon: " + searchId));
-                return p;
-            }
+        // Search for the polygon with the provided ID in the sorted ID index, through the search command
+        if (runCommand("search " + searchId) == null) {
+            return null;
+        }
+        RegPolygon p = context.getSelection().length == 0 ? null : context.getSelection()[0];
+        if (p != null) {
+            theFrame.appendText(("Polygon " + searchId + " successfully retrieved"));
+            theFrame.appendText(("Current Polygon: " + searchId));
+            return p;
         }
 
         // Displays an error message if the polygon with the ID is not found
-        JOptionPane.showMessageDialog(null, "No polygon found with ID: " + searchId,
+        theFrame.showMessage("No polygon found with ID: " + searchId,
                 "ID Not Found", JOptionPane.ERROR_MESSAGE);
         theFrame.appendText("Error: ID " + searchId +  " was not found in the polygon list");
         theFrame.appendText("Current Polygon: none - add or search for a polygon");
@@ -317,6 +504,796 @@ class ContainerFrameHandler implements ActionListener {
     }
 
 
+    /*
+     * Searches for all polygons within an ID range or ID prefix and shows them in a SearchResultView
+     * Both ends of the range are found by binary search over the sorted ID index, so large result sets open at once
+     */
+    private void searchPolygonRange(String query) {
+
+        // Validates the query, then finds its matches through the search command
+        if (!inputHandler.validateSearchRangeInput(query) || runCommand("search " + query) == null) {
+            return;
+        }
+        RegPolygon[] results = context.getSelection();
+
+        // Displays an error message if no polygon falls within the range
+        if (results.length == 0) {
+            theFrame.showMessage("No polygons found matching: " + query,
+                    "ID Not Found", JOptionPane.ERROR_MESSAGE);
+            theFrame.appendText("Error: no polygons matching " + query + " were found in the polygon list");
+            return;
+        }
+
+        theFrame.appendText(results.length + (results.length == 1 ? " polygon" : " polygons") + " found matching " +
+                query);
+
+        // Opens the result list; selecting a row makes it the current polygon
+        SearchResultView resultView = new SearchResultView(theFrame, query, results);
+        resultView.createResultView();
+    }
+
+    /*
+     * Asks for a list of IDs, pasted or loaded from a file, and looks them all up in one pass over the ID index
+     * Every polygon found is selected and drawn at once and listed in a SearchResultView; the IDs not found are
+     * listed together in the command line
+     */
+    private void lookupIds() {
+
+        // Checks if polygon list is empty
+        if (theFrame.getPolygonStore().size() == 0) {
+            theFrame.showMessage("No polygons have been added\n" +
+                            "Add polygons first to enable lookup functionality",
+                    "No Polygons", JOptionPane.INFORMATION_MESSAGE);
+            theFrame.appendText("Polygon list is empty; cannot look up polygons");
+            return;
+        }
+
+        // Text area for the IDs, with a button to fill it from a file
+        JTextArea idInput = new JTextArea(12, 30);
+        JButton loadButton = new JButton("Load File...");
+        loadButton.addActionListener(event -> {
+            JFileChooser chooser = new JFileChooser();
+            if (chooser.showOpenDialog(theFrame) == JFileChooser.APPROVE_OPTION) {
+                try {
+                    idInput.setText(Files.readString(chooser.getSelectedFile().toPath()));
+                } catch (IOException ex) {
+                    theFrame.showMessage("Could not read " + chooser.getSelectedFile() + ": " + ex.getMessage(),
+                            "Lookup Failed", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        });
+        Object[] message = {
+                "Paste IDs separated by spaces, commas or line breaks:", new JScrollPane(idInput), loadButton
+        };
+        int option = JOptionPane.showConfirmDialog(null, message, "Lookup IDs", JOptionPane.OK_CANCEL_OPTION);
+        if (option != JOptionPane.OK_OPTION || idInput.getText().isBlank()) {
+            return;
+        }
+        lookupIds(idInput.getText());
+    }
+
+    /* Looks up a list of IDs, as pasted or loaded in the lookup dialog, and selects and lists the polygons found */
+    private void lookupIds(String ids) {
+
+        // Looks the IDs up through the lookup command, which lists the IDs not found and the invalid entries; line
+        // breaks become spaces so the command is one line, as recorded
+        String result = runCommand("lookup " + ids.trim().replaceAll("\\s+", " "));
+        if (result == null) {
+            return;
+        }
+        theFrame.appendText(result);
+
+        // Selects and draws every polygon found together
+        RegPolygon[] hits = context.getSelection();
+        theFrame.selectPolygons(hits);
+        theFrame.repaint();
+        if (hits.length == 0) {
+            theFrame.showMessage("None of the IDs were found\n" + result, "ID Not Found", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        // Opens the polygons found as a result list
+        SearchResultView resultView = new SearchResultView(theFrame, "ID lookup", hits);
+        resultView.createResultView();
+    }
+
+    /*
+     * Asks for generator settings, builds the polygons in the background and adds them to the store in one batch
+     * Adding and generating are disabled until the batch is in, so the chosen IDs cannot be taken in the meantime
+     */
+    private void generatePolygons() {
+
+        // Creates input fields for each setting, with defaults
+        JTextField countInput = new JTextField("1000", 8);
+        JTextField seedInput = new JTextField("42", 8);
+        JTextField minSidesInput = new JTextField("3", 5);
+        JTextField maxSidesInput = new JTextField("12", 5);
+        JTextField minRadiusInput = new JTextField("10", 5);
+        JTextField maxRadiusInput = new JTextField("100", 5);
+        JTextField fillInput = new JTextField("50", 5);
+        JCheckBox colourInput = new JCheckBox("Use current colour instead of a palette");
+        JTextField sceneInput = new JTextField("10000", 8);
+
+        Object[] message = {
+                "Number of polygons:", countInput,
+                "Seed:", seedInput,
+                "Minimum sides:", minSidesInput,
+                "Maximum sides:", maxSidesInput,
+                "Minimum radius:", minRadiusInput,
+                "Maximum radius:", maxRadiusInput,
+                "Filled (%):", fillInput,
+                colourInput,
+                "Scene size:", sceneInput
+        };
+
+        // Shows dialog box with the generator fields
+        int option = JOptionPane.showConfirmDialog(null, message, "Generate Polygons",
+                JOptionPane.OK_CANCEL_OPTION);
+        if (option != JOptionPane.OK_OPTION) {
+            return;
+        }
+
+        // Number of 6 digit IDs not yet in use
+        int freeIds = PolygonStore.ID_SPACE - theFrame.getPolygonStore().size();
+
+        // Checks each setting in turn with the polygon input rules, stopping at the first invalid one; each maximum
+        // is checked against its minimum by making the minimum the lower bound of its range
+        PolygonValidator validator = new PolygonValidator();
+        if (!checkSetting(validator.validateInteger(countInput.getText(), 1, freeIds), "Number of polygons",
+                "a whole number from 1 to " + freeIds + ", the IDs still free")) {
+            return;
+        }
+        int count = validator.intValue();
+        if (!checkSetting(validator.validateInteger(seedInput.getText(), Integer.MIN_VALUE, Integer.MAX_VALUE),
+                "Seed", "a whole number")) {
+            return;
+        }
+        long seed = validator.intValue();
+        if (!checkSetting(validator.validateInteger(minSidesInput.getText(), 3, PolygonGenerator.MAX_SIDES),
+                "Minimum sides", "a whole number from 3 to " + PolygonGenerator.MAX_SIDES)) {
+            return;
+        }
+        int minSides = validator.intValue();
+        if (!checkSetting(validator.validateInteger(maxSidesInput.getText(), minSides, PolygonGenerator.MAX_SIDES),
+                "Maximum sides", "a whole number from the minimum, " + minSides + ", to " +
+                        PolygonGenerator.MAX_SIDES)) {
+            return;
+        }
+        int maxSides = validator.intValue();
+        if (!checkSetting(validator.validateRadius(minRadiusInput.getText()), "Minimum radius", "a number above 0")) {
+            return;
+        }
+        double minRadius = validator.doubleValue();
+        if (!checkSetting(validator.validateDecimal(maxRadiusInput.getText(), minRadius, Double.MAX_VALUE),
+                "Maximum radius", "a number not below the minimum, " + minRadius)) {
+            return;
+        }
+        double maxRadius = validator.doubleValue();
+        if (!checkSetting(validator.validateDecimal(fillInput.getText(), 0, 100), "Filled (%)",
+                "a number from 0 to 100")) {
+            return;
+        }
+        double fillPercent = validator.doubleValue();
+        if (!checkSetting(validator.validateDecimal(sceneInput.getText(), 0, Double.MAX_VALUE), "Scene size",
+                "a number that is not negative")) {
+            return;
+        }
+        double sceneSize = validator.doubleValue();
+
+        Color colour = null;
+        if (colourInput.isSelected()) {
+            colour = theFrame.selectedColor == null ? Color.BLACK : theFrame.selectedColor;
+        }
+
+        PolygonGenerator generator = new PolygonGenerator(seed, minSides, maxSides, minRadius, maxRadius,
+                fillPercent / 100, colour, sceneSize);
+        int[] usedIds = theFrame.getPolygonStore().getSortedIds();
+
+        // Prevents new IDs being added while the batch is generated
+        theFrame.addPolygon.setEnabled(false);
+        theFrame.generateButton.setEnabled(false);
+        theFrame.appendText("Generating " + count + " polygons (seed " + seed + ")...");
+        theFrame.recorder.recordSkipped("generate " + count + " polygons, seed " + seed + ", sides " + minSides +
+                ".." + maxSides + ", radius " + minRadius + ".." + maxRadius + ", " + fillPercent + "% filled");
+
+        long start = System.nanoTime();
+
+        // Builds the polygons and adds them to the store off the event dispatch thread; the store is thread safe and
+        // the display keeps drawing the previous snapshot until the batch is published
+        new SwingWorker<Integer, Void>() {
+
+            // Time at which generation finished, before the batch was added
+            private long generated;
+
+            @Override
+            protected Integer doInBackground() {
+                RegPolygon[] batch = generator.generate(count, usedIds);
+                generated = System.nanoTime();
+                return theFrame.getPolygonStore().addAll(batch);
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    int added = get();
+                    long finished = System.nanoTime();
+                    theFrame.appendText(String.format("%d polygons generated in %d ms and added in %d ms",
+                            added, (generated - start) / 1_000_000, (finished - generated) / 1_000_000));
+                } catch (Exception ex) {
+                    theFrame.appendText("Error: polygon generation failed - " + ex.getMessage());
+                } finally {
+                    theFrame.addPolygon.setEnabled(true);
+                    theFrame.generateButton.setEnabled(true);
+                }
+            }
+        }.execute();
+    }
+
+    // Reports a generator setting that failed its check, naming the rule it must meet; returns true if it is valid
+    private boolean checkSetting(int code, String setting, String rule) {
+        if (code == PolygonValidator.VALID) {
+            return true;
+        }
+        theFrame.showMessage(setting + " must be " + rule, "Invalid Settings", JOptionPane.ERROR_MESSAGE);
+        theFrame.appendText("Error: Invalid generator setting - " + setting + ": " +
+                PolygonValidator.errorMessage(code) + "; it must be " + rule);
+        return false;
+    }
+
+    /*
+     * Repeats a recorded command line as its button would run it once the dialog is answered: an add fills in the
+     * polygon fields and presses Add, and search, lookup, sort and display run the button's code with the recorded
+     * argument. Merge, export and any other command run through runCommand on this thread, so the caller can time
+     * them; the polygons they select are drawn
+     */
+    void replay(String line) {
+        String[] parts = line.trim().split("\\s+", 2);
+        String argument = parts.length > 1 ? parts[1] : "";
+        switch (parts[0]) {
+            case "add":
+                PolygonBatch batch = new PolygonBatch();
+                new PolygonValidator().validateBatch(argument, batch);
+                if (batch.size() != 1 || batch.validCount() != 1) {
+                    // Reports the invalid record as the add command would
+                    runCommand(line);
+                    return;
+                }
+                RegPolygon polygon = batch.toPolygons()[0];
+                theFrame.idField.setText(polygon.getFormattedId(polygon.getID()));
+                theFrame.sidesField.setText(String.valueOf(polygon.getSides()));
+                theFrame.angleField.setText(String.valueOf(polygon.getStartingAngle()));
+                theFrame.radiusField.setText(String.valueOf(polygon.getRadius()));
+                theFrame.fillCheckBox.setSelected(polygon.isFilled());
+                theFrame.selectedColor = polygon.getColor();
+                addPolygon();
+                break;
+            case "search":
+                searchPolygons(argument);
+                clearTextFields();
+                break;
+            case "lookup":
+                lookupIds(argument);
+                break;
+            case "sort":
+                sortPolygons(argument.isEmpty() ? "id" : argument);
+                break;
+            case "display":
+                displayPolygons();
+                break;
+            default:
+                if (runCommand(line) != null) {
+                    theFrame.selectPolygons(context.getSelection());
+                    theFrame.repaint();
+                }
+                break;
+        }
+    }
+
+    /*
+     * Runs a command line on the window's store, starting from the window's selection, and records it in the session
+     * if it succeeds; returns the command's result, or null after reporting the error if it fails
+     * The polygons the command selects are then read from the context
+     */
+    private String runCommand(String line) {
+        context.setSelection(theFrame.selectedPolygons);
+        try {
+            String result = commands.dispatch(context, line);
+            theFrame.recorder.record(line);
+            return result;
+        } catch (IOException | IllegalArgumentException ex) {
+            theFrame.showMessage(ex.getMessage(), "Command Failed", JOptionPane.ERROR_MESSAGE);
+            theFrame.appendText("Error: " + line + " failed - " + ex.getMessage());
+            return null;
+        }
+    }
+
+    /*
+     * Runs a command line that reads or writes a file, such as merge or export, in the background with its output
+     * streamed to the command line and the button disabled until it finishes
+     * A command that succeeds is recorded and its result reported with the time taken, then passed to onDone
+     */
+    private void runCommandInBackground(String line, JButton button, Consumer<String> onDone) {
+        button.setEnabled(false);
+        RegPolygon[] selection = theFrame.selectedPolygons;
+        long start = System.nanoTime();
+
+        new SwingWorker<String, String>() {
+            // Store, selection and output of the command
+            private final CommandContext backgroundContext = new CommandContext(theFrame.getPolygonStore(),
+                    text -> publish(text), theFrame.stats);
+
+            @Override
+            protected String doInBackground() throws IOException {
+                backgroundContext.setSelection(selection);
+                return commands.dispatch(backgroundContext, line);
+            }
+
+            @Override
+            protected void process(List<String> lines) {
+                for (String text : lines) {
+                    theFrame.appendText(text);
+                }
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    String result = get();
+                    theFrame.recorder.record(line);
+                    theFrame.appendText(result + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+                    onDone.accept(result);
+                } catch (ExecutionException ex) {
+                    String reason = failureReason(ex);
+                    theFrame.showMessage(reason, "Command Failed", JOptionPane.ERROR_MESSAGE);
+                    theFrame.appendText("Error: " + line + " failed - " + reason);
+                } catch (InterruptedException | CancellationException ex) {
+                    theFrame.appendText("Error: " + line + " did not finish - " + ex.getMessage());
+                } finally {
+                    button.setEnabled(true);
+                }
+            }
+        }.execute();
+    }
+
+    // Asks where to save a finished recording and writes it as a script, unless nothing was recorded
+    private void saveSession(int commandCount) {
+        if (commandCount == 0) {
+            int skipped = theFrame.recorder.skippedCount();
+            theFrame.appendText("Recording stopped; no replayable commands were recorded" + (skipped == 0 ? "" :
+                    " (" + skipped + (skipped == 1 ? " action" : " actions") + " that cannot be replayed)"));
+            return;
+        }
+
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File("session.txt"));
+        if (chooser.showSaveDialog(theFrame) != JFileChooser.APPROVE_OPTION) {
+            theFrame.appendText("Recording of " + commandCount + " commands discarded");
+            return;
+        }
+        Path path = chooser.getSelectedFile().toPath();
+        try {
+            theFrame.recorder.save(path);
+            theFrame.appendText("Session of " + commandCount + (commandCount == 1 ? " command" : " commands") +
+                    " saved to " + path + "; replay it with the Script button or SessionReplay");
+        } catch (IOException ex) {
+            theFrame.showMessage("Session could not be saved: " + ex.getMessage(),
+                    "Save Failed", JOptionPane.ERROR_MESSAGE);
+            theFrame.appendText("Error: session could not be saved to " + path + " - " + ex.getMessage());
+        }
+    }
+
+    /*
+     * Asks for a script file and runs its commands in the background on the window's store, streaming their output to
+     * the command line; the polygons selected by the script's last add or search become the current selection
+     */
+    private void runScript() {
+
+        // Asks which script to run
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showOpenDialog(theFrame) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path path = chooser.getSelectedFile().toPath();
+
+        theFrame.scriptButton.setEnabled(false);
+        theFrame.appendText("Running script " + path);
+        theFrame.recorder.recordSkipped("script " + path);
+        long start = System.nanoTime();
+
+        // Runs the commands off the event dispatch thread, publishing each output line
+        new SwingWorker<Integer, String>() {
+            // Store, selection and output of the script
+            private final CommandContext context = new CommandContext(theFrame.getPolygonStore(),
+                    line -> publish(line), theFrame.stats);
+
+            @Override
+            protected Integer doInBackground() throws Exception {
+                return commands.runScript(context, Files.readAllLines(path));
+            }
+
+            @Override
+            protected void process(List<String> lines) {
+                for (String line : lines) {
+                    theFrame.appendText(line);
+                }
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    int run = get();
+                    theFrame.appendText(run + (run == 1 ? " command" : " commands") + " run from " + path + " in " +
+                            (System.nanoTime() - start) / 1_000_000 + " ms");
+                } catch (ExecutionException ex) {
+                    String reason = failureReason(ex);
+                    theFrame.showMessage("Script failed: " + reason, "Script Failed", JOptionPane.ERROR_MESSAGE);
+                    theFrame.appendText("Error: script " + path + " failed - " + reason);
+                } catch (InterruptedException | CancellationException ex) {
+                    theFrame.appendText("Error: script " + path + " did not finish - " + ex.getMessage());
+                } finally {
+                    if (context.getSelection().length > 0) {
+                        theFrame.selectPolygons(context.getSelection());
+                    }
+                    theFrame.repaint();
+                    theFrame.scriptButton.setEnabled(true);
+                }
+            }
+        }.execute();
+    }
+
+    /*
+     * Asks for a record file and a conflict policy, then validates the file and merges its polygons into the store in
+     * the background through the merge command, listing the first conflicts in the command line
+     */
+    private void mergePolygons() {
+
+        // Asks which file to merge
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showOpenDialog(theFrame) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path path = chooser.getSelectedFile().toPath();
+
+        // Asks how to resolve IDs held by both sets
+        String[] choices = {"Keep Existing", "Keep Incoming", "Renumber Incoming", "Cancel"};
+        int policy = JOptionPane.showOptionDialog(null, "When an ID is already in use:", "Merge Polygons",
+                JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null, choices, choices[0]);
+        if (policy < PolygonMerger.KEEP_LEFT || policy > PolygonMerger.RENUMBER) {
+            return;
+        }
+
+        // Validates and merges the file through the merge command, which lists the first conflicts
+        runCommandInBackground("merge " + path + " " + PolygonMerger.policyKeyword(policy), theFrame.mergeButton,
+                result -> theFrame.showMessage(result, "Merge Polygons", JOptionPane.INFORMATION_MESSAGE));
+    }
+
+    /*
+     * Asks whether to export all or the selected polygons and where to save them, then writes the SVG file in the
+     * background through the export command, or renders the whole scene as a poster
+     */
+    private void exportPolygons() {
+
+        // Checks if polygon list is empty
+        if (theFrame.getPolygonStore().size() == 0) {
+            theFrame.showMessage("No polygons to export",
+                    "Export", JOptionPane.INFORMATION_MESSAGE);
+            theFrame.appendText("Polygon list is empty; no polygons to export");
+            return;
+        }
+
+        // Asks which polygons to export
+        String[] choices = {"All Polygons", "Selected Polygons", "Poster PNG", "Cancel"};
+        int choice = JOptionPane.showOptionDialog(null, "Export which polygons?", "Export",
+                JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null, choices, choices[0]);
+        if (choice == 2) {
+            exportPoster();
+            return;
+        }
+        if (choice != 0 && choice != 1) {
+            return;
+        }
+
+        if (choice == 1 && theFrame.selectedPolygons.length == 0) {
+            theFrame.showMessage("No polygons are selected\n" +
+                    "Add, search or filter polygons to select them", "Export", JOptionPane.INFORMATION_MESSAGE);
+            theFrame.appendText("No polygons selected; nothing to export");
+            return;
+        }
+
+        // Asks where to save the file
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File("polygons.svg"));
+        if (chooser.showSaveDialog(theFrame) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path path = chooser.getSelectedFile().toPath();
+
+        // Writes the file off the event dispatch thread through the export command
+        runCommandInBackground("export " + path + (choice == 0 ? " all" : " selected"), theFrame.exportButton,
+                result -> { });
+    }
+
+    /*
+     * Asks for a poster width and where to save it, then renders the whole scene to a PNG file band by band in the
+     * background, reporting progress in the command line
+     */
+    private void exportPoster() {
+
+        // Polygons as of the latest store snapshot
+        List<RegPolygon> polygons = theFrame.getPolygonList();
+
+        // Asks for the width; the height follows the scene's proportions
+        String input = JOptionPane.showInputDialog(theFrame, "Poster width in pixels:", "Export Poster",
+                JOptionPane.QUESTION_MESSAGE);
+        if (input == null) {
+            return;
+        }
+        PolygonValidator validator = new PolygonValidator();
+        int code = validator.validateInteger(input.trim(), 1, PosterExporter.MAX_SIDE);
+        if (code != PolygonValidator.VALID) {
+            theFrame.showMessage("Poster width must be a whole number from 1 to " + PosterExporter.MAX_SIDE,
+                    "Invalid Width", JOptionPane.ERROR_MESSAGE);
+            theFrame.appendText("Error: invalid poster width \"" + input + "\" - " +
+                    PolygonValidator.errorMessage(code));
+            return;
+        }
+        int width = validator.intValue();
+        int height = PosterExporter.heightFor(polygons, width);
+
+        // Asks where to save the file
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File("poster.png"));
+        if (chooser.showSaveDialog(theFrame) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path path = chooser.getSelectedFile().toPath();
+
+        theFrame.exportButton.setEnabled(false);
+        theFrame.appendText("Rendering " + width + " x " + height + " poster to " + path);
+        theFrame.recorder.recordSkipped("poster " + width + " x " + height + " to " + path);
+        long start = System.nanoTime();
+
+        // Renders off the event dispatch thread, publishing progress every ten percent
+        new SwingWorker<Void, Integer>() {
+            @Override
+            protected Void doInBackground() throws Exception {
+                int[] reported = {0};
+                new PosterExporter().export(polygons, width, path, percent -> {
+                    if (percent / 10 > reported[0] / 10) {
+                        reported[0] = percent;
+                        publish(percent);
+                    }
+                });
+                return null;
+            }
+
+            @Override
+            protected void process(List<Integer> percents) {
+                theFrame.appendText("Poster " + percents.get(percents.size() - 1) + "% rendered");
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    get();
+                    theFrame.appendText(width + " x " + height + " poster of " + polygons.size() +
+                            (polygons.size() == 1 ? " polygon" : " polygons") + " exported to " + path + " in " +
+                            (System.nanoTime() - start) / 1_000_000 + " ms");
+                } catch (ExecutionException ex) {
+                    String reason = failureReason(ex);
+                    theFrame.showMessage("Poster export failed: " + reason, "Export Failed",
+                            JOptionPane.ERROR_MESSAGE);
+                    theFrame.appendText("Error: poster export to " + path + " failed - " + reason);
+                } catch (InterruptedException | CancellationException ex) {
+                    theFrame.appendText("Error: poster export to " + path + " did not finish - " + ex.getMessage());
+                } finally {
+                    theFrame.exportButton.setEnabled(true);
+                }
+            }
+        }.execute();
+    }
+
+    /*
+     * Finds every pair of overlapping polygons in the background, then lists the first pairs in the command line and
+     * shows every polygon that overlaps another in a SearchResultView
+     */
+    private void findOverlaps() {
+
+        // Checks if there are at least two polygons to compare
+        if (theFrame.getPolygonStore().size() < 2) {
+            theFrame.showMessage("At least 2 polygons are needed to find overlaps",
+                    "Overlaps", JOptionPane.INFORMATION_MESSAGE);
+            theFrame.appendText("Fewer than 2 polygons; no overlaps to find");
+            return;
+        }
+
+        // Polygons as of the latest store snapshot, so the search sees a consistent set
+        RegPolygon[] polygons = theFrame.getPolygonList().toArray(new RegPolygon[0]);
+
+        theFrame.overlapButton.setEnabled(false);
+        theFrame.appendText("Finding overlaps among " + polygons.length + " polygons...");
+        theFrame.recorder.recordSkipped("overlaps among " + polygons.length + " polygons");
+        long start = System.nanoTime();
+
+        // Runs the detection off the event dispatch thread
+        new SwingWorker<Long, Void>() {
+
+            // Number of pairs given the exact test, the first pairs found and the polygons in any pair
+            private long candidates;
+            private long[] listed;
+            private BitSet overlapping;
+
+            @Override
+            protected Long doInBackground() {
+                OverlapDetector detector = new OverlapDetector(polygons);
+                long pairs = detector.findOverlaps(MAX_OVERLAPS_LISTED);
+                candidates = detector.getCandidateCount();
+                listed = detector.getListedPairs();
+                overlapping = detector.getOverlapping();
+                return pairs;
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    long pairs = get();
+                    theFrame.appendText(pairs + (pairs == 1 ? " overlapping pair" : " overlapping pairs") +
+                            " found in " + (System.nanoTime() - start) / 1_000_000 + " ms (" + candidates +
+                            " pairs tested exactly)");
+
+                    if (pairs == 0) {
+                        theFrame.showMessage("No polygons overlap", "Overlaps", JOptionPane.INFORMATION_MESSAGE);
+                        return;
+                    }
+
+                    // Lists the first pairs
+                    for (long pair : listed) {
+                        RegPolygon first = polygons[(int) (pair >>> 32)];
+                        RegPolygon second = polygons[(int) pair];
+                        theFrame.appendText("Polygon " + first.getFormattedId(first.getID()) + " overlaps " +
+                                second.getFormattedId(second.getID()));
+                    }
+                    if (pairs > listed.length) {
+                        theFrame.appendText("... and " + (pairs - listed.length) + " more pairs");
+                    }
+
+                    // Shows every polygon in any pair
+                    RegPolygon[] results = new RegPolygon[overlapping.cardinality()];
+                    int count = 0;
+                    for (int i = overlapping.nextSetBit(0); i >= 0; i = overlapping.nextSetBit(i + 1)) {
+                        results[count++] = polygons[i];
+                    }
+                    SearchResultView resultView = new SearchResultView(theFrame, "overlapping polygons", results);
+                    resultView.createResultView();
+                } catch (Exception ex) {
+                    theFrame.appendText("Error: overlap detection failed - " + ex.getMessage());
+                } finally {
+                    theFrame.overlapButton.setEnabled(true);
+                }
+            }
+        }.execute();
+    }
+
+    /*
+     * Asks for filter criteria and shows the matching polygons in a SearchResultView
+     * Criteria left empty are not applied; the store answers the query by intersecting its secondary indexes
+     */
+    private void filterPolygons() {
+
+        // Checks if polygon list is empty
+        if (theFrame.getPolygonStore().size() == 0) {
+            theFrame.showMessage("No polygons have been added\n" +
+                            "Add polygons first to enable filter functionality",
+                    "No Polygons", JOptionPane.INFORMATION_MESSAGE);
+            theFrame.appendText("Polygon list is empty; cannot filter polygons");
+            return;
+        }
+
+        // Creates input fields for each criterion
+        JTextField sidesInput = new JTextField(5);
+        JComboBox<String> fillInput = new JComboBox<>(new String[]{"Any", "Filled", "Not filled"});
+        JCheckBox colourInput = new JCheckBox("Match current colour");
+        JTextField minRadiusInput = new JTextField(5);
+        JTextField maxRadiusInput = new JTextField(5);
+
+        Object[] message = {
+                "Number of sides:", sidesInput,
+                "Fill:", fillInput,
+                colourInput,
+                "Minimum radius:", minRadiusInput,
+                "Maximum radius:", maxRadiusInput
+        };
+
+        // Shows dialog box with the filter fields
+        int option = JOptionPane.showConfirmDialog(null, message, "Filter Polygons",
+                JOptionPane.OK_CANCEL_OPTION);
+        if (option != JOptionPane.OK_OPTION) {
+            return;
+        }
+
+        int sides = -1;
+        double minRadius = 0;
+        double maxRadius = Double.MAX_VALUE;
+
+        // Checks each criterion that was entered; an empty field leaves that criterion out of the filter
+        PolygonValidator validator = new PolygonValidator();
+        String sidesText = sidesInput.getText().trim();
+        if (!sidesText.isEmpty()) {
+            if (!checkCriterion(validator.validateSides(sidesText), "Number of sides",
+                    "a whole number of 3 or more")) {
+                return;
+            }
+            sides = validator.intValue();
+        }
+        String minRadiusText = minRadiusInput.getText().trim();
+        if (!minRadiusText.isEmpty()) {
+            if (!checkCriterion(validator.validateDecimal(minRadiusText, 0, Double.MAX_VALUE), "Minimum radius",
+                    "a number that is not negative")) {
+                return;
+            }
+            minRadius = validator.doubleValue();
+        }
+        String maxRadiusText = maxRadiusInput.getText().trim();
+        if (!maxRadiusText.isEmpty()) {
+            if (!checkCriterion(validator.validateDecimal(maxRadiusText, minRadius, Double.MAX_VALUE),
+                    "Maximum radius", "a number not below the minimum, " + minRadius)) {
+                return;
+            }
+            maxRadius = validator.doubleValue();
+        }
+
+        // Converts the fill choice to a filter value, null meaning either
+        Boolean filled = null;
+        if (fillInput.getSelectedIndex() == 1) {
+            filled = Boolean.TRUE;
+        } else if (fillInput.getSelectedIndex() == 2) {
+            filled = Boolean.FALSE;
+        }
+
+        Color colour = null;
+        if (colourInput.isSelected()) {
+            colour = theFrame.selectedColor == null ? Color.BLACK : theFrame.selectedColor;
+        }
+
+        // Builds a description of the filter for the command line and results window
+        String description = (sides >= 3 ? "sides=" + sides + " " : "") +
+                (filled == null ? "" : filled ? "filled " : "not filled ") +
+                (colour == null ? "" : "colour=(" + colour.getRed() + "," + colour.getGreen() + "," +
+                        colour.getBlue() + ") ") +
+                (minRadius > 0 ? "radius>=" + minRadius + " " : "") +
+                (maxRadius < Double.MAX_VALUE ? "radius<=" + maxRadius : "");
+        description = description.isBlank() ? "all polygons" : description.trim();
+
+        RegPolygon[] results = theFrame.getPolygonStore().filter(sides, colour, filled, minRadius, maxRadius);
+        theFrame.recorder.recordSkipped("filter " + description);
+
+        // Displays an error message if no polygon matches the filter
+        if (results.length == 0) {
+            theFrame.showMessage("No polygons found matching: " + description,
+                    "No Matches", JOptionPane.INFORMATION_MESSAGE);
+            theFrame.appendText("No polygons matching " + description + " were found in the polygon list");
+            return;
+        }
+
+        theFrame.appendText(results.length + (results.length == 1 ? " polygon" : " polygons") + " found matching " +
+                description);
+
+        SearchResultView resultView = new SearchResultView(theFrame, description, results);
+        resultView.createResultView();
+    }
+
+    // Reports a filter criterion that failed its check, naming the rule it must meet; returns true if it is valid
+    private boolean checkCriterion(int code, String criterion, String rule) {
+        if (code == PolygonValidator.VALID) {
+            return true;
+        }
+        theFrame.showMessage(criterion + " must be " + rule + ", or left empty to match any",
+                "Invalid Filter", JOptionPane.ERROR_MESSAGE);
+        theFrame.appendText("Error: Invalid filter - " + criterion + ": " + PolygonValidator.errorMessage(code) +
+                "; it must be " + rule);
+        return false;
+    }
+
     /*
      * Displays a message dialog and command line message indicating the number of polygons sorted
      */
@@ -324,20 +1301,21 @@ class ContainerFrameHandler implements ActionListener {
 
         if (numPolygons == 0) {
             // Display a message if there are no polygons to sort
-            JOptionPane.showMessageDialog(null, "There are no polygons to sort",
+            theFrame.showMessage("There are no polygons to sort",
                     "No Polygons", JOptionPane.INFORMATION_MESSAGE);
             theFrame.appendText("No polygons to sort (empty polygon list)");
         } else if (numPolygons == 1) {
             // Display a message if only one polygon is present, which does not need sorting
-            JOptionPane.showMessageDialog(null, "There is 1 polygon present, so there is " +
+            theFrame.showMessage("There is 1 polygon present, so there is " +
                             "no need for sorting",
                     "1 Polygon Sorted", JOptionPane.INFORMATION_MESSAGE);
             theFrame.appendText("1 polygon in polygon list; no need for sorting");
         } else {
-            // Display a message indicating the number of polygons sorted (more than 1)
-            JOptionPane.showMessageDialog(null, numPolygons + " polygons sorted",
+            // Display a message indicating the number of polygons sorted (more than 1) and the keys used
+            String keys = PolygonSorter.describe(PolygonSorter.parseKeys(sortKeys));
+            theFrame.showMessage(numPolygons + " polygons sorted by " + keys,
                     "Polygons Sorted", JOptionPane.INFORMATION_MESSAGE);
-            theFrame.appendText(numPolygons + " polygons sorted");
+            theFrame.appendText(numPolygons + " polygons sorted by " + keys);
         }
     }
 
@@ -356,4 +1334,9 @@ class ContainerFrameHandler implements ActionListener {
         inputHandler.clearRadiusField();
     }
 
+    // Returns why a background task failed: the message of the exception it threw, or of the wrapper if there is none
+    private static String failureReason(ExecutionException ex) {
+        return ex.getCause() == null ? ex.getMessage() : ex.getCause().getMessage();
+    }
+
 }
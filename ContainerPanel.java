@@ -1,37 +1,277 @@
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Dimension;
+import java.awt.Point;
+import java.awt.Polygon;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.util.Arrays;
 
 /**
  * The ContainerPanel class extends JPanel and serves as a container for drawing polygons.
+ * Normally it draws the selected polygons centred in the panel; in scene view it draws every polygon at its scene
+ * position through a zoomable, pannable viewport, skipping polygons outside the view before any vertex work.
  */
 public class ContainerPanel extends JPanel {
 
+    // Zoom factor for one step of the mouse wheel in scene view
+    private static final double WHEEL_ZOOM = 1.2;
+
     // Reference to the ContainerFrame to access selected polygons
     ContainerFrame conFrame;
 
+    // World-to-screen transform of the scene view
+    private final Viewport viewport = new Viewport();
+
+    // Grid of polygons by scene position, rebuilt when the store publishes a new snapshot
+    private SceneIndex sceneIndex;
+    private PolygonStore.Snapshot indexedSnapshot;
+
+    // Whether the viewport has been fitted to the scene since scene view was last switched on
+    private boolean fitted;
+
+    // Vertex buffer shared by every polygon drawn in scene view, or at reduced quality
+    private final Polygon sceneBuffer = new Polygon(new int[16], new int[16], 0);
+
+    // Lowers drawing quality while frames overrun their budget, restoring it when the panel is idle
+    private final RenderGovernor governor = new RenderGovernor(this);
+
+    // Finds the polygons of each frame hidden behind later opaque polygons, and how many the last frame skipped
+    private final OcclusionCuller culler = new OcclusionCuller();
+    private int lastHidden;
+
+    // Last mouse position while the scene is dragged
+    private Point dragFrom;
+
     // Initialise the ContainerFrame for use with this panel
     public ContainerPanel(ContainerFrame cf) {
         conFrame = cf;
+
+        // Mouse wheel zooms about the pointer, dragging pans and double-clicking fits the whole scene, in scene view
+        MouseAdapter navigation = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                dragFrom = e.getPoint();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (isSceneView() && dragFrom != null) {
+                    viewport.pan(e.getX() - dragFrom.x, e.getY() - dragFrom.y);
+                    dragFrom = e.getPoint();
+                    repaint();
+                }
+            }
+
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (isSceneView() && e.getClickCount() == 2 && SwingUtilities.isLeftMouseButton(e)) {
+                    fitted = false;
+                    repaint();
+                }
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                if (isSceneView()) {
+                    viewport.zoomAt(e.getX(), e.getY(), Math.pow(WHEEL_ZOOM, -e.getPreciseWheelRotation()),
+                            getWidth(), getHeight());
+                    repaint();
+                }
+            }
+        };
+        addMouseListener(navigation);
+        addMouseMotionListener(navigation);
+        addMouseWheelListener(navigation);
     }
 
+    // Reusable size object, so repeated painting during animation does not allocate
+    private final Dimension size = new Dimension();
+
+    // Font and background of the statistics overlay
+    private static final Font OVERLAY_FONT = new Font(Font.MONOSPACED, Font.PLAIN, 11);
+    private static final Color OVERLAY_BACKGROUND = new Color(255, 255, 255, 210);
+
     // Overrides paintComponent to paint panel contents
     @Override
     public void paintComponent(Graphics g) {
+        // Start of painting, for the paint latency histogram
+        long start = System.nanoTime();
+
         // Methods and object uses for accurate painting
         super.paintComponent(g);
         Graphics2D g2d = (Graphics2D) g;
 
         // Obtain panel size
-        Dimension size = getSize();
+        getSize(size);
 
         // Clear panel
         g2d.clearRect(0, 0, size.width, size.height);
 
-        // Polygons selected in the ContainerFrame drawn on the panel
-        if (conFrame.selectedPolygon != null) {
-            conFrame.selectedPolygon.drawPolygon(g2d, size);
+        // Applies the quality level chosen from the previous frames
+        governor.beginFrame(g2d);
+
+        if (isSceneView()) {
+            // Every polygon at its scene position, as far as it is in view
+            paintScene(g2d);
+        } else {
+            // Polygons selected in the ContainerFrame drawn centred on the panel
+            fitted = false;
+            paintSelection(g2d);
+        }
+
+        // Counts the frame if an animation is running
+        if (conFrame.animator != null) {
+            conFrame.animator.framePainted();
+        }
+
+        // Records the paint time, leaving out the overlay itself, and lets the governor adjust quality
+        conFrame.stats.framePainted(start);
+        governor.endFrame(start);
+
+        // Draws the statistics overlay in the top left corner when switched on
+        if (conFrame.statsBox != null && conFrame.statsBox.isSelected()) {
+            drawStatsOverlay(g2d);
+        }
+
+        // Reports the first frame, once
+        if (conFrame.firstPaintListener != null) {
+            Runnable listener = conFrame.firstPaintListener;
+            conFrame.firstPaintListener = null;
+            listener.run();
+        }
+    }
+
+    /*
+     * Draws the selected polygons centred in the panel, in selection order, skipping those hidden behind later opaque
+     * polygons; below full quality they are drawn through the shared vertex buffer
+     */
+    private void paintSelection(Graphics2D g2d) {
+        boolean reduced = governor.getLevel() >= RenderGovernor.OUTLINES;
+        boolean fills = governor.drawFills();
+        int maxVertices = governor.maxVertices();
+        int centreX = size.width / 2;
+        int centreY = size.height / 2;
+
+        culler.reset();
+        for (RegPolygon p : conFrame.selectedPolygons) {
+            int vertices = reduced ? Math.max(3, Math.min(p.getSides(), maxVertices)) : p.getSides();
+            culler.add(p, centreX, centreY, p.getRadius() * p.getScale(), vertices, fills && isOpaque(p));
+        }
+        culler.cull();
+        lastHidden = culler.getHiddenCount();
+
+        for (int i = 0; i < culler.size(); i++) {
+            if (culler.isHidden(i)) {
+                continue;
+            }
+            RegPolygon p = culler.getPolygon(i);
+            if (reduced) {
+                p.drawPolygonAt(g2d, centreX, centreY, culler.getRadius(i), sceneBuffer, fills, maxVertices);
+            } else {
+                p.drawPolygon(g2d, size);
+            }
+        }
+    }
+
+    // Returns true if a polygon is filled with a colour that hides what is behind it
+    private static boolean isOpaque(RegPolygon p) {
+        return p.isFilled() && p.getColor().getAlpha() == 255;
+    }
+
+    // Returns true if the scene view is switched on
+    private boolean isSceneView() {
+        return conFrame.sceneBox != null && conFrame.sceneBox.isSelected();
+    }
+
+    /*
+     * Draws the polygons that meet the visible area at their scene positions
+     * The scene index yields only polygons near the view, and each is checked against the view before its vertices
+     * are worked out; polygons smaller than a pixel on screen are drawn as a single pixel, and polygons hidden behind
+     * later opaque polygons are not drawn at all
+     */
+    private void paintScene(Graphics2D g2d) {
+
+        // Rebuilds the index when the store has changed
+        PolygonStore.Snapshot snapshot = conFrame.getPolygonStore().snapshot();
+        if (snapshot != indexedSnapshot) {
+            sceneIndex = new SceneIndex(snapshot.getPolygonList());
+            indexedSnapshot = snapshot;
+        }
+
+        // Shows the whole scene when scene view is first switched on
+        if (!fitted && snapshot.size() > 0) {
+            viewport.fit(sceneIndex.getMinX(), sceneIndex.getMinY(), sceneIndex.getMaxX(), sceneIndex.getMaxY(),
+                    size.width, size.height);
+            fitted = true;
+        }
+
+        // Visible area in world coordinates
+        double zoom = viewport.getZoom();
+        double viewMinX = viewport.toWorldX(0, size.width);
+        double viewMinY = viewport.toWorldY(0, size.height);
+        double viewMaxX = viewport.toWorldX(size.width, size.width);
+        double viewMaxY = viewport.toWorldY(size.height, size.height);
+
+        // Quality settings for this frame
+        boolean fills = governor.drawFills();
+        int maxVertices = governor.maxVertices();
+        double pointRadius = governor.pointRadius();
+
+        // Collects the polygons in view in display order, then finds those covered by later ones
+        culler.reset();
+        sceneIndex.forEachInView(viewMinX, viewMinY, viewMaxX, viewMaxY, p -> {
+            double radius = p.getRadius() * zoom;
+            boolean point = radius < pointRadius;
+            culler.add(p, viewport.toScreenX(p.getSceneX(), size.width),
+                    viewport.toScreenY(p.getSceneY(), size.height), radius,
+                    Math.max(3, Math.min(p.getSides(), maxVertices)), !point && fills && isOpaque(p));
+        });
+        culler.cull();
+        lastHidden = culler.getHiddenCount();
+
+        for (int i = 0; i < culler.size(); i++) {
+            if (culler.isHidden(i)) {
+                continue;
+            }
+            RegPolygon p = culler.getPolygon(i);
+            double radius = culler.getRadius(i);
+            if (radius < pointRadius) {
+                g2d.setColor(p.getColor());
+                g2d.fillRect((int) culler.getX(i), (int) culler.getY(i), 1, 1);
+            } else {
+                p.drawPolygonAt(g2d, culler.getX(i), culler.getY(i), radius, sceneBuffer, fills, maxVertices);
+            }
+        }
+    }
+
+    // Draws the statistics lines on a translucent box so they stay readable over filled polygons
+    private void drawStatsOverlay(Graphics2D g2d) {
+        String[] statsLines = conFrame.stats.getLines();
+        String followStatus = conFrame.liveCanvas == null ? null : conFrame.liveCanvas.getStatus();
+        String[] lines = Arrays.copyOf(statsLines, statsLines.length + (followStatus == null ? 1 : 2));
+        lines[statsLines.length] = "quality " + governor.getLevelName() + ", " + lastHidden + " hidden";
+        if (followStatus != null) {
+            lines[statsLines.length + 1] = followStatus;
+        }
+        g2d.setFont(OVERLAY_FONT);
+        FontMetrics metrics = g2d.getFontMetrics();
+        int width = 0;
+        for (String line : lines) {
+            width = Math.max(width, metrics.stringWidth(line));
+        }
+        int lineHeight = metrics.getHeight();
+        g2d.setColor(OVERLAY_BACKGROUND);
+        g2d.fillRect(4, 4, width + 12, lineHeight * lines.length + 8);
+        g2d.setColor(Color.DARK_GRAY);
+        for (int i = 0; i < lines.length; i++) {
+            g2d.drawString(lines[i], 10, 8 + metrics.getAscent() + i * lineHeight);
         }
     }
 
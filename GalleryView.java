@@ -0,0 +1,285 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.awt.image.BufferedImage;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * GalleryView class shows all polygons as a scrolling grid of thumbnails
+ * The grid is a wrapping JList with fixed cell sizes, so only visible cells are ever painted. A cell whose thumbnail
+ * is not cached shows a placeholder and queues a render in the background; renders for cells scrolled out of view
+ * before their turn are dropped, and finished thumbnails go into a ThumbnailCache bounded by bytes, so scrolling
+ * through any number of polygons uses a fixed amount of image memory
+ * Selecting cells makes those polygons the current selection in the ContainerFrame
+ */
+public class GalleryView {
+
+    // Width and height of each thumbnail image in pixels
+    private static final int THUMBNAIL_SIZE = 96;
+
+    // Extra height of each cell for the ID label below the thumbnail
+    private static final int LABEL_HEIGHT = 18;
+
+    // Most bytes of thumbnail pixels kept in memory
+    private static final long CACHE_BYTES = 16L * 1024 * 1024;
+
+    // Rows either side of the visible ones still worth rendering, so short scrolls find thumbnails ready
+    private static final int MARGIN_ROWS = 2;
+
+    // How often the gallery checks the store for added or reordered polygons, in milliseconds
+    private static final int REFRESH_MILLIS = 500;
+
+    // Window containing the gallery, and the ContainerFrame the polygons belong to
+    protected JDialog dialog;
+    protected ContainerFrame containerFrame;
+
+    // Rendered thumbnails, and the keys of those waiting to be rendered; both used only on the event dispatch thread
+    private final ThumbnailCache cache = new ThumbnailCache(CACHE_BYTES);
+    private final HashSet<Long> pending = new HashSet<>();
+
+    // Threads rendering thumbnails in the background
+    private ExecutorService renderPool;
+
+    // Store snapshot shown in the grid
+    private PolygonStore.Snapshot shown;
+    private List<RegPolygon> polygons;
+
+    // Range of cells worth rendering, updated as the grid scrolls and read by the render threads
+    private volatile int firstWanted;
+    private volatile int lastWanted = -1;
+
+    // Grid of thumbnails and the label summarising the cache
+    private JList<RegPolygon> grid;
+    private JLabel cacheStatus;
+
+    public GalleryView(ContainerFrame frame) {
+        this.containerFrame = frame;
+    }
+
+    /* Creates the graphical user interface for the gallery */
+    public void createGalleryView() {
+
+        shown = containerFrame.getPolygonStore().snapshot();
+        polygons = shown.getPolygonList();
+
+        // Creates a non-modal dialog so the main frame can still be used while the gallery is open
+        dialog = new JDialog(containerFrame, "Gallery (" + polygons.size() + " polygons)", false);
+
+        // List model reading cells directly from the shown snapshot without copying it
+        SnapshotModel model = new SnapshotModel();
+
+        // Wrapping grid of fixed size cells, filling each row before the next
+        grid = new JList<>(model);
+        grid.setLayoutOrientation(JList.HORIZONTAL_WRAP);
+        grid.setVisibleRowCount(-1);
+        grid.setFixedCellWidth(THUMBNAIL_SIZE + 8);
+        grid.setFixedCellHeight(THUMBNAIL_SIZE + LABEL_HEIGHT + 8);
+        grid.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        grid.setCellRenderer(new ThumbnailCell());
+
+        // Selecting cells draws those polygons in the ContainerFrame
+        grid.addListSelectionListener(e -> {
+            if (e.getValueIsAdjusting() || grid.isSelectionEmpty()) {
+                return;
+            }
+            RegPolygon[] selected = grid.getSelectedValuesList().toArray(new RegPolygon[0]);
+            containerFrame.selectPolygons(selected);
+            containerFrame.repaint();
+            if (selected.length == 1) {
+                containerFrame.appendText("Current Polygon: " + selected[0].getFormattedId(selected[0].getID()));
+            } else {
+                containerFrame.appendText("Current Polygons: " + selected.length + " selected");
+            }
+        });
+
+        JScrollPane scrollPane = new JScrollPane(grid);
+        scrollPane.getVerticalScrollBar().setUnitIncrement(THUMBNAIL_SIZE / 4);
+
+        // Keeps the range of cells worth rendering up to date as the grid scrolls or is resized
+        scrollPane.getViewport().addChangeListener(e -> updateWantedRange());
+
+        cacheStatus = new JLabel(" ");
+
+        // One render thread per processor, as daemons so an open gallery never keeps the program running
+        renderPool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), task -> {
+            Thread thread = new Thread(task, "thumbnail-renderer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Picks up polygons added or reordered since the gallery was opened
+        Timer refresh = new Timer(REFRESH_MILLIS, e -> {
+            PolygonStore.Snapshot latest = containerFrame.getPolygonStore().snapshot();
+            if (latest != shown) {
+                // A new epoch means polygons were replaced under their IDs, so cached thumbnails may be stale; a
+                // recolour keeps the epoch, as the colour is part of the thumbnail key
+                if (latest.getEpoch() != shown.getEpoch()) {
+                    cache.clear();
+                }
+                int oldSize = polygons.size();
+                shown = latest;
+                polygons = latest.getPolygonList();
+                dialog.setTitle("Gallery (" + polygons.size() + " polygons)");
+                model.refresh(oldSize);
+            }
+        });
+        refresh.start();
+
+        // Stops rendering and refreshing once the gallery is closed
+        dialog.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                refresh.stop();
+                renderPool.shutdownNow();
+                cache.clear();
+            }
+        });
+
+        // Adds the grid and cache summary and sets properties of the dialog
+        dialog.add(scrollPane, BorderLayout.CENTER);
+        dialog.add(cacheStatus, BorderLayout.SOUTH);
+        dialog.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+        dialog.setSize(600, 500);
+        dialog.setLocationRelativeTo(containerFrame);
+        dialog.setVisible(true);
+    }
+
+    // Records which cells are visible, plus a margin of rows either side, for the render threads to check
+    private void updateWantedRange() {
+        int first = grid.getFirstVisibleIndex();
+        int last = grid.getLastVisibleIndex();
+        if (first == -1) {
+            firstWanted = 0;
+            lastWanted = -1;
+            return;
+        }
+        int perRow = Math.max(1, grid.getWidth() / grid.getFixedCellWidth());
+        firstWanted = Math.max(0, first - MARGIN_ROWS * perRow);
+        lastWanted = last + MARGIN_ROWS * perRow;
+    }
+
+    /*
+     * Queues a background render of a polygon's thumbnail, unless one is already queued
+     * The polygon's shape is copied here on the event dispatch thread, so the render threads never touch the shared
+     * polygon, whose vertex arrays belong to the drawing panel
+     */
+    private void requestRender(RegPolygon polygon, int index, long key) {
+        if (!pending.add(key)) {
+            return;
+        }
+        updateWantedRange();
+        RegPolygon copy = new RegPolygon(polygon.getSides(), polygon.getStartingAngle(), polygon.getRadius(),
+                polygon.getID(), polygon.isFilled(), polygon.getColor());
+        copy.setScale(THUMBNAIL_SIZE * 0.45 / polygon.getRadius());
+
+        renderPool.execute(() -> {
+            // Drops the render if the cell has scrolled out of view while it waited
+            if (index < firstWanted || index > lastWanted) {
+                SwingUtilities.invokeLater(() -> pending.remove(key));
+                return;
+            }
+
+            BufferedImage image = new BufferedImage(THUMBNAIL_SIZE, THUMBNAIL_SIZE, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = image.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            copy.drawPolygon(g, new Dimension(THUMBNAIL_SIZE, THUMBNAIL_SIZE));
+            g.dispose();
+
+            // Caches the thumbnail and repaints its cell if the cell still shows the same polygon
+            SwingUtilities.invokeLater(() -> {
+                pending.remove(key);
+                cache.put(key, image);
+                cacheStatus.setText(cache.getSummary());
+                if (index < polygons.size() && polygons.get(index).getID() == copy.getID()) {
+                    Rectangle cell = grid.getCellBounds(index, index);
+                    if (cell != null) {
+                        grid.repaint(cell);
+                    }
+                }
+            });
+        });
+    }
+
+    /**
+     * SnapshotModel class is the grid's list model, reading cells from the shown store snapshot
+     */
+    private class SnapshotModel extends AbstractListModel<RegPolygon> {
+
+        // Version of the serialized form, which Swing components declare
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public int getSize() {
+            return polygons.size();
+        }
+
+        @Override
+        public RegPolygon getElementAt(int index) {
+            return polygons.get(index);
+        }
+
+        // Tells the grid about cells added to the end and cells whose polygon may have moved after a sort
+        void refresh(int oldSize) {
+            if (polygons.size() > oldSize) {
+                fireIntervalAdded(this, oldSize, polygons.size() - 1);
+            }
+            if (oldSize > 0) {
+                fireContentsChanged(this, 0, oldSize - 1);
+            }
+        }
+    }
+
+    /**
+     * ThumbnailCell class paints one grid cell: the cached thumbnail, or a placeholder while it renders, above the
+     * polygon ID
+     */
+    private class ThumbnailCell extends JComponent implements ListCellRenderer<RegPolygon> {
+
+        // Version of the serialized form, which Swing components declare
+        private static final long serialVersionUID = 1L;
+
+        // Thumbnail to paint, or null for the placeholder
+        private BufferedImage image;
+
+        // ID label and whether the cell is selected
+        private String label;
+        private boolean selected;
+
+        @Override
+        public Component getListCellRendererComponent(JList<? extends RegPolygon> list, RegPolygon polygon,
+                                                      int index, boolean isSelected, boolean cellHasFocus) {
+            long key = ThumbnailCache.key(polygon);
+            image = cache.get(key);
+            if (image == null && !renderPool.isShutdown()) {
+                requestRender(polygon, index, key);
+            }
+            label = polygon.getFormattedId(polygon.getID());
+            selected = isSelected;
+            return this;
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            int width = getWidth();
+            if (selected) {
+                g.setColor(grid.getSelectionBackground());
+                g.fillRect(0, 0, width, getHeight());
+            }
+            int x = (width - THUMBNAIL_SIZE) / 2;
+            if (image != null) {
+                g.drawImage(image, x, 4, null);
+            } else {
+                g.setColor(Color.LIGHT_GRAY);
+                g.drawRect(x, 4, THUMBNAIL_SIZE - 1, THUMBNAIL_SIZE - 1);
+            }
+            g.setColor(selected ? grid.getSelectionForeground() : grid.getForeground());
+            FontMetrics metrics = g.getFontMetrics();
+            g.drawString(label, (width - metrics.stringWidth(label)) / 2, THUMBNAIL_SIZE + 4 + metrics.getAscent());
+        }
+    }
+
+}
@@ -0,0 +1,160 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * IdLookup class resolves a pasted or loaded list of IDs against a snapshot of the store in one pass
+ *
+ * The list may separate IDs by spaces, commas, semicolons or line breaks. Valid IDs are sorted as primitives and
+ * repeats dropped, then all of them are found by one forward pass over the snapshot's ID index (see
+ * PolygonStore.Snapshot.findAll), so tens of thousands of IDs resolve in milliseconds. The result holds the polygons
+ * found and the IDs not found together, both in ascending ID order, along with any entries that are not IDs.
+ */
+public class IdLookup {
+
+    /* Parses the ID list and resolves it against the snapshot */
+    public static Result lookup(PolygonStore.Snapshot snapshot, String text) {
+        PolygonValidator validator = new PolygonValidator();
+        int[] ids = new int[16];
+        int count = 0;
+        List<String> invalid = new ArrayList<>();
+
+        // Splits the text into entries and validates each as an ID
+        int length = text.length();
+        int start = 0;
+        while (start < length) {
+            while (start < length && isSeparator(text.charAt(start))) {
+                start++;
+            }
+            int end = start;
+            while (end < length && !isSeparator(text.charAt(end))) {
+                end++;
+            }
+            if (end > start) {
+                if (validator.validateId(text, start, end) == PolygonValidator.VALID) {
+                    if (count == ids.length) {
+                        ids = Arrays.copyOf(ids, count * 2);
+                    }
+                    ids[count++] = validator.intValue();
+                } else {
+                    invalid.add(text.substring(start, end));
+                }
+            }
+            start = end;
+        }
+
+        // Sorts the IDs and drops repeats, so the index is walked once in order
+        Arrays.sort(ids, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || ids[i] != ids[distinct - 1]) {
+                ids[distinct++] = ids[i];
+            }
+        }
+
+        RegPolygon[] found = snapshot.findAll(ids, distinct);
+
+        // Separates hits from misses, keeping both in ID order
+        int hitCount = 0;
+        for (RegPolygon polygon : found) {
+            if (polygon != null) {
+                hitCount++;
+            }
+        }
+        RegPolygon[] hits = new RegPolygon[hitCount];
+        int[] misses = new int[distinct - hitCount];
+        int h = 0;
+        int m = 0;
+        for (int i = 0; i < distinct; i++) {
+            if (found[i] != null) {
+                hits[h++] = found[i];
+            } else {
+                misses[m++] = ids[i];
+            }
+        }
+        return new Result(hits, misses, count - distinct, invalid);
+    }
+
+    // Returns true for the characters that separate entries in an ID list: commas, semicolons, and spaces, tabs and
+    // line breaks, which with the other control characters are all at or below the space character
+    private static boolean isSeparator(char c) {
+        return c == ',' || c == ';' || c <= ' ';
+    }
+
+    /**
+     * Result class holds the outcome of a lookup: the polygons found, the IDs not found, and the entries skipped
+     */
+    public static class Result {
+
+        // Polygons found and IDs not found, both in ascending ID order
+        private final RegPolygon[] hits;
+        private final int[] misses;
+
+        // Valid IDs listed more than once, counting each extra listing, and entries that are not valid IDs
+        private final int repeated;
+        private final List<String> invalid;
+
+        private Result(RegPolygon[] hits, int[] misses, int repeated, List<String> invalid) {
+            this.hits = hits;
+            this.misses = misses;
+            this.repeated = repeated;
+            this.invalid = invalid;
+        }
+
+        /* Returns the polygons found, in ascending ID order */
+        public RegPolygon[] getHits() {
+            return hits;
+        }
+
+        /* Returns the IDs not found, in ascending order */
+        public int[] getMisses() {
+            return misses;
+        }
+
+        /* Returns the number of extra listings of IDs already listed */
+        public int getRepeated() {
+            return repeated;
+        }
+
+        /* Returns the entries that are not valid 6 digit IDs, in the order listed */
+        public List<String> getInvalid() {
+            return invalid;
+        }
+
+        /* Returns the IDs not found as 6 digit text, listing at most limit of them followed by how many more */
+        public String formatMisses(int limit) {
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < misses.length && i < limit; i++) {
+                text.append(i == 0 ? "" : ", ").append(String.format("%06d", misses[i]));
+            }
+            if (misses.length > limit) {
+                text.append(" and ").append(misses.length - limit).append(" more");
+            }
+            return text.toString();
+        }
+
+        /* Returns the entries that are not valid IDs, listing at most limit of them followed by how many more */
+        public String formatInvalid(int limit) {
+            String text = String.join(", ", invalid.subList(0, Math.min(limit, invalid.size())));
+            if (invalid.size() > limit) {
+                text += " and " + (invalid.size() - limit) + " more";
+            }
+            return text;
+        }
+
+        /* Returns a one line summary, such as "50000 IDs: 49990 found, 10 not found, 3 repeated" */
+        public String describe() {
+            int requested = hits.length + misses.length;
+            String text = requested + (requested == 1 ? " ID: " : " IDs: ") + hits.length + " found, " +
+                    misses.length + " not found";
+            if (repeated > 0) {
+                text += ", " + repeated + " repeated";
+            }
+            if (!invalid.isEmpty()) {
+                text += ", " + invalid.size() + (invalid.size() == 1 ? " invalid entry" : " invalid entries");
+            }
+            return text;
+        }
+    }
+
+}
@@ -2,12 +2,16 @@ import javax.swing.*;
 
 /**
  * Handles input validation and clearing of text fields in the ContainerFrame.
+ * The rules themselves are in PolygonValidator; this class shows their results as dialogs and command line messages.
  */
 public class InputHandler {
 
     // ContainerFrame reference to handle input validation.
     private ContainerFrame theFrame;
 
+    // Validation rules shared with batch input; this class only reports the results to the user
+    private final PolygonValidator validator = new PolygonValidator();
+
     public InputHandler(ContainerFrame frame) {
 
         this.theFrame = frame;
@@ -20,37 +24,34 @@ public class InputHandler {
         // Get text from  ID field
         String idText = theFrame.idField.getText();
 
-        // Checks if the ID field is empty
-        if (idText.equals("")) {
-            JOptionPane.showMessageDialog(null, "Please enter a 6 digit ID value",
-                    "Missing Value", JOptionPane.WARNING_MESSAGE);
-            theFrame.appendText("Error: ID is null; please enter a valid 6 digit integer ID value");
-            return -1;
-        }
+        // Applies the ID rules and reports the result
+        switch (validator.validateId(idText)) {
+            case PolygonValidator.VALID:
+                // Returns parsed valid ID
+                return validator.intValue();
 
-        try {
-            // Checks if the ID has exactly 6 digits
-            if (idText.length() != 6) {
-                // Checks to see if the ID is a valid number
-                Integer.parseInt(idText);
-                JOptionPane.showMessageDialog(null, "Invalid ID " + idText + ": ID is too short" +
+            case PolygonValidator.MISSING:
+                theFrame.showMessage("Please enter a 6 digit ID value",
+                        "Missing Value", JOptionPane.WARNING_MESSAGE);
+                theFrame.appendText("Error: ID is null; please enter a valid 6 digit integer ID value");
+                return -1;
+
+            case PolygonValidator.WRONG_LENGTH:
+                // The ID is a number but does not have exactly 6 digits
+                theFrame.showMessage("Invalid ID " + idText + ": ID is too short" +
                         " and must be a 6 digit number e.g. 126658", "Invalid ID", JOptionPane.ERROR_MESSAGE);
                 clearIDField();
                 theFrame.appendText("Error: Invalid ID " + idText + " (too short at " + idText.length() +
                         " characters); ID must be a 6 digit integer value e.g. 126658");
                 return -1;
-            }
-
-            // Returns parsed valid ID
-            return Integer.parseInt(idText);
-
-        } catch (NumberFormatException e) {
-            // Handles cases where parsing to an int failed
-            JOptionPane.showMessageDialog(null, "Invalid ID " + idText + " - ID must be a valid" +
-                    " 6 digit number e.g. 126658", "Invalid ID", JOptionPane.ERROR_MESSAGE);
-            clearIDField();
-            theFrame.appendText("Error: Invalid ID " + idText + " - ID must be a valid 6 digit number e.g. 126658");
-            return -1;
+
+            default:
+                // Handles IDs that are not made of digits
+                theFrame.showMessage("Invalid ID " + idText + " - ID must be a valid" +
+                        " 6 digit number e.g. 126658", "Invalid ID", JOptionPane.ERROR_MESSAGE);
+                clearIDField();
+                theFrame.appendText("Error: Invalid ID " + idText + " - ID must be a valid 6 digit number e.g. 126658");
+                return -1;
         }
     }
 
@@ -60,85 +61,80 @@ public class InputHandler {
         // Get the text from sides field
         String sideText = theFrame.sidesField.getText();
 
-        // Check if sides field is empty
-        if (sideText.equals("")) {
-            JOptionPane.showMessageDialog(null, "Please enter a whole number for the number " +
-                            "of sides",  "Missing Value", JOptionPane.WARNING_MESSAGE);
-            theFrame.appendText("Error: number of sides is null; please enter a positive integer value for the number" +
-                    " of polygon sides e.g. 8");
-            return -1;
-        }
-
-        try {
-            // Attempt to parse sides as an integer
-            int sides = Integer.parseInt(sideText);
+        // Applies the sides rules and reports the result
+        switch (validator.validateSides(sideText)) {
+            case PolygonValidator.VALID:
+                // Returns validated sides number
+                return validator.intValue();
+
+            case PolygonValidator.MISSING:
+                theFrame.showMessage("Please enter a whole number for the number " +
+                                "of sides",  "Missing Value", JOptionPane.WARNING_MESSAGE);
+                theFrame.appendText("Error: number of sides is null; please enter a positive integer value for the " +
+                        "number of polygon sides e.g. 8");
+                return -1;
 
-            // Checks if the number of sides is negative
-            if (sides < 0) {
-                JOptionPane.showMessageDialog(null, "Number of sides must be a positive whole" +
+            case PolygonValidator.NEGATIVE:
+                // The number of sides is negative
+                theFrame.showMessage("Number of sides must be a positive whole" +
                                 " number", "Invalid Sides", JOptionPane.ERROR_MESSAGE);
                 clearSidesField();
-                theFrame.appendText("Error: Invalid Side Number: " + sides + " - please enter a positive value for the" +
-                        " number of polygon sides e.g. 8");
+                theFrame.appendText("Error: Invalid Side Number: " + validator.intValue() + " - please enter a " +
+                        "positive value for the number of polygon sides e.g. 8");
                 return -1;
-            }
-            // Displays an error if the number of sides is less than 3; invalid polygon
-            else if (sides < 3) {
-                JOptionPane.showMessageDialog(null, "Please enter a side number of three " +
+
+            case PolygonValidator.TOO_FEW_SIDES:
+                // Displays an error if the number of sides is less than 3; invalid polygon
+                theFrame.showMessage("Please enter a side number of three " +
                                 "or above for a valid polygon\n 0-2 sides will have an empty polygon or a " +
                                 "single straight line", "Invalid Sides", JOptionPane.ERROR_MESSAGE);
                 clearSidesField();
-                theFrame.appendText("Error Invalid Side Number: " + sides + " - will not print a valid polygon; " +
-                        "the smallest possible number of sides for a valid polygon is three (for a triangle)," +
-                        "entering a value less than three will print an empty display (no sides or 1 side) or a " +
-                        "straight line (2 sides)");
+                theFrame.appendText("Error Invalid Side Number: " + validator.intValue() + " - will not print a " +
+                        "valid polygon; the smallest possible number of sides for a valid polygon is three (for a " +
+                        "triangle),entering a value less than three will print an empty display (no sides or 1 " +
+                        "side) or a straight line (2 sides)");
+                return -1;
+
+            default:
+                // Handles sides that are not a whole number
+                theFrame.showMessage("Number of sides must be a whole integer number",
+                        "Invalid Sides", JOptionPane.ERROR_MESSAGE);
+                clearSidesField();
+                theFrame.appendText("Error: Invalid Side Number " + sideText + " - please enter a positive integer " +
+                        "value for the number of polygon sides, e.g. 8");
                 return -1;
-            }
-
-            // Returns validated sides number
-            return sides;
-
-        } catch (NumberFormatException e) {
-            // Handles cases where parsing to an int failed
-            JOptionPane.showMessageDialog(null, "Number of sides must be a whole integer number",
-                    "Invalid Sides", JOptionPane.ERROR_MESSAGE);
-            clearSidesField();
-            theFrame.appendText("Error: Invalid Side Number " + sideText + " - please enter a positive integer value " +
-                    "for the number of polygon sides, e.g. 8");
-            return -1;
         }
     }
 
     /*
      * Validates the input for the angle in the ContainerFrame.
-     * Returns the validated angle or -1 if validation fails.
+     * Returns the validated angle or NaN if validation fails, since any finite angle, including -1, is valid.
      */
     protected double validateAngleInput() {
 
         // Get the text from the angle field.
         String angleText = theFrame.angleField.getText();
 
-        // Check if the angle field is empty.
-        if (angleText.equals("")) {
-            JOptionPane.showMessageDialog(null, "Please enter an angle value",
-                    "Missing Value", JOptionPane.WARNING_MESSAGE);
-            theFrame.appendText("Error: angle value is null; please enter an angle value such as 90, or 0 for no " +
-                    "angle rotation");
-            return -1;
-        }
-
-        try {
-            // Parse the angle as a double.
-            return Double.parseDouble(angleText);
-
-        } catch (NumberFormatException e) {
-            // Handle the case where parsing the angle as a double fails.
-            JOptionPane.showMessageDialog(null, "Angle must be a valid number (can be decimal)",
-                    "Invalid Angle", JOptionPane.ERROR_MESSAGE);
-            clearAngleField();
-            theFrame.appendText("Error: Invalid Angle: " + angleText + " - please enter an angle value such " +
-                    "as 90, or 0 for no angle rotation");
-            return -1;
+        // Applies the angle rules and reports the result.
+        switch (validator.validateAngle(angleText)) {
+            case PolygonValidator.VALID:
+                return validator.doubleValue();
+
+            case PolygonValidator.MISSING:
+                theFrame.showMessage("Please enter an angle value",
+                        "Missing Value", JOptionPane.WARNING_MESSAGE);
+                theFrame.appendText("Error: angle value is null; please enter an angle value such as 90, or 0 for " +
+                        "no angle rotation");
+                return Double.NaN;
+
+            default:
+                // Handle the case where the angle is not a number.
+                theFrame.showMessage("Angle must be a valid number (can be decimal)",
+                        "Invalid Angle", JOptionPane.ERROR_MESSAGE);
+                clearAngleField();
+                theFrame.appendText("Error: Invalid Angle: " + angleText + " - please enter an angle value such " +
+                        "as 90, or 0 for no angle rotation");
+                return Double.NaN;
         }
     }
 
@@ -149,46 +145,43 @@ public class InputHandler {
         // Gets text from radius field
         String radiusText = theFrame.radiusField.getText();
 
-        // Checks if the radius field is empty
-        if (radiusText.equals("")) {
-            JOptionPane.showMessageDialog(null, "Please enter a radius value",
-                    "Missing Value", JOptionPane.WARNING_MESSAGE);
-            theFrame.appendText("Error: radius value is null; please enter a positive radius value such as 40");
-            return -1;
-        }
+        // Applies the radius rules and reports the result
+        switch (validator.validateRadius(radiusText)) {
+            case PolygonValidator.VALID:
+                return validator.doubleValue();
 
-        try {
-            // Parses radius as a double
-            double radius = Double.parseDouble(radiusText);
+            case PolygonValidator.MISSING:
+                theFrame.showMessage("Please enter a radius value",
+                        "Missing Value", JOptionPane.WARNING_MESSAGE);
+                theFrame.appendText("Error: radius value is null; please enter a positive radius value such as 40");
+                return -1;
 
-            // Checks if the radius is a negative number
-            if (radius < 0) {
-                JOptionPane.showMessageDialog(null, "Radius must be a positive number",
+            case PolygonValidator.NEGATIVE:
+                // The radius is a negative number
+                theFrame.showMessage("Radius must be a positive number",
                         "Invalid Radius", JOptionPane.ERROR_MESSAGE);
                 clearRadiusField();
-                theFrame.appendText("Error: Invalid Radius " + radius + " - please enter a positive radius value " +
-                        "such as 40");
+                theFrame.appendText("Error: Invalid Radius " + validator.doubleValue() + " - please enter a positive " +
+                        "radius value such as 40");
                 return -1;
-            }
-            // Displays an error if the radius is 0
-            else if (radius == 0) {
-                JOptionPane.showMessageDialog(null, "Radius set to 0; polygon will not be " +
+
+            case PolygonValidator.ZERO_RADIUS:
+                // Displays an error if the radius is 0
+                theFrame.showMessage("Radius set to 0; polygon will not be " +
                         "displayed", "Invalid Radius", JOptionPane.ERROR_MESSAGE);
                 clearRadiusField();
                 theFrame.appendText("Error: Invalid Radius 0 - polygon will not be displayed; please enter a positive" +
                         " radius value above 0");
                 return -1;
-            }
-            return radius;
-
-        } catch (NumberFormatException e) {
-            // Handles cases where parsing the radius as a double failed
-            JOptionPane.showMessageDialog(null, "Radius must be a valid number (can be decimal)",
-                    "Invalid Radius", JOptionPane.ERROR_MESSAGE);
-            clearRadiusField();
-            theFrame.appendText("Error: Invalid Radius: " + radiusText + " - please enter a positive radius value " +
-                    "such as 40");
-            return -1;
+
+            default:
+                // Handles cases where the radius is not a number
+                theFrame.showMessage("Radius must be a valid number (can be decimal)",
+                        "Invalid Radius", JOptionPane.ERROR_MESSAGE);
+                clearRadiusField();
+                theFrame.appendText("Error: Invalid Radius: " + radiusText + " - please enter a positive radius " +
+                        "value such as 40");
+                return -1;
         }
     }
 
@@ -196,36 +189,72 @@ public class InputHandler {
     // Validates search ID input in the ContainerFrame; returns the validated ID or -1 if validation fails
     protected int validateSearchIDInput(String searchID) {
 
-        // Checks if the searchID is empty
-        if (searchID.equals("")) {
-            JOptionPane.showMessageDialog(null, "Please enter a 6 digit ID value",
-                    "Missing Value", JOptionPane.ERROR_MESSAGE);
-            theFrame.appendText("Error: Search ID is null; please enter a valid 6 digit integer Search ID value");
-            return -1;
-        }
+        // Applies the ID rules and reports the result
+        switch (validator.validateId(searchID)) {
+            case PolygonValidator.VALID:
+                // Returns the parsed search ID
+                return validator.intValue();
+
+            case PolygonValidator.MISSING:
+                theFrame.showMessage("Please enter a 6 digit ID value",
+                        "Missing Value", JOptionPane.ERROR_MESSAGE);
+                theFrame.appendText("Error: Search ID is null; please enter a valid 6 digit integer Search ID value");
+                return -1;
 
-        try {
-            // Checks if searchID has exactly 6 digits
-            if (searchID.length() != 6) {
-                JOptionPane.showMessageDialog(null, "Invalid Search ID " + searchID + ": ID " +
+            case PolygonValidator.WRONG_LENGTH:
+                // The search ID does not have exactly 6 digits
+                theFrame.showMessage("Invalid Search ID " + searchID + ": ID " +
                         "must be a 6 digit number such as 126658", "Invalid Search ID", JOptionPane.ERROR_MESSAGE);
                 clearIDField();
-                theFrame.appendText("Error: Invalid Search ID " + searchID + " - ID must be a 6 digit integer value e.g. " +
-                        "126658");
+                theFrame.appendText("Error: Invalid Search ID " + searchID + " - ID must be a 6 digit integer value " +
+                        "e.g. 126658");
                 return -1;
-            }
-
-            // Parses the searchID as an integer
-            return Integer.parseInt(searchID);
-
-        } catch (NumberFormatException e) {
-            // Handles cases where parsing the searchID as an integer fails
-            JOptionPane.showMessageDialog(null, "Invalid Search ID " + searchID + " - ID must " +
-                    "be a valid 6 digit number e.g. 126658", "Invalid ID", JOptionPane.ERROR_MESSAGE);
-            clearIDField();
-            theFrame.appendText("Error: Invalid Search ID " + searchID + " - ID must be a valid 6 digit number e.g " +
-                    "126658");
-            return -1;
+
+            default:
+                // Handles search IDs that are not made of digits
+                theFrame.showMessage("Invalid Search ID " + searchID + " - ID must " +
+                        "be a valid 6 digit number e.g. 126658", "Invalid ID", JOptionPane.ERROR_MESSAGE);
+                clearIDField();
+                theFrame.appendText("Error: Invalid Search ID " + searchID + " - ID must be a valid 6 digit number " +
+                        "e.g 126658");
+                return -1;
+        }
+    }
+
+    /*
+     * Validates a search query for an ID range (e.g. 120000..129999) or an ID prefix (e.g. 12****)
+     * Returns true if the query is valid; the search command then finds its matches by the same rules
+     */
+    protected boolean validateSearchRangeInput(String query) {
+
+        // Applies the query rules and reports the result
+        switch (validator.validateIdQuery(query)) {
+            case PolygonValidator.VALID:
+                return true;
+
+            case PolygonValidator.REVERSED_RANGE:
+                // The range starts above where it ends
+                theFrame.showMessage("Invalid ID range " + query + ": the first ID must not be " +
+                        "greater than the second", "Invalid Search ID", JOptionPane.ERROR_MESSAGE);
+                theFrame.appendText("Error: Invalid ID range " + query + " - the first ID must not be greater than " +
+                        "the second");
+                return false;
+
+            case PolygonValidator.INVALID_RANGE:
+                // One end of the range is not a 6 digit number
+                theFrame.showMessage("Invalid ID range " + query + ": both ends must be 6 digit " +
+                        "numbers e.g. 120000..129999", "Invalid Search ID", JOptionPane.ERROR_MESSAGE);
+                theFrame.appendText("Error: Invalid ID range " + query + " - a range must be two 6 digit IDs " +
+                        "separated by .. e.g. 120000..129999");
+                return false;
+
+            default:
+                // Handles prefixes that are not leading digits followed by wildcards
+                theFrame.showMessage("Invalid ID prefix " + query + ": enter leading digits followed " +
+                        "by * to make 6 characters e.g. 12****", "Invalid Search ID", JOptionPane.ERROR_MESSAGE);
+                theFrame.appendText("Error: Invalid ID prefix " + query + " - a prefix must be leading digits " +
+                        "followed by * wildcards, 6 characters in total e.g. 12****");
+                return false;
         }
     }
 
@@ -0,0 +1,124 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LatencyRecorder class is a lock-free histogram of operation times, cheap enough to leave on all the time
+ * Times are counted in log-linear buckets: one group per power of two nanoseconds, split into 16 equal sub-buckets,
+ * so percentiles are accurate to within about 6% at any scale and recording is a single atomic increment
+ */
+public class LatencyRecorder {
+
+    // Number of sub-buckets within each power of two
+    private static final int SUB_BUCKETS = 16;
+
+    // Bits used to pick the sub-bucket
+    private static final int SUB_BUCKET_BITS = 4;
+
+    // Counts per bucket; 64 powers of two covers every positive long
+    private final AtomicLongArray buckets = new AtomicLongArray(64 * SUB_BUCKETS);
+
+    // Number of recorded times, their total and the largest, in nanoseconds
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /* Records one operation time in nanoseconds; safe to call from any thread */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        buckets.incrementAndGet(bucketIndex(nanos));
+        count.increment();
+        total.add(nanos);
+        long currentMax = max.get();
+        while (nanos > currentMax && !max.compareAndSet(currentMax, nanos)) {
+            currentMax = max.get();
+        }
+    }
+
+    /* Returns the number of recorded times */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /* Returns the mean recorded time in nanoseconds */
+    public long getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : total.sum() / n;
+    }
+
+    /* Returns the largest recorded time in nanoseconds */
+    public long getMax() {
+        return max.get();
+    }
+
+    /*
+     * Returns the time in nanoseconds below which the given fraction of recorded times fall, e.g. 0.99 for p99
+     * The result is the middle of the bucket holding that time
+     */
+    public long getPercentile(double fraction) {
+        long n = 0;
+        long[] counts = new long[buckets.length()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = buckets.get(i);
+            n += counts[i];
+        }
+        if (n == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(fraction * n));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(bucketMiddle(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /* Clears all recorded times */
+    public void reset() {
+        for (int i = 0; i < buckets.length(); i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        total.reset();
+        max.set(0);
+    }
+
+    /* Returns a one line summary such as "n=120 p50=1.2 ms p99=4.8 ms max=9.1 ms" */
+    public String getSummary() {
+        return "n=" + getCount() + " p50=" + formatMillis(getPercentile(0.5)) + " p99=" +
+                formatMillis(getPercentile(0.99)) + " max=" + formatMillis(getMax());
+    }
+
+    /* Formats nanoseconds as milliseconds with up to 3 decimal places */
+    public static String formatMillis(long nanos) {
+        return String.format("%.3f ms", nanos / 1e6);
+    }
+
+    // Finds the bucket for a time: values below 16 ns map directly, larger values by power of two and sub-bucket
+    private static int bucketIndex(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int power = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) (nanos >>> (power - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (power - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    // Returns the middle time of a bucket, the inverse of bucketIndex
+    private static long bucketMiddle(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int power = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int sub = index % SUB_BUCKETS;
+        long low = (1L << power) | ((long) sub << (power - SUB_BUCKET_BITS));
+        long width = 1L << (power - SUB_BUCKET_BITS);
+        return low + width / 2;
+    }
+
+}
@@ -0,0 +1,100 @@
+import javax.swing.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+
+/**
+ * LiveCanvas class shows the polygons of a running PolygonFollower as they arrive
+ * A Swing timer polls the follower every FRAME_MILLIS; when batches have been added since the last tick, the newest
+ * polygons become the selection and the draw panel is repainted once, so the frame rate stays bounded however fast
+ * input arrives and however many batches land between frames. The status label shows the follower's rate and
+ * backlog twice a second.
+ */
+public class LiveCanvas implements ActionListener {
+
+    // Timer delay in milliseconds, bounding repaints to 20 frames per second
+    private static final int FRAME_MILLIS = 50;
+
+    // Time between status label updates in nanoseconds
+    private static final long STATUS_NANOS = 500_000_000L;
+
+    // Frame containing the selection, status label and follow button, and the panel repainted
+    private final ContainerFrame theFrame;
+    private final ContainerPanel panel;
+
+    // Timer polling the follower on the event dispatch thread
+    private final Timer timer;
+
+    // Follower being shown, or null when not following
+    private PolygonFollower follower;
+
+    // Frames repainted for the current follower, and time of the last status update
+    private long framesShown;
+    private long statusAt;
+
+    public LiveCanvas(ContainerFrame frame, ContainerPanel panel) {
+        this.theFrame = frame;
+        this.panel = panel;
+        this.timer = new Timer(FRAME_MILLIS, this);
+        this.timer.setCoalesce(true);
+    }
+
+    /* Starts following a file, or standard input if the source is PolygonFollower.STANDARD_INPUT */
+    public void start(String source) {
+        stop();
+        follower = new PolygonFollower(theFrame.getPolygonStore(), source,
+                message -> SwingUtilities.invokeLater(() -> theFrame.appendText(message)));
+        framesShown = 0;
+        statusAt = 0;
+        follower.start();
+        timer.start();
+        theFrame.followButton.setSelected(true);
+        theFrame.appendText("Following " + follower.getSourceName() + "; newest polygons are drawn as they arrive");
+    }
+
+    /* Stops following, reporting the run in the command line */
+    public void stop() {
+        if (follower == null) {
+            return;
+        }
+        follower.stop();
+        finish();
+    }
+
+    /* Returns the follower's status line, or null when not following */
+    public String getStatus() {
+        return follower == null ? null : follower.getStatus();
+    }
+
+    /* Repaints once if polygons were added since the last tick, and notices when the follower has ended */
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        if (follower.hasChanged()) {
+            theFrame.selectPolygons(follower.getRecent());
+            panel.repaint();
+            framesShown++;
+        }
+
+        long now = System.nanoTime();
+        if (now - statusAt >= STATUS_NANOS) {
+            theFrame.followStatus.setText(follower.getStatus());
+            statusAt = now;
+        }
+
+        // Standard input closed, or the source could not be read
+        if (!follower.isRunning()) {
+            finish();
+        }
+    }
+
+    // Stops the timer and reports the run once the follower has stopped
+    private void finish() {
+        timer.stop();
+        theFrame.selectPolygons(follower.getRecent());
+        panel.repaint();
+        theFrame.appendText(follower.getReport() + "; " + framesShown + " frames drawn");
+        theFrame.followStatus.setText(" ");
+        theFrame.followButton.setSelected(false);
+        follower = null;
+    }
+
+}
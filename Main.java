@@ -1,17 +1,189 @@
 import javax.swing.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
 
+/**
+ * Main class starts the polygon drawing tool
+ *
+ * Startup is ordered so the frame is interactive as early as possible. Every control in the frame is built before it
+ * is shown, but the animator, live canvas and statistics timer behind them are only created on first use (see
+ * ContainerFrame.getAnimator), and the HTTP API and loading the classes of secondary windows run in the background
+ * once the frame has painted. Each phase is timed, and --startup-benchmark prints the times and exits, for use by
+ * StartupBenchmark.
+ *
+ * Startup is faster still with an application class data sharing archive, which keeps the parsed and verified
+ * classes of an earlier run in a memory-mapped file:
+ *   java -XX:ArchiveClassesAtExit=polygons.jsa -cp classes Main --startup-benchmark   (creates the archive)
+ *   java -XX:SharedArchiveFile=polygons.jsa -cp classes Main                          (uses it)
+ * The archive must be recreated whenever the classes or the Java runtime change.
+ *
+ * --script=file runs a script of commands (see CommandRegistry) on an empty store without opening the window, printing
+ * each command's output, and exits with status 1 at the first failing line.
+ *
+ * --follow=file opens the window and follows a growing file of polygon records as the Follow button does, and
+ * --follow=- follows standard input instead, e.g. producer | java -cp classes Main --follow=-
+ *
+ * --api-port=port starts the HTTP API (see PolygonApiServer) once the frame has painted. It also sets the process-wide
+ * sun.net.httpserver.nodelay property, unless it was given with -D, so the API's responses are not held back by the
+ * client's delayed acknowledgements; -Dsun.net.httpserver.nodelay=false keeps the JDK default.
+ */
 public class Main {
 
+    // Command line option enabling the local HTTP API, e.g. --api-port=8080
+    private static final String API_PORT_OPTION = "--api-port=";
+
+    // Command line option printing the startup phase times and exiting once startup completes
+    protected static final String STARTUP_BENCHMARK_OPTION = "--startup-benchmark";
+
+    // Command line option running a command script without the window, e.g. --script=nightly.txt
+    private static final String SCRIPT_OPTION = "--script=";
+
+    // Command line option following a file, or standard input for -, from startup, e.g. --follow=feed.txt
+    private static final String FOLLOW_OPTION = "--follow=";
+
+    // Classes used only once the user opens a secondary window or feature, loaded in the background after startup
+    private static final String[] DEFERRED_CLASSES = {
+            "ColourSelector", "ColourSelectorHandler", "SearchResultView", "GalleryView", "ThumbnailCache",
+            "SvgExporter", "PolygonGenerator", "PolygonBatch", "PolygonAnimator", "LiveCanvas", "PolygonFollower",
+            "javax.swing.JSlider", "javax.swing.JFileChooser", "javax.swing.border.LineBorder",
+            "javax.swing.SwingWorker"
+    };
+
     public static void main(String[] args) {
 
-        // Create main GUI frame instance and add components
-        ContainerFrame cFrame = new ContainerFrame();
-        cFrame.createComponents();
+        // Times each startup phase from the launch of the process
+        StartupTimer timer = new StartupTimer();
+        timer.mark("main");
+
+        // Reads the command line options
+        String apiPort = null;
+        boolean benchmark = false;
+        String script = null;
+        String follow = null;
+        for (String arg : args) {
+            if (arg.startsWith(API_PORT_OPTION)) {
+                apiPort = arg.substring(API_PORT_OPTION.length());
+            } else if (arg.equals(STARTUP_BENCHMARK_OPTION)) {
+                benchmark = true;
+            } else if (arg.startsWith(SCRIPT_OPTION)) {
+                script = arg.substring(SCRIPT_OPTION.length());
+            } else if (arg.startsWith(FOLLOW_OPTION)) {
+                follow = arg.substring(FOLLOW_OPTION.length());
+            }
+        }
+
+        // Sends each API response without waiting for the client's acknowledgement of the headers, which otherwise
+        // holds every response on a kept-alive connection back by about 40 ms; the property is process wide and the
+        // JDK server reads it once, when the first server is created, so it is set here before any server exists
+        if (apiPort != null && System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+
+        // Runs a script headlessly instead of opening the window
+        if (script != null) {
+            System.exit(runScript(script));
+        }
+        String port = apiPort;
+        boolean exitAfterStartup = benchmark;
+        String followSource = follow;
+
+        // Builds and shows the frame on the event dispatch thread, where Swing components belong
+        SwingUtilities.invokeLater(() -> {
+
+            // Create main GUI frame instance and add components
+            ContainerFrame cFrame = new ContainerFrame();
+            cFrame.createComponents();
+            timer.mark("built");
+
+            // Starts the secondary work once the frame has painted, so it never delays the first frame
+            cFrame.firstPaintListener = () -> {
+                timer.mark("painted");
+                startDeferred(cFrame, timer, port, exitAfterStartup);
+            };
 
-        // Set the size, visibility, and default close operation for the frame
-        cFrame.setSize(1500, 750);
-        cFrame.setVisible(true);
-        cFrame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+            // Set the size, visibility, and default close operation for the frame
+            cFrame.setSize(1500, 750);
+            cFrame.setVisible(true);
+            cFrame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+            timer.mark("shown");
+
+            // Starts following once the frame is up, so the first polygons are drawn as they arrive
+            if (followSource != null) {
+                cFrame.getLiveCanvas().start(followSource);
+            }
+        });
+
+    }
+
+    /*
+     * Runs the work deferred until after the first frame on a background thread: starts the HTTP API if a port was
+     * given and loads the classes of secondary windows, so opening them later does not pause to load them
+     */
+    private static void startDeferred(ContainerFrame cFrame, StartupTimer timer, String apiPort, boolean exit) {
+        Thread deferred = new Thread(() -> {
+
+            // Starts the local HTTP API if a port was given on the command line
+            if (apiPort != null) {
+                startApi(cFrame, apiPort);
+                timer.mark("api");
+            }
+
+            // Loads without initialising, which is safe off the event dispatch thread for Swing classes too
+            for (String className : DEFERRED_CLASSES) {
+                try {
+                    Class.forName(className, false, Main.class.getClassLoader());
+                } catch (ClassNotFoundException e) {
+                    // Only a missed optimisation; the class is loaded on first use instead
+                }
+            }
+            timer.mark("ready");
+
+            // Reports the startup times, and ends the run when benchmarking
+            String report = timer.getReport();
+            if (exit) {
+                System.out.println(report);
+                System.exit(0);
+            }
+            SwingUtilities.invokeLater(() -> cFrame.appendText(report));
+        }, "startup-deferred");
+        deferred.setDaemon(true);
+        deferred.start();
+    }
+
+    // Runs a command script on an empty store, printing its output, and returns the exit status
+    private static int runScript(String script) {
+        CommandContext context = new CommandContext(new PolygonStore(), System.out::println, null);
+        long start = System.nanoTime();
+        try {
+            List<String> lines = Files.readAllLines(Paths.get(script));
+            int run = CommandRegistry.standard().runScript(context, lines);
+            System.out.println(run + (run == 1 ? " command" : " commands") + " run from " + script + " in " +
+                    (System.nanoTime() - start) / 1_000_000 + " ms");
+            return 0;
+        } catch (IllegalArgumentException | IOException e) {
+            System.err.println("Error: script " + script + " failed - " + e.getMessage());
+            return 1;
+        }
+    }
 
+    // Starts the HTTP API on the loopback address, reporting the address or the failure in the command line
+    private static void startApi(ContainerFrame cFrame, String portText) {
+        PolygonValidator validator = new PolygonValidator();
+        String message;
+        if (validator.validateInteger(portText, 0, 65535) != PolygonValidator.VALID) {
+            message = "Error: Invalid API port " + portText + " - please use a port number from 0 to 65535 such as " +
+                    "8080, or 0 for any free port";
+        } else {
+            try {
+                int port = new PolygonApiServer(cFrame, validator.intValue()).start();
+                message = "API listening on http://127.0.0.1:" + port + "/polygons";
+            } catch (IOException e) {
+                message = "Error: API could not start on port " + portText + " - " + e.getMessage();
+            }
+        }
+        String result = message;
+        SwingUtilities.invokeLater(() -> cFrame.appendText(result));
     }
 }
@@ -0,0 +1,263 @@
+import java.util.Arrays;
+
+/**
+ * OcclusionCuller class finds the polygons of a frame that would be painted over completely by polygons drawn after
+ * them, so they can be skipped
+ *
+ * Polygons are added in draw order with their screen centre, radius and the vertex count they will be drawn with. A
+ * polygon is hidden if, grown by MARGIN pixels to allow for vertex truncation, outline and antialiasing, it lies
+ * inside a later polygon that is filled with an opaque colour. Every shape is a regular convex polygon, so
+ * containment needs no clipping: a polygon whose circumcircle fits in the occluder's shrunk incircle is inside, one
+ * whose incircle does not fit in the occluder's shrunk circumcircle is not, and otherwise each vertex is tested against
+ * the one occluder edge facing it.
+ *
+ * Polygons are visited from the last drawn to the first. Each visible opaque polygon then becomes an occluder for
+ * the ones before it, and is entered in a uniform grid over the cells its circumcircle covers. Each cell keeps only
+ * its CELL_OCCLUDERS largest occluders, and occluders covering many cells go in one shared list of the same size, so
+ * every polygon is tested against a bounded number of candidates and a frame costs O(n). Missing an occluder only
+ * means a polygon is drawn that need not be, so the result always paints the same pixels as drawing everything.
+ */
+public class OcclusionCuller {
+
+    // Distance in pixels by which a polygon must lie inside an occluder to count as hidden
+    private static final double MARGIN = 2.0;
+
+    // Occluders kept per grid cell and in the shared list for large occluders, largest apothem first
+    private static final int CELL_OCCLUDERS = 8;
+
+    // Preferred width of a grid cell in pixels, and the most cells along each side of the grid
+    private static final double CELL_SIZE = 32;
+    private static final int MAX_GRID_SIDE = 256;
+
+    // Cells an occluder may cover before it goes in the shared list instead
+    private static final int MAX_OCCLUDER_CELLS = 256;
+
+    // Most vertices tested one by one; polygons with more are only hidden by the circle test
+    private static final int MAX_TESTED_VERTICES = 64;
+
+    // Polygons added for the frame, in draw order, with how each is drawn
+    private RegPolygon[] polygons = new RegPolygon[256];
+    private double[] xs = new double[256];
+    private double[] ys = new double[256];
+    private double[] radii = new double[256];
+    private int[] vertices = new int[256];
+    private boolean[] opaque = new boolean[256];
+    private boolean[] hidden = new boolean[256];
+    private int count;
+    private int hiddenCount;
+
+    // Apothem of each polygon, the distance from its centre to the middle of each side
+    private double[] apothems = new double[256];
+
+    // Bounds of the centres added, for sizing the grid
+    private double minX;
+    private double minY;
+    private double maxX;
+    private double maxY;
+
+    // Occluders per grid cell as polygon positions, CELL_OCCLUDERS slots per cell, and how many each cell holds
+    private int[] cellOccluders = new int[0];
+    private int[] cellCounts = new int[0];
+
+    // Occluders covering too many cells to enter in each
+    private final int[] largeOccluders = new int[CELL_OCCLUDERS];
+    private int largeCount;
+
+    // Vertex coordinates of the polygon being tested, relative to the occluder's centre
+    private final double[] vertexX = new double[MAX_TESTED_VERTICES];
+    private final double[] vertexY = new double[MAX_TESTED_VERTICES];
+
+    /* Removes every polygon, ready for the next frame */
+    public void reset() {
+        count = 0;
+        hiddenCount = 0;
+        minX = Double.MAX_VALUE;
+        minY = Double.MAX_VALUE;
+        maxX = -Double.MAX_VALUE;
+        maxY = -Double.MAX_VALUE;
+    }
+
+    /*
+     * Adds the next polygon in draw order: centred at (x, y) on screen with the given screen radius and drawn with the
+     * given number of vertices; opaque means it will be filled with a colour without transparency
+     */
+    public void add(RegPolygon polygon, double x, double y, double radius, int vertexCount, boolean opaque) {
+        if (count == polygons.length) {
+            grow();
+        }
+        polygons[count] = polygon;
+        xs[count] = x;
+        ys[count] = y;
+        radii[count] = radius;
+        vertices[count] = vertexCount;
+        this.opaque[count] = opaque;
+        apothems[count] = radius * Math.cos(Math.PI / vertexCount);
+        minX = Math.min(minX, x);
+        minY = Math.min(minY, y);
+        maxX = Math.max(maxX, x);
+        maxY = Math.max(maxY, y);
+        count++;
+    }
+
+    /* Marks every polygon covered by later opaque polygons as hidden */
+    public void cull() {
+        hiddenCount = 0;
+        largeCount = 0;
+        if (count == 0) {
+            return;
+        }
+
+        // Sizes the grid to the centres, widening cells if they would be too many
+        double cell = Math.max(CELL_SIZE, Math.max(maxX - minX, maxY - minY) / (MAX_GRID_SIDE - 1));
+        int columns = (int) ((maxX - minX) / cell) + 1;
+        int rows = (int) ((maxY - minY) / cell) + 1;
+        if (cellCounts.length < columns * rows) {
+            cellCounts = new int[columns * rows];
+            cellOccluders = new int[columns * rows * CELL_OCCLUDERS];
+        } else {
+            Arrays.fill(cellCounts, 0, columns * rows, 0);
+        }
+
+        for (int i = count - 1; i >= 0; i--) {
+            int column = (int) ((xs[i] - minX) / cell);
+            int row = (int) ((ys[i] - minY) / cell);
+            hidden[i] = isCovered(i, column + row * columns) || isCovered(i, largeOccluders, 0, largeCount);
+            if (hidden[i]) {
+                hiddenCount++;
+                continue;
+            }
+
+            // A visible opaque polygon hides what lies inside it and was drawn earlier
+            if (opaque[i] && apothems[i] > MARGIN) {
+                int fromColumn = Math.max(0, (int) ((xs[i] - radii[i] - minX) / cell));
+                int toColumn = Math.min(columns - 1, (int) ((xs[i] + radii[i] - minX) / cell));
+                int fromRow = Math.max(0, (int) ((ys[i] - radii[i] - minY) / cell));
+                int toRow = Math.min(rows - 1, (int) ((ys[i] + radii[i] - minY) / cell));
+                if ((long) (toColumn - fromColumn + 1) * (toRow - fromRow + 1) > MAX_OCCLUDER_CELLS) {
+                    largeCount = insert(i, largeOccluders, 0, largeCount);
+                } else {
+                    for (int r = fromRow; r <= toRow; r++) {
+                        for (int c = fromColumn; c <= toColumn; c++) {
+                            int index = c + r * columns;
+                            cellCounts[index] = insert(i, cellOccluders, index * CELL_OCCLUDERS, cellCounts[index]);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /* Returns the number of polygons added */
+    public int size() {
+        return count;
+    }
+
+    /* Returns the number of polygons found hidden by the last cull */
+    public int getHiddenCount() {
+        return hiddenCount;
+    }
+
+    /* Returns true if the polygon at a draw position is hidden by later polygons */
+    public boolean isHidden(int i) {
+        return hidden[i];
+    }
+
+    /* Returns the polygon at a draw position */
+    public RegPolygon getPolygon(int i) {
+        return polygons[i];
+    }
+
+    /* Returns the screen x coordinate of the centre of the polygon at a draw position */
+    public double getX(int i) {
+        return xs[i];
+    }
+
+    /* Returns the screen y coordinate of the centre of the polygon at a draw position */
+    public double getY(int i) {
+        return ys[i];
+    }
+
+    /* Returns the screen radius of the polygon at a draw position */
+    public double getRadius(int i) {
+        return radii[i];
+    }
+
+    // Returns true if any occluder of a grid cell covers polygon i
+    private boolean isCovered(int i, int cellIndex) {
+        return isCovered(i, cellOccluders, cellIndex * CELL_OCCLUDERS, cellCounts[cellIndex]);
+    }
+
+    // Returns true if any of the n occluders listed from offset covers polygon i
+    private boolean isCovered(int i, int[] occluders, int offset, int n) {
+        for (int k = offset; k < offset + n; k++) {
+            if (contains(occluders[k], i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Enters occluder i in a list of n kept in descending apothem order from offset, dropping the smallest if the list
+     * is full and i is larger, and returns the new length
+     */
+    private int insert(int i, int[] occluders, int offset, int n) {
+        int position = n;
+        while (position > 0 && apothems[occluders[offset + position - 1]] < apothems[i]) {
+            position--;
+        }
+        if (position == CELL_OCCLUDERS) {
+            return n;
+        }
+        int last = Math.min(n, CELL_OCCLUDERS - 1);
+        System.arraycopy(occluders, offset + position, occluders, offset + position + 1, last - position);
+        occluders[offset + position] = i;
+        return last + 1;
+    }
+
+    // Returns true if polygon i, grown by MARGIN, lies inside polygon j
+    private boolean contains(int j, int i) {
+        double dx = xs[i] - xs[j];
+        double dy = ys[i] - ys[j];
+        double distance = Math.sqrt(dx * dx + dy * dy);
+
+        // Circumcircle of i inside the incircle of j shrunk by the margin
+        double inner = apothems[j] - MARGIN;
+        if (distance + radii[i] <= inner) {
+            return true;
+        }
+
+        // Incircle of i reaching beyond the circumcircle of j shrunk by the margin
+        if (distance + apothems[i] > radii[j] - MARGIN || vertices[i] > MAX_TESTED_VERTICES) {
+            return false;
+        }
+
+        // Tests each vertex of i against the edge of j in the same direction from j's centre
+        double startJ = polygons[j].getStartingAngle();
+        double stepJ = 2 * Math.PI / vertices[j];
+        VertexGenerator.fill(dx, dy, radii[i], polygons[i].getStartingAngle(), vertices[i], vertexX, vertexY);
+        for (int k = 0; k < vertices[i]; k++) {
+            double angle = Math.atan2(vertexY[k], vertexX[k]) - startJ;
+            double edge = Math.floor(angle / stepJ) + 0.5;
+            double normal = startJ + edge * stepJ;
+            if (vertexX[k] * Math.cos(normal) + vertexY[k] * Math.sin(normal) > inner) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Doubles the capacity of the per-polygon arrays
+    private void grow() {
+        int length = polygons.length * 2;
+        polygons = Arrays.copyOf(polygons, length);
+        xs = Arrays.copyOf(xs, length);
+        ys = Arrays.copyOf(ys, length);
+        radii = Arrays.copyOf(radii, length);
+        vertices = Arrays.copyOf(vertices, length);
+        opaque = Arrays.copyOf(opaque, length);
+        hidden = Arrays.copyOf(hidden, length);
+        apothems = Arrays.copyOf(apothems, length);
+    }
+
+}
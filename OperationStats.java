@@ -0,0 +1,109 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * OperationStats class keeps a latency histogram for each user operation and counts painted frames
+ * Recording is a few atomic increments in a LatencyRecorder, so the statistics are always collected; the overlay text
+ * is rebuilt by refresh on the overlay's timer, and painting the drawing panel only reads the last text built
+ */
+public class OperationStats {
+
+    // Operations with their own latency histogram
+    public static final int ADD = 0;
+    public static final int SEARCH = 1;
+    public static final int SORT = 2;
+    public static final int DISPLAY = 3;
+    public static final int PAINT = 4;
+
+    // Names of the operations, in the order above
+    private static final String[] NAMES = {"add", "search", "sort", "display", "paint"};
+
+    // Latency histogram for each operation
+    private final LatencyRecorder[] recorders = new LatencyRecorder[NAMES.length];
+
+    // Area totals of the store, brought up to date from the previous summary on each overlay refresh
+    private PolygonMetrics.Summary metrics;
+
+    // Overlay text built by the last refresh, empty before the first
+    private String[] lines = new String[0];
+
+    // Frames painted, and the count and time at the last frame rate sample
+    private final LongAdder frames = new LongAdder();
+    private long sampledFrames;
+    private long sampledAt = System.nanoTime();
+    private double framesPerSecond;
+
+    public OperationStats() {
+        for (int i = 0; i < recorders.length; i++) {
+            recorders[i] = new LatencyRecorder();
+        }
+    }
+
+    /* Records how long an operation took, given its start time from System.nanoTime; safe from any thread */
+    public void record(int operation, long startNanos) {
+        recorders[operation].record(System.nanoTime() - startNanos);
+    }
+
+    /* Records a painted frame and how long painting took, given its start time from System.nanoTime */
+    public void framePainted(long startNanos) {
+        record(PAINT, startNanos);
+        frames.increment();
+    }
+
+    /* Returns the latency histogram for an operation */
+    public LatencyRecorder getRecorder(int operation) {
+        return recorders[operation];
+    }
+
+    /*
+     * Returns the frames painted per second since the last call, taken at least half a second apart
+     * Called by the overlay refresh, so the rate covers the interval between refreshes
+     */
+    public double sampleFramesPerSecond() {
+        long now = System.nanoTime();
+        long elapsed = now - sampledAt;
+        if (elapsed >= 500_000_000L) {
+            long total = frames.sum();
+            framesPerSecond = (total - sampledFrames) * 1e9 / elapsed;
+            sampledFrames = total;
+            sampledAt = now;
+        }
+        return framesPerSecond;
+    }
+
+    /*
+     * Rebuilds the overlay text: polygon count and heap estimate, area totals, then one line per operation, then the
+     * frame rate
+     * Called on the event dispatch thread by the overlay's timer, so the heap estimate and formatting are done twice a
+     * second rather than on every paint
+     */
+    public void refresh(PolygonStore store) {
+        PolygonStore.Snapshot snapshot = store.snapshot();
+        metrics = PolygonMetrics.summarise(snapshot, metrics);
+        String[] text = new String[NAMES.length + 3];
+        text[0] = String.format("%d polygons, ~%.1f MB", snapshot.size(),
+                snapshot.estimateHeapBytes() / 1048576.0);
+        text[1] = metrics.describeTotals();
+        for (int i = 0; i < NAMES.length; i++) {
+            LatencyRecorder recorder = recorders[i];
+            text[i + 2] = String.format("%-7s n=%-6d p50=%-9s p99=%-9s max=%s", NAMES[i], recorder.getCount(),
+                    shortMillis(recorder.getPercentile(0.5)), shortMillis(recorder.getPercentile(0.99)),
+                    shortMillis(recorder.getMax()));
+        }
+        text[NAMES.length + 2] = String.format("paint   %.1f fps", sampleFramesPerSecond());
+        lines = text;
+    }
+
+    /* Returns the overlay text built by the last refresh */
+    public String[] getLines() {
+        return lines;
+    }
+
+    // Formats nanoseconds as whole microseconds below a millisecond and as milliseconds above, keeping columns narrow
+    private static String shortMillis(long nanos) {
+        if (nanos < 1_000_000) {
+            return (nanos / 1000) + "us";
+        }
+        return String.format("%.2fms", nanos / 1e6);
+    }
+
+}
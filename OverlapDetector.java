@@ -0,0 +1,353 @@
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/**
+ * OverlapDetector class finds every pair of polygons that intersect at their scene positions
+ *
+ * A uniform grid is the broad phase: each polygon's bounding box is entered in the cells it covers, and only polygons
+ * sharing a cell are compared, with each pair reported only from the cell holding the corner of their box overlap.
+ * The narrow phase is the separating axis test, exact for convex shapes such as regular polygons: two polygons are
+ * apart if and only if their projections onto one of their edge normals do not overlap. A regular polygon's
+ * projection onto any axis has a closed form, so each axis costs O(1). Rows of grid cells are shared out across
+ * processor cores.
+ *
+ * Overlapping pairs are counted rather than stored, since polygons stacked at one position give a pair for every two
+ * of them: each polygon in any pair is marked in a bit set, and only the first pairs are kept for listing.
+ *
+ * Polygons are placed by their scene position, radius and starting angle; display scale is ignored. Polygons that
+ * only touch are not counted as overlapping.
+ */
+public class OverlapDetector {
+
+    // Average number of grid cells per polygon at most, bounding the grid's memory
+    private static final int MAX_CELLS_PER_POLYGON = 4;
+
+    // Number of tasks per processor core, so faster threads can take over work from slower ones
+    private static final int TASKS_PER_CORE = 8;
+
+    // Polygon geometry, copied into arrays so the test loops read memory in order
+    private final int count;
+    private final double[] centreX;
+    private final double[] centreY;
+    private final double[] radius;
+    private final double[] angle;
+    private final int[] sides;
+
+    // Grid origin, cell size and dimensions
+    private double originX;
+    private double originY;
+    private double cellSize;
+    private int columns;
+    private int rows;
+
+    // Polygons entered in each cell: those of cell c are cellPolygons[cellStart[c]] to cellPolygons[cellStart[c + 1]]
+    private int[] cellStart;
+    private int[] cellPolygons;
+
+    // Number of polygon pairs that reached the narrow phase
+    private long candidates;
+
+    // Polygons in at least one overlapping pair, one bit per position, and the first pairs found in ascending order
+    private AtomicLongArray overlapping = new AtomicLongArray(0);
+    private long[] listedPairs = new long[0];
+
+    /* Creates a detector for the given polygons, copying their geometry */
+    public OverlapDetector(RegPolygon[] polygons) {
+        count = polygons.length;
+        centreX = new double[count];
+        centreY = new double[count];
+        radius = new double[count];
+        angle = new double[count];
+        sides = new int[count];
+        for (int i = 0; i < count; i++) {
+            RegPolygon p = polygons[i];
+            centreX[i] = p.getSceneX();
+            centreY[i] = p.getSceneY();
+            radius[i] = p.getRadius();
+            angle[i] = p.getStartingAngle();
+            sides[i] = p.getSides();
+        }
+    }
+
+    /*
+     * Finds all overlapping pairs, marking every polygon in one and keeping the first listLimit pairs
+     * Returns the number of overlapping pairs; see getOverlapping and getListedPairs
+     */
+    public long findOverlaps(int listLimit) {
+        candidates = 0;
+        overlapping = new AtomicLongArray((count + 63) / 64);
+        listedPairs = new long[0];
+        if (count < 2) {
+            return 0;
+        }
+        buildGrid();
+
+        // Tests each band of grid rows as a separate task, in parallel
+        int tasks = Math.min(rows, Runtime.getRuntime().availableProcessors() * TASKS_PER_CORE);
+        PairList[] found = new PairList[tasks];
+        long[] tested = new long[tasks];
+        IntStream.range(0, tasks).parallel().forEach(task -> {
+            PairList pairs = new PairList(listLimit);
+            int fromRow = (int) ((long) rows * task / tasks);
+            int toRow = (int) ((long) rows * (task + 1) / tasks);
+            tested[task] = testCells(fromRow * columns, toRow * columns, pairs);
+            found[task] = pairs;
+        });
+
+        // Joins the results of all tasks; the first pairs overall are among the first pairs of each task
+        long total = 0;
+        PairList listed = new PairList(listLimit);
+        for (int t = 0; t < tasks; t++) {
+            total += found[t].total;
+            candidates += tested[t];
+            for (int i = 0; i < found[t].size; i++) {
+                listed.add(found[t].pairs[i]);
+            }
+        }
+        listedPairs = Arrays.copyOf(listed.pairs, listed.size);
+        return total;
+    }
+
+    /* Returns the number of polygon pairs that reached the narrow phase in the last search */
+    public long getCandidateCount() {
+        return candidates;
+    }
+
+    /* Returns the positions in the polygon array of the polygons overlapping at least one other in the last search */
+    public BitSet getOverlapping() {
+        long[] words = new long[overlapping.length()];
+        for (int w = 0; w < words.length; w++) {
+            words[w] = overlapping.get(w);
+        }
+        return BitSet.valueOf(words);
+    }
+
+    /*
+     * Returns the first overlapping pairs of the last search, up to the limit given, as positions in the polygon array
+     * packed as (first << 32) | second with first < second, in ascending order
+     */
+    public long[] getListedPairs() {
+        return listedPairs.clone();
+    }
+
+    /*
+     * Builds the grid: sizes cells to twice the mean radius, so most polygons cover four cells or fewer, enlarging them
+     * if the scene would need more than MAX_CELLS_PER_POLYGON cells per polygon, then enters each polygon by counting
+     * sort into one array
+     */
+    private void buildGrid() {
+        double minX = Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+        double radiusTotal = 0;
+        for (int i = 0; i < count; i++) {
+            minX = Math.min(minX, centreX[i] - radius[i]);
+            minY = Math.min(minY, centreY[i] - radius[i]);
+            maxX = Math.max(maxX, centreX[i] + radius[i]);
+            maxY = Math.max(maxY, centreY[i] + radius[i]);
+            radiusTotal += radius[i];
+        }
+        originX = minX;
+        originY = minY;
+        double width = Math.max(maxX - minX, Double.MIN_NORMAL);
+        double height = Math.max(maxY - minY, Double.MIN_NORMAL);
+
+        cellSize = Math.max(2 * radiusTotal / count, Double.MIN_NORMAL);
+        double maxCells = (double) MAX_CELLS_PER_POLYGON * count;
+        double cells = Math.ceil(width / cellSize) * Math.ceil(height / cellSize);
+        if (cells > maxCells) {
+            cellSize *= Math.sqrt(cells / maxCells);
+        }
+        columns = Math.max(1, (int) Math.ceil(width / cellSize));
+        rows = Math.max(1, (int) Math.ceil(height / cellSize));
+
+        // Counts the polygons entering each cell
+        cellStart = new int[columns * rows + 1];
+        long entries = 0;
+        for (int i = 0; i < count; i++) {
+            int x0 = column(centreX[i] - radius[i]);
+            int x1 = column(centreX[i] + radius[i]);
+            int y0 = row(centreY[i] - radius[i]);
+            int y1 = row(centreY[i] + radius[i]);
+            for (int y = y0; y <= y1; y++) {
+                for (int x = x0; x <= x1; x++) {
+                    cellStart[y * columns + x + 1]++;
+                }
+            }
+            entries += (long) (x1 - x0 + 1) * (y1 - y0 + 1);
+        }
+        if (entries > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Too many grid entries for overlap detection: " + entries);
+        }
+        for (int c = 0; c < columns * rows; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+
+        // Fills each cell's polygons in ascending order
+        cellPolygons = new int[(int) entries];
+        int[] next = Arrays.copyOf(cellStart, columns * rows);
+        for (int i = 0; i < count; i++) {
+            int x0 = column(centreX[i] - radius[i]);
+            int x1 = column(centreX[i] + radius[i]);
+            int y0 = row(centreY[i] - radius[i]);
+            int y1 = row(centreY[i] + radius[i]);
+            for (int y = y0; y <= y1; y++) {
+                for (int x = x0; x <= x1; x++) {
+                    cellPolygons[next[y * columns + x]++] = i;
+                }
+            }
+        }
+    }
+
+    // Compares the polygons within each cell from fromCell up to toCell, adding overlapping pairs; returns the number
+    // of pairs given the narrow phase test
+    private long testCells(int fromCell, int toCell, PairList pairs) {
+        long tested = 0;
+        for (int c = fromCell; c < toCell; c++) {
+            int start = cellStart[c];
+            int end = cellStart[c + 1];
+            for (int s = start; s < end; s++) {
+                int a = cellPolygons[s];
+                for (int t = s + 1; t < end; t++) {
+                    int b = cellPolygons[t];
+
+                    // Bounding boxes must overlap, and the pair is only tested in the cell holding their overlap's
+                    // lower corner, so pairs sharing several cells are reported once
+                    double overlapX = Math.max(centreX[a] - radius[a], centreX[b] - radius[b]);
+                    double overlapY = Math.max(centreY[a] - radius[a], centreY[b] - radius[b]);
+                    if (overlapX >= Math.min(centreX[a] + radius[a], centreX[b] + radius[b]) ||
+                            overlapY >= Math.min(centreY[a] + radius[a], centreY[b] + radius[b]) ||
+                            row(overlapY) * columns + column(overlapX) != c) {
+                        continue;
+                    }
+
+                    tested++;
+                    if (intersects(a, b)) {
+                        mark(a);
+                        mark(b);
+                        pairs.total++;
+                        pairs.add(a < b ? ((long) a << 32) | b : ((long) b << 32) | a);
+                    }
+                }
+            }
+        }
+        return tested;
+    }
+
+    /*
+     * Tests two polygons with the separating axis theorem
+     * Circumscribed circles apart mean no overlap, and inscribed circles overlapping mean overlap; only pairs between
+     * the two need their edge normals tested
+     */
+    private boolean intersects(int a, int b) {
+        double dx = centreX[b] - centreX[a];
+        double dy = centreY[b] - centreY[a];
+        double distanceSquared = dx * dx + dy * dy;
+
+        double outer = radius[a] + radius[b];
+        if (distanceSquared >= outer * outer) {
+            return false;
+        }
+        double inner = apothem(a) + apothem(b);
+        if (distanceSquared < inner * inner) {
+            return true;
+        }
+        return !separatedByEdgeNormal(a, b, dx, dy) && !separatedByEdgeNormal(b, a, -dx, -dy);
+    }
+
+    /*
+     * Returns true if one of polygon a's edge normals separates it from polygon b, whose centre is (dx, dy) from a's
+     * Projected onto the axis, the polygons are apart if the gap between their centres is at least how far a reaches
+     * towards b plus how far b reaches back towards a
+     */
+    private boolean separatedByEdgeNormal(int a, int b, double dx, double dy) {
+        int n = sides[a];
+        double step = 2 * Math.PI / n;
+
+        // Edge normals point midway between adjacent vertices; opposite normals of even polygons give the same axis
+        int axes = n % 2 == 0 ? n / 2 : n;
+        for (int k = 0; k < axes; k++) {
+            double normal = angle[a] + step * (k + 0.5);
+            double centreGap = dx * Math.cos(normal) + dy * Math.sin(normal);
+
+            // Faces b along the axis; a reaches exactly its apothem along its own edge normal
+            double towards = centreGap >= 0 ? normal : normal + Math.PI;
+            double reachA = centreGap >= 0 ? apothem(a) : support(a, towards);
+            if (Math.abs(centreGap) >= reachA + support(b, towards + Math.PI)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Returns how far polygon p extends from its centre along the direction at the given angle
+     * This is the radius times the cosine of the angle to the nearest vertex, the furthest point in that direction
+     */
+    private double support(int p, double direction) {
+        double step = 2 * Math.PI / sides[p];
+        double offset = (direction - angle[p]) % step;
+        if (offset < 0) {
+            offset += step;
+        }
+        return radius[p] * Math.cos(Math.min(offset, step - offset));
+    }
+
+    // Marks a polygon as overlapping another, setting its bit without losing bits set by other tasks
+    private void mark(int p) {
+        int word = p >>> 6;
+        long bit = 1L << p;
+        long bits = overlapping.get(word);
+        while ((bits & bit) == 0 && !overlapping.compareAndSet(word, bits, bits | bit)) {
+            bits = overlapping.get(word);
+        }
+    }
+
+    // Returns the distance from a polygon's centre to the middle of its edges
+    private double apothem(int p) {
+        return radius[p] * Math.cos(Math.PI / sides[p]);
+    }
+
+    // Returns the grid column holding an x coordinate, clamped to the grid
+    private int column(double x) {
+        return Math.min(columns - 1, Math.max(0, (int) ((x - originX) / cellSize)));
+    }
+
+    // Returns the grid row holding a y coordinate, clamped to the grid
+    private int row(double y) {
+        return Math.min(rows - 1, Math.max(0, (int) ((y - originY) / cellSize)));
+    }
+
+    /**
+     * PairList class counts the overlapping pairs found by one task and keeps the smallest of them, up to a limit, in
+     * ascending order; one per task so tasks never share a buffer
+     */
+    private static class PairList {
+
+        // Smallest packed pairs and the number in use, and the number of pairs found
+        private final long[] pairs;
+        private int size;
+        private long total;
+
+        PairList(int limit) {
+            pairs = new long[Math.max(0, limit)];
+        }
+
+        // Keeps a packed pair if it is among the smallest seen, dropping the largest kept when full
+        void add(long pair) {
+            if (size == pairs.length && (size == 0 || pair >= pairs[size - 1])) {
+                return;
+            }
+            int position = size == pairs.length ? size - 1 : size++;
+            while (position > 0 && pairs[position - 1] > pair) {
+                pairs[position] = pairs[position - 1];
+                position--;
+            }
+            pairs[position] = pair;
+        }
+    }
+
+}
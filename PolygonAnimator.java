@@ -0,0 +1,181 @@
+import javax.swing.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+
+/**
+ * PolygonAnimator class rotates or pulses the selected polygons using a fixed timestep
+ * A Swing timer ticks faster than the frame rate; each tick advances the animation by whole 60 Hz steps and paints the
+ * panel once, so motion speed does not depend on how often the timer fires
+ * The per-frame path only updates fields of existing polygons and repaints into reused vertex arrays, so it does not
+ * allocate; the status text is rebuilt once a second
+ */
+public class PolygonAnimator implements ActionListener {
+
+    // Animation modes
+    public static final int ROTATE = 0;
+    public static final int PULSE = 1;
+
+    // Length of one animation step in nanoseconds (60 steps per second)
+    private static final long STEP_NANOS = 1_000_000_000L / 60;
+
+    // Most steps simulated in one tick; any further backlog is dropped rather than caught up
+    private static final int MAX_STEPS_PER_TICK = 5;
+
+    // Timer delay in milliseconds, shorter than a step so ticks are never late by a whole frame
+    private static final int TICK_MILLIS = 4;
+
+    // Rotation speed in radians per second
+    private static final double ROTATION_SPEED = Math.PI / 2;
+
+    // Pulse frequency in cycles per second and amplitude as a fraction of the radius
+    private static final double PULSE_HZ = 1.0;
+    private static final double PULSE_AMPLITUDE = 0.15;
+
+    // Frame containing the status label, and the panel repainted every frame
+    private final ContainerFrame theFrame;
+    private final ContainerPanel panel;
+
+    // Timer driving the animation on the event dispatch thread
+    private final Timer timer;
+
+    // Polygons being animated and the current mode
+    private RegPolygon[] animated = new RegPolygon[0];
+    private int mode;
+
+    // Starting angle of each animated polygon when the animation started, restored when it stops
+    private double[] startingAngles = new double[0];
+
+    // Time not yet simulated, and time of the last tick
+    private long accumulator;
+    private long lastTick;
+
+    // Pulse phase in radians
+    private double pulsePhase;
+
+    // Frame statistics for the current run, and for the current one second reporting window
+    private boolean running;
+    private long startTime;
+    private long stopTime;
+    private long stepsSimulated;
+    private long framesPainted;
+    private long stepsDropped;
+    private long windowStart;
+    private long windowFrames;
+
+    public PolygonAnimator(ContainerFrame frame, ContainerPanel panel) {
+        this.theFrame = frame;
+        this.panel = panel;
+        this.timer = new Timer(TICK_MILLIS, this);
+        this.timer.setCoalesce(true);
+    }
+
+    /* Starts animating the given polygons in the given mode, resetting the frame statistics */
+    public void start(RegPolygon[] polygons, int mode) {
+        stop();
+        this.animated = polygons;
+        this.mode = mode;
+        startingAngles = new double[polygons.length];
+        for (int i = 0; i < polygons.length; i++) {
+            startingAngles[i] = polygons[i].getStartingAngle();
+        }
+        accumulator = 0;
+        pulsePhase = 0;
+        stepsSimulated = 0;
+        framesPainted = 0;
+        stepsDropped = 0;
+        windowFrames = 0;
+        startTime = System.nanoTime();
+        lastTick = startTime;
+        windowStart = startTime;
+        running = true;
+        timer.start();
+    }
+
+    /*
+     * Stops the animation and puts the polygons back as they were: pulsed polygons return to their drawn size and
+     * rotated ones to their starting angles, as the polygons are shared with exports, the gallery and the API
+     */
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        timer.stop();
+        running = false;
+        stopTime = System.nanoTime();
+        for (int i = 0; i < animated.length; i++) {
+            animated[i].setScale(1.0);
+            if (mode == ROTATE) {
+                animated[i].setStartingAngle(startingAngles[i]);
+            }
+        }
+        panel.repaint();
+        theFrame.animationStatus.setText(" ");
+    }
+
+    /* Advances the animation by whole steps for the time since the last tick, then paints one frame */
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        long now = System.nanoTime();
+        accumulator += now - lastTick;
+        lastTick = now;
+
+        int steps = (int) Math.min(accumulator / STEP_NANOS, MAX_STEPS_PER_TICK);
+        if (steps == 0) {
+            return;
+        }
+
+        // Discards any backlog beyond the step limit, counting it as dropped
+        long backlog = accumulator / STEP_NANOS - steps;
+        stepsDropped += backlog;
+        accumulator -= (steps + backlog) * STEP_NANOS;
+
+        double dt = steps * (STEP_NANOS / 1e9);
+        stepsSimulated += steps;
+
+        // Steps simulated without a frame of their own were not shown
+        stepsDropped += steps - 1;
+
+        if (mode == ROTATE) {
+            double turn = ROTATION_SPEED * dt;
+            for (RegPolygon p : animated) {
+                // Keeps the angle within one turn so it does not lose precision over long runs
+                p.setStartingAngle((p.getStartingAngle() + turn) % (2 * Math.PI));
+            }
+        } else {
+            pulsePhase = (pulsePhase + 2 * Math.PI * PULSE_HZ * dt) % (2 * Math.PI);
+            double scale = 1.0 + PULSE_AMPLITUDE * Math.sin(pulsePhase);
+            for (RegPolygon p : animated) {
+                p.setScale(scale);
+            }
+        }
+
+        // Paints straight away on the event dispatch thread rather than queueing a repaint request
+        panel.paintImmediately(0, 0, panel.getWidth(), panel.getHeight());
+
+        // Updates the frame rate once a second
+        if (now - windowStart >= 1_000_000_000L) {
+            double fps = windowFrames * 1e9 / (now - windowStart);
+            theFrame.animationStatus.setText(String.format("%.1f fps, %d dropped", fps, stepsDropped));
+            windowStart = now;
+            windowFrames = 0;
+        }
+    }
+
+    /* Called by the panel after each paint, counting frames while the animation runs */
+    public void framePainted() {
+        if (running) {
+            framesPainted++;
+            windowFrames++;
+        }
+    }
+
+    /* Returns a summary of the achieved frame rate and dropped frames for the last run */
+    public String getReport() {
+        long end = running ? System.nanoTime() : stopTime;
+        double seconds = (end - startTime) / 1e9;
+        double fps = seconds > 0 ? framesPainted / seconds : 0;
+        return String.format("Animation: %d frames in %.1f s (%.1f fps), %d steps simulated, %d frames dropped",
+                framesPainted, seconds, fps, stepsSimulated, stepsDropped);
+    }
+
+}
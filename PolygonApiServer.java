@@ -0,0 +1,425 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.imageio.ImageIO;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * PolygonApiServer class is a small HTTP API on the loopback address so other tools can drive the program
+ *
+ * POST /polygons          adds a batch of polygons sent as CSV lines (id,sides,angle,radius[,fill[,colour]]) or as a
+ *                         JSON array of objects with the same field names
+ * GET  /polygons/{id}     returns one polygon as JSON
+ * GET  /polygons/{id}.png returns a PNG render of one polygon drawn by RegPolygon.drawPolygon; ?size= sets the
+ *                         width, from 1 to 2048 pixels
+ * GET  /metrics           returns request counts and latency percentiles for each endpoint
+ *
+ * Requests run on virtual threads when the Java runtime has them, and on a fixed thread pool otherwise. Responses on
+ * kept-alive connections are only sent without delay if sun.net.httpserver.nodelay is set before the first server is
+ * created, as Main does for --api-port
+ */
+public class PolygonApiServer {
+
+    // Largest request body accepted, in bytes
+    private static final int MAX_BODY = 64 * 1024 * 1024;
+
+    // Default and largest PNG render width in pixels
+    private static final int DEFAULT_RENDER_SIZE = 256;
+    private static final int MAX_RENDER_SIZE = 2048;
+
+    // Most validation errors listed in a response
+    private static final int MAX_ERRORS_SHOWN = 100;
+
+    // Frame the polygons belong to
+    private final ContainerFrame theFrame;
+
+    // Port to listen on, 0 to pick a free port
+    private final int port;
+
+    // Latency of each endpoint
+    private final LatencyRecorder addLatency = new LatencyRecorder();
+    private final LatencyRecorder lookupLatency = new LatencyRecorder();
+    private final LatencyRecorder renderLatency = new LatencyRecorder();
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public PolygonApiServer(ContainerFrame frame, int port) {
+        this.theFrame = frame;
+        this.port = port;
+    }
+
+    /* Starts listening on the loopback address and returns the port in use */
+    public int start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        server.createContext("/polygons", this::handlePolygons);
+        server.createContext("/metrics", this::handleMetrics);
+        executor = createExecutor();
+        server.setExecutor(executor);
+        server.start();
+        return server.getAddress().getPort();
+    }
+
+    /* Stops the server, giving requests in progress up to a second to finish */
+    public void stop() {
+        if (server != null) {
+            server.stop(1);
+            executor.shutdown();
+        }
+    }
+
+    // Uses a virtual thread per request when available (Java 21 and later), otherwise a fixed pool
+    private static ExecutorService createExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            return Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+        }
+    }
+
+    /*
+     * Routes requests under /polygons by method and path
+     * Every response is timed against its endpoint, including errors; an unexpected failure is answered with a 500
+     * unless the response had already started, in which case the exchange is just closed
+     */
+    private void handlePolygons(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        LatencyRecorder latency = null;
+        try {
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+
+            if (path.equals("/polygons") || path.equals("/polygons/")) {
+                latency = addLatency;
+                if (method.equals("POST")) {
+                    handleAdd(exchange);
+                } else {
+                    send(exchange, 405, "text/plain", "Use POST to add polygons");
+                }
+                return;
+            }
+
+            String name = path.substring("/polygons/".length());
+            boolean render = name.endsWith(".png");
+            latency = render ? renderLatency : lookupLatency;
+            if (render) {
+                name = name.substring(0, name.length() - 4);
+            }
+
+            if (!method.equals("GET")) {
+                send(exchange, 405, "text/plain", "Use GET to read a polygon");
+                return;
+            }
+
+            PolygonValidator validator = new PolygonValidator();
+            if (validator.validateId(name) != PolygonValidator.VALID) {
+                send(exchange, 400, "text/plain", "Invalid ID " + name + ": ID must be a 6 digit number");
+                return;
+            }
+            RegPolygon polygon = findPolygon(validator.intValue());
+            if (polygon == null) {
+                send(exchange, 404, "text/plain", "No polygon found with ID: " + name);
+                return;
+            }
+
+            if (render) {
+                handleRender(exchange, polygon);
+            } else {
+                send(exchange, 200, "application/json", toJson(polygon));
+            }
+        } catch (RuntimeException e) {
+            // A response code is only set once the headers are sent; after that a 500 can no longer be sent
+            if (exchange.getResponseCode() == -1) {
+                send(exchange, 500, "text/plain", "Internal error: " + e);
+            }
+        } finally {
+            exchange.close();
+            if (latency != null) {
+                latency.record(System.nanoTime() - start);
+            }
+        }
+    }
+
+    // Validates a CSV or JSON batch and adds the valid, unused IDs to the store
+    private void handleAdd(HttpExchange exchange) throws IOException {
+        byte[] body = readBody(exchange.getRequestBody());
+        if (body == null) {
+            send(exchange, 413, "text/plain", "Request body is larger than " + MAX_BODY + " bytes");
+            return;
+        }
+
+        // JSON bodies start with [ or {; anything else is read as CSV
+        int first = 0;
+        while (first < body.length && body[first] <= ' ') {
+            first++;
+        }
+        PolygonValidator validator = new PolygonValidator();
+        PolygonBatch batch = new PolygonBatch();
+        if (first < body.length && (body[first] == '[' || body[first] == '{')) {
+            String csv = jsonToCsv(new String(body, StandardCharsets.UTF_8));
+            if (csv == null) {
+                send(exchange, 400, "text/plain", "Malformed JSON: expected an array of flat objects " +
+                        "whose strings have no escapes or control characters");
+                return;
+            }
+            validator.validateBatch(csv, batch);
+        } else {
+            validator.validateBatch(body, 0, body.length, batch);
+        }
+
+        // Reports IDs already in the store, then adds the rest; an ID taken by a concurrent add in between is
+        // skipped by the store and counted as rejected
+        batch.markDuplicates(theFrame.getPolygonStore());
+        int added = theFrame.getPolygonStore().addAll(batch.toPolygons());
+        if (added > 0) {
+            String message = "API: " + added + (added == 1 ? " polygon" : " polygons") + " added";
+            SwingUtilities.invokeLater(() -> theFrame.appendText(message));
+        }
+
+        // Reports how many were added and why the others were rejected
+        StringBuilder json = new StringBuilder();
+        json.append("{\"added\":").append(added).append(",\"rejected\":").append(batch.size() - added);
+        json.append(",\"errors\":[");
+        int shown = 0;
+        for (int i = 0; i < batch.size() && shown < MAX_ERRORS_SHOWN; i++) {
+            if (batch.getError(i) != PolygonValidator.VALID) {
+                if (shown++ > 0) {
+                    json.append(',');
+                }
+                json.append('"').append(escape(batch.describeError(i))).append('"');
+            }
+        }
+        json.append("]}");
+        send(exchange, added > 0 || batch.size() == 0 ? 200 : 400, "application/json", json.toString());
+    }
+
+    // Draws a copy of the polygon, scaled to fit, on an offscreen image and sends it as a PNG
+    private void handleRender(HttpExchange exchange, RegPolygon polygon) throws IOException {
+        int size = DEFAULT_RENDER_SIZE;
+        String query = exchange.getRequestURI().getQuery();
+        if (query != null && query.startsWith("size=")) {
+            PolygonValidator validator = new PolygonValidator();
+            int code = validator.validateInteger(query.substring(5), 1, MAX_RENDER_SIZE);
+            if (code != PolygonValidator.VALID) {
+                send(exchange, 400, "text/plain", "Invalid size " + query.substring(5) + ": " +
+                        PolygonValidator.errorMessage(code) + "; size must be a whole number from 1 to " +
+                        MAX_RENDER_SIZE);
+                return;
+            }
+            size = validator.intValue();
+        }
+
+        // A private copy keeps the shared polygon's vertex arrays free for the event dispatch thread
+        RegPolygon copy = new RegPolygon(polygon.getSides(), polygon.getStartingAngle(), polygon.getRadius(),
+                polygon.getID(), polygon.isFilled(), polygon.getColor());
+        copy.setScale(size * 0.45 / polygon.getRadius());
+
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        copy.drawPolygon(g, new Dimension(size, size));
+        g.dispose();
+
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", png);
+        exchange.getResponseHeaders().set("Content-Type", "image/png");
+        exchange.sendResponseHeaders(200, png.size());
+        try (OutputStream out = exchange.getResponseBody()) {
+            png.writeTo(out);
+        }
+    }
+
+    // Sends request counts and latency percentiles for each endpoint
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        try {
+            String json = "{" + metricsJson("add", addLatency) + "," + metricsJson("lookup", lookupLatency) + "," +
+                    metricsJson("render", renderLatency) + "}";
+            send(exchange, 200, "application/json", json);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // Formats one endpoint's latency as a JSON member, with times in microseconds
+    private static String metricsJson(String name, LatencyRecorder recorder) {
+        return "\"" + name + "\":{\"count\":" + recorder.getCount() + ",\"meanMicros\":" + recorder.getMean() / 1000 +
+                ",\"p50Micros\":" + recorder.getPercentile(0.5) / 1000 + ",\"p99Micros\":" +
+                recorder.getPercentile(0.99) / 1000 + ",\"maxMicros\":" + recorder.getMax() / 1000 + "}";
+    }
+
+    // Looks up a polygon in the latest snapshot of the store; safe from any thread
+    private RegPolygon findPolygon(int id) {
+        return theFrame.getPolygonStore().findById(id);
+    }
+
+    // Formats a polygon as a JSON object using the same field names accepted by POST /polygons
+    private static String toJson(RegPolygon p) {
+        Color c = p.getColor();
+        return "{\"id\":\"" + p.getFormattedId(p.getID()) + "\",\"sides\":" + p.getSides() + ",\"angle\":" +
+                p.getStartingAngle() + ",\"radius\":" + p.getRadius() + ",\"filled\":" + p.isFilled() +
+                ",\"colour\":\"" + String.format("%02x%02x%02x", c.getRed(), c.getGreen(), c.getBlue()) + "\"}";
+    }
+
+    /*
+     * Converts a JSON array of flat objects (or one object) into CSV lines for PolygonValidator.validateBatch
+     * Numeric IDs are padded to 6 digits. No field needs escapes, so strings holding a backslash or a control character
+     * are rejected rather than decoded, which also keeps a line break in a value from starting another record; returns
+     * null if the text is not an array of flat objects with such plain strings
+     */
+    private static String jsonToCsv(String json) {
+        StringBuilder csv = new StringBuilder();
+        String[] fields = new String[6];
+        int i = 0;
+        int n = json.length();
+        while (i < n) {
+            char c = json.charAt(i);
+            if (c != '{') {
+                if (c != '[' && c != ']' && c != ',' && c > ' ') {
+                    return null;
+                }
+                i++;
+                continue;
+            }
+
+            // Reads "key": value pairs up to the closing brace
+            Arrays.fill(fields, "");
+            i++;
+            while (true) {
+                while (i < n && (json.charAt(i) <= ' ' || json.charAt(i) == ',')) {
+                    i++;
+                }
+                if (i >= n) {
+                    return null;
+                }
+                if (json.charAt(i) == '}') {
+                    i++;
+                    break;
+                }
+                if (json.charAt(i) != '"') {
+                    return null;
+                }
+                int keyEnd = json.indexOf('"', i + 1);
+                if (keyEnd < 0) {
+                    return null;
+                }
+                String key = json.substring(i + 1, keyEnd);
+                if (!isPlain(key)) {
+                    return null;
+                }
+                i = json.indexOf(':', keyEnd);
+                if (i < 0) {
+                    return null;
+                }
+                i++;
+                while (i < n && json.charAt(i) <= ' ') {
+                    i++;
+                }
+                String value;
+                if (i < n && json.charAt(i) == '"') {
+                    int valueEnd = json.indexOf('"', i + 1);
+                    if (valueEnd < 0) {
+                        return null;
+                    }
+                    value = json.substring(i + 1, valueEnd);
+                    if (!isPlain(value)) {
+                        return null;
+                    }
+                    i = valueEnd + 1;
+                } else {
+                    int valueStart = i;
+                    while (i < n && json.charAt(i) != ',' && json.charAt(i) != '}' && json.charAt(i) > ' ') {
+                        i++;
+                    }
+                    value = json.substring(valueStart, i);
+                }
+                int field = fieldIndex(key);
+                if (field >= 0) {
+                    // Commas would split the CSV record, so they are replaced with a character no rule accepts
+                    fields[field] = value.replace(',', ';');
+                }
+            }
+
+            // Pads numeric IDs such as 1234 to 001234
+            if (!fields[0].isEmpty() && fields[0].length() < 6 && fields[0].chars().allMatch(Character::isDigit)) {
+                fields[0] = "0".repeat(6 - fields[0].length()) + fields[0];
+            }
+            csv.append(String.join(",", fields)).append('\n');
+        }
+        return csv.toString();
+    }
+
+    // Returns true if a JSON string holds no backslash escapes and no control characters such as line breaks
+    private static boolean isPlain(String text) {
+        for (int k = 0; k < text.length(); k++) {
+            char c = text.charAt(k);
+            if (c == '\\' || c < ' ' || c == 0x7F) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Maps a JSON field name to its CSV position, or -1 if the field is not used
+    private static int fieldIndex(String key) {
+        switch (key) {
+            case "id":
+                return 0;
+            case "sides":
+                return 1;
+            case "angle":
+                return 2;
+            case "radius":
+                return 3;
+            case "filled":
+                return 4;
+            case "colour":
+            case "color":
+                return 5;
+            default:
+                return -1;
+        }
+    }
+
+    // Reads the whole request body, or returns null if it is larger than MAX_BODY
+    private static byte[] readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            body.write(buffer, 0, read);
+            if (body.size() > MAX_BODY) {
+                return null;
+            }
+        }
+        return body.toByteArray();
+    }
+
+    // Escapes quotes and backslashes for a JSON string
+    private static String escape(String text) {
+        return text.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    // Sends a complete text response
+    private static void send(HttpExchange exchange, int status, String contentType, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType + "; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+}
@@ -0,0 +1,142 @@
+import java.awt.Color;
+import java.util.Arrays;
+
+/**
+ * PolygonBatch class holds the records of a validated batch in parallel primitive arrays, one entry per record
+ * Records are filled in by PolygonValidator.validateBatch; a batch can be cleared and reused for the next input
+ */
+public class PolygonBatch {
+
+    // Number of records in the batch
+    private int count;
+
+    // Line number of each record in the input
+    protected int[] lines = new int[64];
+
+    // Error code of each record, PolygonValidator.VALID if the record passed
+    protected int[] errors = new int[64];
+
+    // Field position of the first failing field of each invalid record
+    protected int[] errorFields = new int[64];
+
+    // Parsed fields of each record; only meaningful for valid records
+    protected int[] ids = new int[64];
+    protected int[] sides = new int[64];
+    protected double[] angles = new double[64];
+    protected double[] radii = new double[64];
+    protected boolean[] filled = new boolean[64];
+    protected int[] colours = new int[64];
+
+    // Field boundaries of the record being validated, reused for every record
+    protected final int[] fieldStart = new int[6];
+    protected final int[] fieldEnd = new int[6];
+
+    /* Removes all records so the batch can be reused */
+    public void clear() {
+        count = 0;
+    }
+
+    /* Returns the number of records in the batch */
+    public int size() {
+        return count;
+    }
+
+    /* Returns the number of records that passed validation */
+    public int validCount() {
+        int valid = 0;
+        for (int i = 0; i < count; i++) {
+            if (errors[i] == PolygonValidator.VALID) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    /* Returns the line of the input a record was read from, counting from 1 */
+    public int getLine(int record) {
+        return lines[record];
+    }
+
+    /* Returns the error code of a record */
+    public int getError(int record) {
+        return errors[record];
+    }
+
+    /* Returns a description of why a record failed, including its line and field */
+    public String describeError(int record) {
+        return "Line " + lines[record] + ", " + describeFieldError(record);
+    }
+
+    /* Returns why a record failed, naming the field but not the line, for input that is a single record */
+    public String describeFieldError(int record) {
+        return PolygonValidator.fieldName(errorFields[record]) + ": " + PolygonValidator.errorMessage(errors[record]);
+    }
+
+    /*
+     * Marks valid records whose ID is already in the store, or repeats an earlier record in the batch, as duplicates
+     * The valid IDs are sorted once so repeats within the batch are found next to each other
+     */
+    public void markDuplicates(PolygonStore store) {
+        long[] keys = new long[count];
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            if (errors[i] != PolygonValidator.VALID) {
+                continue;
+            }
+            if (store.containsId(ids[i])) {
+                fail(i, PolygonValidator.DUPLICATE_ID, 0);
+            } else {
+                keys[n++] = ((long) ids[i] << 32) | i;
+            }
+        }
+
+        // Sorting by ID then record keeps the first record of each repeated ID valid
+        Arrays.sort(keys, 0, n);
+        for (int k = 1; k < n; k++) {
+            if (keys[k] >>> 32 == keys[k - 1] >>> 32) {
+                fail((int) keys[k], PolygonValidator.DUPLICATE_ID, 0);
+            }
+        }
+    }
+
+    /* Creates a polygon for every valid record, in record order */
+    public RegPolygon[] toPolygons() {
+        RegPolygon[] polygons = new RegPolygon[validCount()];
+        int n = 0;
+        Color black = Color.BLACK;
+        for (int i = 0; i < count; i++) {
+            if (errors[i] == PolygonValidator.VALID) {
+                Color colour = colours[i] == 0 ? black : new Color(colours[i]);
+                polygons[n++] = new RegPolygon(sides[i], angles[i], radii[i], ids[i], filled[i], colour);
+            }
+        }
+        return polygons;
+    }
+
+    // Adds a new record for the given input line, initially valid, and returns its position
+    protected int append(int line) {
+        if (count == lines.length) {
+            int length = count * 2;
+            lines = Arrays.copyOf(lines, length);
+            errors = Arrays.copyOf(errors, length);
+            errorFields = Arrays.copyOf(errorFields, length);
+            ids = Arrays.copyOf(ids, length);
+            sides = Arrays.copyOf(sides, length);
+            angles = Arrays.copyOf(angles, length);
+            radii = Arrays.copyOf(radii, length);
+            filled = Arrays.copyOf(filled, length);
+            colours = Arrays.copyOf(colours, length);
+        }
+        lines[count] = line;
+        errors[count] = PolygonValidator.VALID;
+        errorFields[count] = 0;
+        return count++;
+    }
+
+    // Records that a record failed validation with the given code at the given field
+    protected void fail(int record, int code, int field) {
+        errors[record] = code;
+        errorFields[record] = field;
+    }
+
+}
@@ -0,0 +1,338 @@
+import java.util.Arrays;
+
+/**
+ * PolygonBitmap class is a compressed bitmap of polygon slot numbers, used by the secondary indexes in PolygonStore
+ * Slots are split into chunks of 65536; a sparse chunk stores its low 16 bits in a sorted short array and a dense
+ * chunk switches to a 65536 bit word array, so rare attribute values use little memory and common ones stay fast
+ */
+public class PolygonBitmap {
+
+    // Number of entries at which a chunk switches from a sorted array to a bit array
+    private static final int DENSE_THRESHOLD = 4096;
+
+    // High 16 bits of each chunk in ascending order
+    private int[] keys = new int[4];
+
+    // Sorted low 16 bits of each sparse chunk, or null if the chunk is dense
+    private short[][] sparse = new short[4][];
+
+    // 1024 words covering every low 16 bit value of each dense chunk, or null if the chunk is sparse
+    private long[][] dense = new long[4][];
+
+    // Number of slots in each chunk
+    private int[] counts = new int[4];
+
+    // Number of chunks in use
+    private int chunkCount;
+
+    /*
+     * Adds a slot to the bitmap; slots must be added in ascending order, as PolygonStore hands them out
+     * Adding the same slot twice has no effect
+     */
+    public void add(int slot) {
+        int key = slot >>> 16;
+        int low = slot & 0xFFFF;
+
+        // Starts a new chunk when the slot passes the last one
+        if (chunkCount == 0 || keys[chunkCount - 1] != key) {
+            if (chunkCount == keys.length) {
+                keys = Arrays.copyOf(keys, chunkCount * 2);
+                sparse = Arrays.copyOf(sparse, chunkCount * 2);
+                dense = Arrays.copyOf(dense, chunkCount * 2);
+                counts = Arrays.copyOf(counts, chunkCount * 2);
+            }
+            keys[chunkCount] = key;
+            sparse[chunkCount] = new short[8];
+            dense[chunkCount] = null;
+            counts[chunkCount] = 0;
+            chunkCount++;
+        }
+
+        int c = chunkCount - 1;
+
+        if (dense[c] != null) {
+            long word = dense[c][low >>> 6];
+            long bit = 1L << low;
+            if ((word & bit) == 0) {
+                dense[c][low >>> 6] = word | bit;
+                counts[c]++;
+            }
+            return;
+        }
+
+        // Ignores a repeated slot, which can only be the last one added
+        if (counts[c] > 0 && (sparse[c][counts[c] - 1] & 0xFFFF) == low) {
+            return;
+        }
+
+        // Converts the chunk to a bit array once it is too full for the sorted array to be smaller
+        if (counts[c] == DENSE_THRESHOLD) {
+            long[] words = new long[1024];
+            for (int i = 0; i < counts[c]; i++) {
+                int v = sparse[c][i] & 0xFFFF;
+                words[v >>> 6] |= 1L << v;
+            }
+            words[low >>> 6] |= 1L << low;
+            dense[c] = words;
+            sparse[c] = null;
+            counts[c]++;
+            return;
+        }
+
+        if (counts[c] == sparse[c].length) {
+            sparse[c] = Arrays.copyOf(sparse[c], Math.min(counts[c] * 2, DENSE_THRESHOLD));
+        }
+        sparse[c][counts[c]++] = (short) low;
+    }
+
+    /*
+     * Returns a copy that can be added to without changing this bitmap
+     * Slots are only ever added to the last chunk, so the copy shares every earlier chunk and copies only the last
+     */
+    public PolygonBitmap copy() {
+        PolygonBitmap copy = new PolygonBitmap();
+        copy.keys = keys.clone();
+        copy.sparse = sparse.clone();
+        copy.dense = dense.clone();
+        copy.counts = counts.clone();
+        copy.chunkCount = chunkCount;
+        if (chunkCount > 0) {
+            int c = chunkCount - 1;
+            if (dense[c] != null) {
+                copy.dense[c] = dense[c].clone();
+            } else {
+                copy.sparse[c] = sparse[c].clone();
+            }
+        }
+        return copy;
+    }
+
+    /*
+     * Returns a copy with the given slots, in ascending order, added or removed, leaving this bitmap unchanged
+     * Only the chunks holding those slots are copied; the rest are shared, as in copy
+     */
+    public PolygonBitmap withChanged(int[] changed, boolean add) {
+        PolygonBitmap result = new PolygonBitmap();
+        int capacity = Math.max(4, chunkCount + (add ? changed.length : 0));
+        result.keys = new int[capacity];
+        result.sparse = new short[capacity][];
+        result.dense = new long[capacity][];
+        result.counts = new int[capacity];
+
+        int c = 0;
+        int i = 0;
+        while (c < chunkCount || i < changed.length) {
+            int key = c < chunkCount ? keys[c] : Integer.MAX_VALUE;
+            if (i < changed.length) {
+                key = Math.min(key, changed[i] >>> 16);
+            }
+            int end = i;
+            while (end < changed.length && changed[end] >>> 16 == key) {
+                end++;
+            }
+            boolean existing = c < chunkCount && keys[c] == key;
+            short[] values = existing ? sparse[c] : new short[0];
+            long[] words = existing ? dense[c] : null;
+            int count = existing ? counts[c] : 0;
+            if (existing) {
+                c++;
+            }
+            if (end > i) {
+                if (words == null && add && count + (end - i) > DENSE_THRESHOLD) {
+                    // Converts the chunk to a bit array, as add does once the sorted array is full
+                    words = new long[1024];
+                    for (int k = 0; k < count; k++) {
+                        int v = values[k] & 0xFFFF;
+                        words[v >>> 6] |= 1L << v;
+                    }
+                } else if (words != null) {
+                    words = words.clone();
+                }
+                if (words != null) {
+                    // Sets or clears each bit, counting only the bits that change
+                    for (int k = i; k < end; k++) {
+                        int low = changed[k] & 0xFFFF;
+                        long bit = 1L << low;
+                        if (((words[low >>> 6] & bit) != 0) != add) {
+                            words[low >>> 6] ^= bit;
+                            count += add ? 1 : -1;
+                        }
+                    }
+                } else {
+                    // Merges the sorted values with the changed slots into a new sorted array
+                    short[] merged = new short[count + (add ? end - i : 0)];
+                    int n = 0;
+                    int k = i;
+                    for (int x = 0; x < count; x++) {
+                        int v = values[x] & 0xFFFF;
+                        while (k < end && (changed[k] & 0xFFFF) < v) {
+                            if (add) {
+                                merged[n++] = (short) changed[k];
+                            }
+                            k++;
+                        }
+                        if (k < end && (changed[k] & 0xFFFF) == v) {
+                            k++;
+                            if (!add) {
+                                continue;
+                            }
+                        }
+                        merged[n++] = (short) v;
+                    }
+                    while (add && k < end) {
+                        merged[n++] = (short) changed[k++];
+                    }
+                    values = merged;
+                    count = n;
+                }
+                i = end;
+            }
+
+            // Drops chunks left empty
+            if (count > 0) {
+                int r = result.chunkCount++;
+                result.keys[r] = key;
+                result.sparse[r] = words == null ? values : null;
+                result.dense[r] = words;
+                result.counts[r] = count;
+            }
+        }
+        return result;
+    }
+
+    /* Returns true if the slot is in the bitmap */
+    public boolean contains(int slot) {
+        int c = Arrays.binarySearch(keys, 0, chunkCount, slot >>> 16);
+        if (c < 0) {
+            return false;
+        }
+        int low = slot & 0xFFFF;
+        if (dense[c] != null) {
+            return (dense[c][low >>> 6] & (1L << low)) != 0;
+        }
+        return unsignedSearch(sparse[c], counts[c], low) >= 0;
+    }
+
+    /* Returns the number of slots in the bitmap */
+    public int cardinality() {
+        int total = 0;
+        for (int c = 0; c < chunkCount; c++) {
+            total += counts[c];
+        }
+        return total;
+    }
+
+    /*
+     * Returns a new bitmap holding the slots present in both this bitmap and the other
+     * Only chunks present in both are visited, and dense chunks are intersected a word at a time
+     */
+    public PolygonBitmap and(PolygonBitmap other) {
+        PolygonBitmap result = new PolygonBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < chunkCount && j < other.chunkCount) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                int base = keys[i] << 16;
+                if (dense[i] != null && other.dense[j] != null) {
+                    // Both dense: AND the words and add the set bits in order
+                    for (int w = 0; w < 1024; w++) {
+                        long word = dense[i][w] & other.dense[j][w];
+                        while (word != 0) {
+                            result.add(base | (w << 6) | Long.numberOfTrailingZeros(word));
+                            word &= word - 1;
+                        }
+                    }
+                } else if (dense[i] == null && other.dense[j] == null) {
+                    // Both sparse: merge the two sorted arrays
+                    short[] a = sparse[i];
+                    short[] b = other.sparse[j];
+                    int x = 0;
+                    int y = 0;
+                    while (x < counts[i] && y < other.counts[j]) {
+                        int va = a[x] & 0xFFFF;
+                        int vb = b[y] & 0xFFFF;
+                        if (va < vb) {
+                            x++;
+                        } else if (va > vb) {
+                            y++;
+                        } else {
+                            result.add(base | va);
+                            x++;
+                            y++;
+                        }
+                    }
+                } else {
+                    // One sparse, one dense: probe the bit array for each array entry
+                    short[] a = dense[i] == null ? sparse[i] : other.sparse[j];
+                    int n = dense[i] == null ? counts[i] : other.counts[j];
+                    long[] words = dense[i] == null ? other.dense[j] : dense[i];
+                    for (int x = 0; x < n; x++) {
+                        int v = a[x] & 0xFFFF;
+                        if ((words[v >>> 6] & (1L << v)) != 0) {
+                            result.add(base | v);
+                        }
+                    }
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /* Returns an estimate of the heap bytes used by the bitmap, counting 16 bytes of header for each array */
+    public long estimateBytes() {
+        // Keys, counts and the two chunk pointer arrays all have the same length
+        long bytes = 24 + 4 * (16 + 4L * keys.length);
+        for (int c = 0; c < chunkCount; c++) {
+            bytes += dense[c] != null ? 16 + 8L * dense[c].length : 16 + 2L * sparse[c].length;
+        }
+        return bytes;
+    }
+
+    /* Returns all slots in the bitmap in ascending order */
+    public int[] toArray() {
+        int[] slots = new int[cardinality()];
+        int n = 0;
+        for (int c = 0; c < chunkCount; c++) {
+            int base = keys[c] << 16;
+            if (dense[c] != null) {
+                for (int w = 0; w < 1024; w++) {
+                    long word = dense[c][w];
+                    while (word != 0) {
+                        slots[n++] = base | (w << 6) | Long.numberOfTrailingZeros(word);
+                        word &= word - 1;
+                    }
+                }
+            } else {
+                for (int i = 0; i < counts[c]; i++) {
+                    slots[n++] = base | (sparse[c][i] & 0xFFFF);
+                }
+            }
+        }
+        return slots;
+    }
+
+    // Binary search of the first n entries of a sorted array of unsigned 16 bit values
+    private static int unsignedSearch(short[] values, int n, int target) {
+        int low = 0;
+        int high = n - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int v = values[mid] & 0xFFFF;
+            if (v < target) {
+                low = mid + 1;
+            } else if (v > target) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+}
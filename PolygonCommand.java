@@ -0,0 +1,16 @@
+import java.io.IOException;
+
+/**
+ * PolygonCommand interface is one named operation on the polygon store, such as add, search or sort
+ * Commands work only through a CommandContext, never Swing components, so the same command runs from a button, a
+ * script file in the window, or a headless script run from the command line
+ */
+public interface PolygonCommand {
+
+    /*
+     * Runs the command with the text after its name (empty if there is none) and returns a one line result
+     * Throws IllegalArgumentException if the argument is invalid, and IOException if a file cannot be read or written
+     */
+    String execute(CommandContext context, String argument) throws IOException;
+
+}
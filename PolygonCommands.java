@@ -0,0 +1,234 @@
+import java.awt.Color;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * PolygonCommands class holds the standard commands registered by CommandRegistry.standard
+ * Each takes its argument as text in the same formats as the window's fields and the batch record files, and reports
+ * through the context, so a script repeats what a user would otherwise do by hand
+ */
+public class PolygonCommands {
+
+    // Width of the line of dashes printed between polygons by display
+    private static final int SEPARATOR_WIDTH = 100;
+
+    // Entries listed one by one before the rest are counted: IDs not found and entries that are not IDs by lookup,
+    // and ID conflicts by merge
+    private static final int ENTRIES_LISTED = 20;
+
+    /* add id,sides,angle,radius[,fill[,colour]]: adds one polygon, given as a batch record, and selects it */
+    public static String add(CommandContext context, String argument) {
+        PolygonBatch batch = new PolygonBatch();
+        new PolygonValidator().validateBatch(argument, batch);
+        if (batch.size() != 1) {
+            throw new IllegalArgumentException("add takes one record: id,sides,angle,radius[,fill[,colour]]");
+        }
+        if (batch.getError(0) != PolygonValidator.VALID) {
+            throw new IllegalArgumentException("Invalid polygon " + batch.describeFieldError(0));
+        }
+
+        RegPolygon polygon = batch.toPolygons()[0];
+        long start = System.nanoTime();
+        boolean added = context.getStore().add(polygon);
+        context.record(OperationStats.ADD, start);
+        if (!added) {
+            throw new IllegalArgumentException("ID " + polygon.getFormattedId(polygon.getID()) + " already exists");
+        }
+        context.setSelection(new RegPolygon[]{polygon});
+        return "Polygon " + polygon.getFormattedId(polygon.getID()) + " added";
+    }
+
+    /*
+     * search 123456 | 120000..129999 | 12****: selects the polygon with an ID, or every polygon in an ID range or
+     * with an ID prefix; finding nothing is not an error and leaves the selection empty
+     */
+    public static String search(CommandContext context, String argument) {
+        PolygonValidator validator = new PolygonValidator();
+        int code = validator.validateIdQuery(argument);
+        if (code != PolygonValidator.VALID) {
+            throw new IllegalArgumentException("Invalid search " + argument + "; " +
+                    PolygonValidator.errorMessage(code));
+        }
+        long start = System.nanoTime();
+        RegPolygon[] results = context.getStore().findRange(validator.fromId(), validator.toId());
+        context.record(OperationStats.SEARCH, start);
+        context.setSelection(results);
+        if (results.length == 0) {
+            return "No polygons found matching " + argument;
+        }
+        return results.length + (results.length == 1 ? " polygon" : " polygons") + " found matching " + argument;
+    }
+
+    /*
+     * lookup 123456 234567 ... | lookup @ids.txt: selects every polygon with one of the listed IDs, given inline or as
+     * a file, separated by spaces, commas or line breaks; IDs not found are listed, and are not an error
+     */
+    public static String lookup(CommandContext context, String argument) throws IOException {
+        if (argument.isEmpty()) {
+            throw new IllegalArgumentException("lookup takes IDs or a file of IDs: lookup 123456 234567 | " +
+                    "lookup @ids.txt");
+        }
+        String text = argument.startsWith("@") ? Files.readString(Paths.get(argument.substring(1))) : argument;
+        long start = System.nanoTime();
+        IdLookup.Result result = IdLookup.lookup(context.getStore().snapshot(), text);
+        context.record(OperationStats.SEARCH, start);
+        context.setSelection(result.getHits());
+        if (result.getMisses().length > 0) {
+            context.println("Not found: " + result.formatMisses(ENTRIES_LISTED));
+        }
+        if (!result.getInvalid().isEmpty()) {
+            context.println("Not valid IDs: " + result.formatInvalid(ENTRIES_LISTED));
+        }
+        return "Looked up " + result.describe();
+    }
+
+    /*
+     * sort [key,...]: puts the display order in order of the keys, most significant first, with - before a key for
+     * descending order, such as sort sides,-radius; ties and sort alone are in ID order
+     */
+    public static String sort(CommandContext context, String argument) {
+        PolygonSorter.Key[] keys = PolygonSorter.parseKeys(argument.isEmpty() ? "id" : argument);
+        PolygonStore store = context.getStore();
+        if (store.size() > 1) {
+            long start = System.nanoTime();
+            store.sortBy(keys);
+            context.record(OperationStats.SORT, start);
+        }
+        return store.size() + (store.size() == 1 ? " polygon" : " polygons") + " sorted by " +
+                PolygonSorter.describe(keys);
+    }
+
+    /* display: prints every polygon in display order, then the area and perimeter totals */
+    public static String display(CommandContext context, String argument) {
+        PolygonStore.Snapshot snapshot = context.getStore().snapshot();
+        List<RegPolygon> polygons = snapshot.getPolygonList();
+        if (polygons.isEmpty()) {
+            return "Polygon list is empty; no polygons to display";
+        }
+
+        context.println("Displaying " + polygons.size() + (polygons.size() == 1 ? " polygon:" : " polygons:"));
+        long start = System.nanoTime();
+        for (int i = 0; i < polygons.size(); i++) {
+            context.println(String.valueOf(polygons.get(i)));
+            // Separates polygons with a line of dashes
+            if (i < polygons.size() - 1) {
+                context.println("-".repeat(SEPARATOR_WIDTH));
+            }
+        }
+        context.record(OperationStats.DISPLAY, start);
+
+        PolygonMetrics.Summary metrics = PolygonMetrics.summarise(snapshot, null);
+        context.println(metrics.describeTotals());
+        context.println(metrics.describeBySides());
+        return polygons.size() + (polygons.size() == 1 ? " polygon" : " polygons") + " displayed";
+    }
+
+    /*
+     * recolour #rrggbb: gives the selected polygons a new colour
+     * Colour is part of the store's indexes, so recoloured copies take the polygons' slots in the store in one
+     * publish that keeps the snapshot epoch (see PolygonStore.recolour), and become the selection
+     */
+    public static String recolour(CommandContext context, String argument) {
+        Color colour;
+        try {
+            colour = Color.decode(argument.startsWith("#") ? argument : "#" + argument);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid colour \"" + argument + "\"; use a 6 digit hex value " +
+                    "such as #ff8800");
+        }
+
+        RegPolygon[] selection = context.getSelection();
+        if (selection.length == 0) {
+            return "No polygons selected; nothing recoloured";
+        }
+        RegPolygon[] copies = context.getStore().recolour(selection, colour);
+        context.setSelection(copies);
+        return copies.length + (copies.length == 1 ? " polygon" : " polygons") + " recoloured";
+    }
+
+    /*
+     * merge file [keep-existing | keep-incoming | renumber]: merges the polygons of a batch record file into the
+     * store, resolving ID conflicts by the given policy (keep-existing if none is given); the file name may contain
+     * spaces, as only a policy word at the end is taken as the policy
+     * The first invalid record and the first conflicts, with how each was resolved, are printed
+     */
+    public static String merge(CommandContext context, String argument) throws IOException {
+        if (argument.isEmpty()) {
+            throw new IllegalArgumentException("merge takes a file and an optional policy: " +
+                    "merge file [keep-existing | keep-incoming | renumber]");
+        }
+        int space = argument.lastIndexOf(' ');
+        int policy = space == -1 ? -1 : PolygonMerger.parsePolicy(argument.substring(space + 1));
+        String file = policy == -1 ? argument : argument.substring(0, space).trim();
+        if (policy == -1) {
+            policy = PolygonMerger.KEEP_LEFT;
+        }
+
+        byte[] data = Files.readAllBytes(Paths.get(file));
+        PolygonBatch batch = new PolygonBatch();
+        new PolygonValidator().validateBatch(data, 0, data.length, batch);
+        PolygonMerger.Result result = context.getStore().merge(batch.toPolygons(), policy);
+
+        // Reports the first record that failed validation
+        int invalid = batch.size() - batch.validCount();
+        for (int i = 0; i < batch.size(); i++) {
+            if (batch.getError(i) != PolygonValidator.VALID) {
+                context.println(invalid + (invalid == 1 ? " invalid record" : " invalid records") + " skipped; " +
+                        "first: " + batch.describeError(i));
+                break;
+            }
+        }
+
+        // Lists the first conflicts and how each was resolved
+        int conflicts = result.getConflictCount();
+        for (int c = 0; c < Math.min(conflicts, ENTRIES_LISTED); c++) {
+            RegPolygon existing = result.getExisting(c);
+            String id = existing.getFormattedId(existing.getID());
+            if (result.getPolicy() == PolygonMerger.KEEP_RIGHT) {
+                context.println("Conflict " + id + ": replaced by the incoming polygon");
+            } else if (result.getRenumbered(c) != null) {
+                RegPolygon renumbered = result.getRenumbered(c);
+                context.println("Conflict " + id + ": incoming polygon added as " +
+                        renumbered.getFormattedId(renumbered.getID()));
+            } else {
+                context.println("Conflict " + id + ": existing polygon kept");
+            }
+        }
+        if (conflicts > ENTRIES_LISTED) {
+            context.println("... and " + (conflicts - ENTRIES_LISTED) + " more conflicts");
+        }
+
+        String text = "Merged " + file + ": " + result.describe();
+        if (invalid > 0) {
+            text += ", " + invalid + (invalid == 1 ? " invalid record" : " invalid records");
+        }
+        return text;
+    }
+
+    /*
+     * export file.svg [all | selected]: writes every polygon, or the selected ones, to an SVG file at their scene
+     * positions; as with merge, only a last word of all or selected is taken as the choice
+     */
+    public static String export(CommandContext context, String argument) throws IOException {
+        if (argument.isEmpty()) {
+            throw new IllegalArgumentException("export takes the file to write: export file.svg [all | selected]");
+        }
+        int space = argument.lastIndexOf(' ');
+        String choice = space == -1 ? "" : argument.substring(space + 1);
+        boolean selected = choice.equals("selected");
+        String file = selected || choice.equals("all") ? argument.substring(0, space).trim() : argument;
+
+        RegPolygon[] polygons = selected ? context.getSelection() :
+                context.getStore().getPolygonList().toArray(new RegPolygon[0]);
+        if (polygons.length == 0) {
+            return (selected ? "No polygons selected" : "No polygons") + "; nothing exported";
+        }
+        Path path = Paths.get(file);
+        new SvgExporter().export(polygons, path);
+        return polygons.length + (polygons.length == 1 ? " polygon" : " polygons") + " exported to " + path;
+    }
+
+}
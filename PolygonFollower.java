@@ -0,0 +1,341 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * PolygonFollower class ingests polygon records from a growing file, as tail -f does, or from standard input, on a
+ * background thread, adding them to a store as they arrive
+ *
+ * Input is read through an NIO channel into one reused buffer. Every complete line in the buffer is validated in
+ * place by PolygonValidator.validateBatch, the same rules as the input fields and record files, and a partial last
+ * line is kept for the next read. Valid polygons are added in micro-batches: a batch is applied once it reaches
+ * MAX_BATCH polygons, once no more input is waiting, or once its first polygon has waited MAX_BATCH_DELAY_NANOS, so
+ * a fast producer gives few large merges and a slow one sees each record almost at once. The store is updated only
+ * here; repainting is left to the caller, which polls hasChanged at its own frame rate (see LiveCanvas).
+ *
+ * Backpressure is measured rather than hidden: the bytes written but not yet read, the time from a record being read
+ * to it being in the store, and the batch sizes are all tracked, and isBehind reports when the backlog exceeds
+ * BEHIND_BYTES. A file that shrinks is taken to have been truncated and is followed again from its start; standard
+ * input is followed until it is closed.
+ */
+public class PolygonFollower implements Runnable {
+
+    // Source name meaning standard input
+    public static final String STANDARD_INPUT = "-";
+
+    // Size of the read buffer; a line longer than this is skipped as invalid
+    private static final int READ_BUFFER = 64 * 1024;
+
+    // Most polygons applied in one batch, and longest a read polygon waits before its batch is applied
+    private static final int MAX_BATCH = 8192;
+    private static final long MAX_BATCH_DELAY_NANOS = 20_000_000L;
+
+    // Wait before looking for more data at the end of a file, and longest wait for the thread when stopping
+    private static final int POLL_MILLIS = 20;
+    private static final int STOP_MILLIS = 1000;
+
+    // Unread input beyond which the follower counts as falling behind
+    private static final long BEHIND_BYTES = 1024 * 1024;
+
+    // Latest polygons kept for showing the newest arrivals
+    private static final int RECENT_LIMIT = 256;
+
+    // Invalid records reported one by one before the rest are only counted
+    private static final int ERRORS_REPORTED = 20;
+
+    // Store receiving the polygons, the file followed or STANDARD_INPUT, and where messages are sent
+    private final PolygonStore store;
+    private final String source;
+    private final Consumer<String> messages;
+
+    // Ingestion thread, and whether it should keep going
+    private Thread thread;
+    private volatile boolean running;
+
+    // Counters, written only by the ingestion thread
+    private volatile long bytesRead;
+    private volatile long recordsRead;
+    private volatile long added;
+    private volatile long duplicates;
+    private volatile long invalid;
+    private volatile long batches;
+    private volatile long fullBatches;
+
+    // Input waiting to be read after the latest read, and the most seen
+    private volatile long backlogBytes;
+    private volatile long maxBacklogBytes;
+
+    // Time to add each batch to the store, and time from a batch's first polygon being read to the batch being added
+    private final LatencyRecorder applyTimes = new LatencyRecorder();
+    private final LatencyRecorder delays = new LatencyRecorder();
+
+    // Set whenever a batch is added, and cleared by hasChanged
+    private final AtomicBoolean changed = new AtomicBoolean();
+
+    // Newest polygons added, as a ring of RECENT_LIMIT entries, guarded by this follower
+    private final RegPolygon[] recent = new RegPolygon[RECENT_LIMIT];
+    private long recentCount;
+
+    // Start and end of following, and the added count and time at the last rate sample
+    private long startTime;
+    private volatile long stopTime;
+    private long sampledAdded;
+    private long sampledAt;
+    private double addedPerSecond;
+
+    /*
+     * Creates a follower of a file, or of standard input if the source is STANDARD_INPUT
+     * Messages, such as invalid records, are passed to the consumer from the ingestion thread
+     */
+    public PolygonFollower(PolygonStore store, String source, Consumer<String> messages) {
+        this.store = store;
+        this.source = source;
+        this.messages = messages;
+    }
+
+    /* Starts following on a background thread */
+    public void start() {
+        startTime = System.nanoTime();
+        sampledAt = startTime;
+        running = true;
+        thread = new Thread(this, "polygon-follower");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /* Stops following and waits for the thread to end; polygons already read are still added */
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(STOP_MILLIS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /* Returns true until following stops, whether stopped, at the end of standard input, or after an error */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /* Returns true if polygons have been added since the last call */
+    public boolean hasChanged() {
+        return changed.getAndSet(false);
+    }
+
+    /* Returns up to RECENT_LIMIT of the newest polygons added, oldest first */
+    public synchronized RegPolygon[] getRecent() {
+        int n = (int) Math.min(recentCount, RECENT_LIMIT);
+        RegPolygon[] polygons = new RegPolygon[n];
+        for (int i = 0; i < n; i++) {
+            polygons[i] = recent[(int) ((recentCount - n + i) % RECENT_LIMIT)];
+        }
+        return polygons;
+    }
+
+    /* Returns true if more than BEHIND_BYTES of input is waiting to be read */
+    public boolean isBehind() {
+        return backlogBytes > BEHIND_BYTES;
+    }
+
+    /* Returns the name of the source followed */
+    public String getSourceName() {
+        return source.equals(STANDARD_INPUT) ? "standard input" : source;
+    }
+
+    /*
+     * Returns a one line status: polygons added and the rate since the previous call, taken at least half a second
+     * apart, the average batch, the 99th percentile delay, and the unread backlog, marked when falling behind
+     */
+    public String getStatus() {
+        long now = System.nanoTime();
+        if (now - sampledAt >= 500_000_000L) {
+            long total = added;
+            addedPerSecond = (total - sampledAdded) * 1e9 / (now - sampledAt);
+            sampledAdded = total;
+            sampledAt = now;
+        }
+        long batchCount = batches;
+        return String.format("follow %d added %.0f/s, batch avg %d, delay p99 %.1fms, backlog %d KB%s", added,
+                addedPerSecond, batchCount == 0 ? 0 : (added + duplicates) / batchCount,
+                delays.getPercentile(0.99) / 1e6, backlogBytes / 1024, isBehind() ? " BEHIND" : "");
+    }
+
+    /* Returns a summary of the whole run, including the backpressure measures */
+    public String getReport() {
+        long end = stopTime == 0 ? System.nanoTime() : stopTime;
+        double seconds = (end - startTime) / 1e9;
+        return String.format("Follow of %s: %d records read (%d KB) in %.1f s, %d added, %d duplicate IDs skipped, " +
+                        "%d invalid; %d batches, %d at the %d limit; apply %s; read to stored %s; " +
+                        "most input waiting %d KB", getSourceName(), recordsRead, bytesRead / 1024, seconds, added,
+                duplicates, invalid, batches, fullBatches, MAX_BATCH, applyTimes.getSummary(), delays.getSummary(),
+                maxBacklogBytes / 1024);
+    }
+
+    /* Reads, validates and adds records until stopped or the input ends */
+    @Override
+    public void run() {
+        boolean standardInput = source.equals(STANDARD_INPUT);
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER);
+        byte[] data = buffer.array();
+        PolygonValidator validator = new PolygonValidator();
+        PolygonBatch batch = new PolygonBatch();
+        List<RegPolygon> pending = new ArrayList<>();
+        long pendingSince = 0;
+
+        // Lines before the start of the buffer, and whether the rest of an over-long line is being dropped
+        long linesBefore = 0;
+        boolean skipping = false;
+
+        try (ReadableByteChannel channel = standardInput ? Channels.newChannel(System.in) :
+                FileChannel.open(Paths.get(source), StandardOpenOption.READ)) {
+            while (running) {
+                int read = channel.read(buffer);
+                boolean atEnd = read == -1;
+                if (read > 0) {
+                    bytesRead += read;
+                }
+                int length = buffer.position();
+                int start = 0;
+
+                // Drops an over-long line up to its line break
+                if (skipping) {
+                    start = length;
+                    for (int i = 0; i < length; i++) {
+                        if (data[i] == '\n') {
+                            start = i + 1;
+                            linesBefore++;
+                            skipping = false;
+                            break;
+                        }
+                    }
+                }
+
+                // Validates every complete line; the last line of standard input needs no line break
+                int end = start;
+                for (int i = length - 1; i >= start; i--) {
+                    if (data[i] == '\n') {
+                        end = i + 1;
+                        break;
+                    }
+                }
+                if (atEnd && standardInput && !skipping) {
+                    end = length;
+                }
+                if (end > start) {
+                    batch.clear();
+                    validator.validateBatch(data, start, end, batch);
+                    recordsRead += batch.size();
+                    for (int r = 0; r < batch.size(); r++) {
+                        if (batch.getError(r) != PolygonValidator.VALID && ++invalid <= ERRORS_REPORTED) {
+                            messages.accept("Follow: line " + (linesBefore + batch.getLine(r)) + " skipped, " +
+                                    batch.describeFieldError(r) + (invalid == ERRORS_REPORTED ?
+                                    "; further invalid records are only counted" : ""));
+                        }
+                    }
+                    RegPolygon[] polygons = batch.toPolygons();
+                    if (pending.isEmpty() && polygons.length > 0) {
+                        pendingSince = System.nanoTime();
+                    }
+                    for (RegPolygon polygon : polygons) {
+                        pending.add(polygon);
+                    }
+                    for (int i = start; i < end; i++) {
+                        if (data[i] == '\n') {
+                            linesBefore++;
+                        }
+                    }
+                    start = end;
+                }
+
+                // Keeps a partial last line at the front of the buffer, or drops it if it fills the buffer
+                if (start > 0) {
+                    System.arraycopy(data, start, data, 0, length - start);
+                    buffer.position(length - start);
+                } else if (!buffer.hasRemaining()) {
+                    invalid++;
+                    messages.accept("Follow: line " + (linesBefore + 1) + " skipped, longer than " +
+                            READ_BUFFER / 1024 + " KB");
+                    buffer.clear();
+                    skipping = true;
+                }
+
+                // Measures the input still waiting, then applies the batch if it is due
+                long backlog = standardInput ? System.in.available() :
+                        ((FileChannel) channel).size() - ((FileChannel) channel).position();
+                backlogBytes = backlog;
+                maxBacklogBytes = Math.max(maxBacklogBytes, backlog);
+                if (!pending.isEmpty() && (pending.size() >= MAX_BATCH || backlog == 0 || atEnd ||
+                        System.nanoTime() - pendingSince >= MAX_BATCH_DELAY_NANOS)) {
+                    apply(pending, pendingSince);
+                }
+
+                if (atEnd) {
+                    if (standardInput) {
+                        break;
+                    }
+                    // Starts again from the beginning of a file that has been truncated
+                    FileChannel file = (FileChannel) channel;
+                    if (file.size() < file.position()) {
+                        file.position(0);
+                        buffer.clear();
+                        linesBefore = 0;
+                        skipping = false;
+                        messages.accept("Follow: " + source + " was truncated; following from its start");
+                    }
+                    Thread.sleep(POLL_MILLIS);
+                }
+            }
+        } catch (InterruptedException ex) {
+            // Stopped while waiting for more data
+        } catch (IOException ex) {
+            // Closing the channel is how an interrupted read ends, which is not an error
+            if (running) {
+                messages.accept("Error: follow of " + getSourceName() + " stopped - " + ex.getMessage());
+            }
+        } finally {
+            if (!pending.isEmpty()) {
+                apply(pending, pendingSince);
+            }
+            stopTime = System.nanoTime();
+            running = false;
+            changed.set(true);
+        }
+    }
+
+    // Adds the pending polygons to the store as one batch and clears them
+    private void apply(List<RegPolygon> pending, long pendingSince) {
+        RegPolygon[] polygons = pending.toArray(new RegPolygon[0]);
+        pending.clear();
+        long start = System.nanoTime();
+        int count = store.addAll(polygons);
+        long end = System.nanoTime();
+        applyTimes.record(end - start);
+        delays.record(end - pendingSince);
+
+        added += count;
+        duplicates += polygons.length - count;
+        batches++;
+        if (polygons.length >= MAX_BATCH) {
+            fullBatches++;
+        }
+        synchronized (this) {
+            for (int i = Math.max(0, polygons.length - RECENT_LIMIT); i < polygons.length; i++) {
+                recent[(int) (recentCount++ % RECENT_LIMIT)] = polygons[i];
+            }
+        }
+        changed.set(true);
+    }
+
+}
@@ -0,0 +1,116 @@
+import java.awt.Color;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * PolygonGenerator class creates large sets of random polygons for load testing and demonstrations
+ * IDs are drawn without repeats from the 6 digit IDs not already in use; the polygons are then built in parallel
+ * chunks, each with its own SplittableRandom split from the seed in a fixed order, so a seed always gives the same set
+ */
+public class PolygonGenerator {
+
+    // Number of polygons built by each parallel task
+    private static final int CHUNK_SIZE = 16384;
+
+    // Most sides a generated polygon may have, so a generated set stays quick to draw
+    public static final int MAX_SIDES = 1000;
+
+    // Colours used when generating from the palette
+    private static final Color[] PALETTE = {
+            Color.BLACK, Color.RED, Color.GREEN, Color.BLUE, Color.ORANGE, Color.MAGENTA,
+            Color.CYAN, Color.PINK, Color.YELLOW, Color.GRAY, Color.DARK_GRAY, new Color(128, 0, 128)
+    };
+
+    // Seed making the generated set repeatable
+    private final long seed;
+
+    // Inclusive range of side counts
+    private final int minSides;
+    private final int maxSides;
+
+    // Range of radii, from minRadius (inclusive) to maxRadius (exclusive)
+    private final double minRadius;
+    private final double maxRadius;
+
+    // Probability that a polygon is filled, between 0 and 1
+    private final double fillProbability;
+
+    // Colour for every polygon, or null to pick each colour from the palette
+    private final Color colour;
+
+    // Polygon centres are spread evenly over a square of this width around the scene origin
+    private final double sceneSize;
+
+    public PolygonGenerator(long seed, int minSides, int maxSides, double minRadius, double maxRadius,
+                            double fillProbability, Color colour, double sceneSize) {
+        this.seed = seed;
+        this.minSides = minSides;
+        this.maxSides = maxSides;
+        this.minRadius = minRadius;
+        this.maxRadius = maxRadius;
+        this.fillProbability = fillProbability;
+        this.colour = colour;
+        this.sceneSize = sceneSize;
+    }
+
+    /*
+     * Generates count polygons whose IDs are not in usedIds; count must not exceed the number of free IDs
+     * usedIds must be sorted in ascending order
+     */
+    public RegPolygon[] generate(int count, int[] usedIds) {
+
+        SplittableRandom root = new SplittableRandom(seed);
+
+        // Lists every free ID by walking the sorted used IDs alongside the whole ID space
+        int[] freeIds = new int[PolygonStore.ID_SPACE - usedIds.length];
+        int n = 0;
+        int u = 0;
+        for (int id = 0; id < PolygonStore.ID_SPACE; id++) {
+            if (u < usedIds.length && usedIds[u] == id) {
+                u++;
+            } else {
+                freeIds[n++] = id;
+            }
+        }
+
+        // Partial Fisher-Yates shuffle: the first count entries become a random choice of distinct free IDs
+        for (int i = 0; i < count; i++) {
+            int j = i + root.nextInt(freeIds.length - i);
+            int swap = freeIds[i];
+            freeIds[i] = freeIds[j];
+            freeIds[j] = swap;
+        }
+
+        // Splits one generator per chunk in order before going parallel, so results do not depend on scheduling
+        int chunks = (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        SplittableRandom[] chunkRandoms = new SplittableRandom[chunks];
+        for (int c = 0; c < chunks; c++) {
+            chunkRandoms[c] = root.split();
+        }
+
+        RegPolygon[] polygons = new RegPolygon[count];
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            SplittableRandom random = chunkRandoms[c];
+            int end = Math.min(count, (c + 1) * CHUNK_SIZE);
+            for (int i = c * CHUNK_SIZE; i < end; i++) {
+                polygons[i] = createPolygon(freeIds[i], random);
+            }
+        });
+
+        return polygons;
+    }
+
+    // Creates one polygon with the given ID and attributes drawn from the configured distributions
+    private RegPolygon createPolygon(int id, SplittableRandom random) {
+        int sides = random.nextInt(minSides, maxSides + 1);
+        double radius = minRadius < maxRadius ? random.nextDouble(minRadius, maxRadius) : minRadius;
+        double angle = random.nextDouble(2 * Math.PI);
+        boolean filled = random.nextDouble() < fillProbability;
+        Color polygonColour = colour != null ? colour : PALETTE[random.nextInt(PALETTE.length)];
+
+        RegPolygon polygon = new RegPolygon(sides, angle, radius, id, filled, polygonColour);
+        polygon.setScenePosition((random.nextDouble() - 0.5) * sceneSize, (random.nextDouble() - 0.5) * sceneSize);
+        return polygon;
+    }
+
+}
@@ -0,0 +1,211 @@
+import java.util.Arrays;
+
+/**
+ * PolygonMerger class joins a set of incoming polygons into an ID-sorted set in one linear pass over both
+ *
+ * The incoming polygons are put in ID order first, which costs a single check when they are already sorted, as a
+ * saved workspace is. The two sorted ID streams are then walked side by side: an ID found only in the incoming set is
+ * an addition, an ID found in both is a conflict, and an ID repeated within the incoming set keeps its first record.
+ * Conflicts are resolved in bulk by the chosen policy, so merging a million polygons into a million costs O(n + m)
+ * rather than a duplicate check and ID search per polygon.
+ */
+public class PolygonMerger {
+
+    // Conflict policies: keep the existing polygon, replace it with the incoming one, or give the incoming one a new ID
+    public static final int KEEP_LEFT = 0;
+    public static final int KEEP_RIGHT = 1;
+    public static final int RENUMBER = 2;
+
+    // Names of the policies, in the order above
+    private static final String[] POLICY_NAMES = {"keep existing", "keep incoming", "renumber incoming"};
+
+    // Words naming the policies in scripts, in the order above
+    private static final String[] POLICY_KEYWORDS = {"keep-existing", "keep-incoming", "renumber"};
+
+    /* Returns the name of a conflict policy */
+    public static String policyName(int policy) {
+        return POLICY_NAMES[policy];
+    }
+
+    /* Returns the word naming a conflict policy in scripts, such as "keep-existing" */
+    public static String policyKeyword(int policy) {
+        return POLICY_KEYWORDS[policy];
+    }
+
+    /* Returns the policy named by a script word, or -1 if the word names none */
+    public static int parsePolicy(String keyword) {
+        return Arrays.asList(POLICY_KEYWORDS).indexOf(keyword);
+    }
+
+    /*
+     * Returns the polygons in ascending ID order, keeping the input order of equal IDs
+     * Input that is already sorted is returned as a copy after one pass; otherwise IDs and positions are sorted as
+     * primitive keys
+     */
+    public static RegPolygon[] sortById(RegPolygon[] polygons) {
+        int n = polygons.length;
+        boolean sorted = true;
+        for (int i = 1; i < n && sorted; i++) {
+            sorted = polygons[i - 1].getID() <= polygons[i].getID();
+        }
+        if (sorted) {
+            return polygons.clone();
+        }
+
+        // Keys hold the ID in the high bits and the input position in the low bits
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = ((long) polygons[i].getID() << 32) | i;
+        }
+        Arrays.parallelSort(keys);
+        RegPolygon[] result = new RegPolygon[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = polygons[(int) keys[i]];
+        }
+        return result;
+    }
+
+    /*
+     * Merges ID-sorted incoming polygons into the first leftSize entries of an ID-sorted set
+     * Walks both ID streams once; the result lists the additions, and each conflict with the existing polygon and the
+     * incoming one, for the store to apply with the chosen policy
+     */
+    public static Result merge(int[] leftIds, RegPolygon[] left, int leftSize, RegPolygon[] right) {
+        int n = right.length;
+        RegPolygon[] added = new RegPolygon[n];
+        RegPolygon[] existing = new RegPolygon[n];
+        RegPolygon[] incoming = new RegPolygon[n];
+        int addedCount = 0;
+        int conflictCount = 0;
+        int repeated = 0;
+
+        int i = 0;
+        int previousId = -1;
+        for (int j = 0; j < n; j++) {
+            RegPolygon polygon = right[j];
+            int id = polygon.getID();
+
+            // Only the first incoming record of an ID takes part in the merge
+            if (id == previousId) {
+                repeated++;
+                continue;
+            }
+            previousId = id;
+
+            // Advances the existing stream past every smaller ID
+            while (i < leftSize && leftIds[i] < id) {
+                i++;
+            }
+            if (i < leftSize && leftIds[i] == id) {
+                existing[conflictCount] = left[i];
+                incoming[conflictCount++] = polygon;
+            } else {
+                added[addedCount++] = polygon;
+            }
+        }
+
+        return new Result(Arrays.copyOf(added, addedCount), Arrays.copyOf(existing, conflictCount),
+                Arrays.copyOf(incoming, conflictCount), repeated);
+    }
+
+    /**
+     * Result class holds the outcome of a merge: the polygons added, the conflicts and how they were resolved
+     * The store fills in the renumbered IDs and the polygons it could not add
+     */
+    public static final class Result {
+
+        // Incoming polygons whose IDs were new, in ID order
+        private final RegPolygon[] added;
+
+        // For each conflict in ID order, the polygon already held and the incoming polygon with the same ID
+        private final RegPolygon[] existing;
+        private final RegPolygon[] incoming;
+
+        // Incoming records dropped because an earlier incoming record had the same ID
+        private final int repeated;
+
+        // Policy applied to the conflicts, and the new polygon given to each conflict when renumbering
+        private int policy = KEEP_LEFT;
+        private RegPolygon[] renumbered = new RegPolygon[0];
+
+        // Polygons put in the store by the merge, counting renumbered ones, and those that could not be added
+        // because their ID was taken while the merge ran or no free ID was left
+        private int stored;
+        private int skipped;
+
+        private Result(RegPolygon[] added, RegPolygon[] existing, RegPolygon[] incoming, int repeated) {
+            this.added = added;
+            this.existing = existing;
+            this.incoming = incoming;
+            this.repeated = repeated;
+        }
+
+        /* Gets the incoming polygons whose IDs were new, in ID order */
+        public RegPolygon[] getAdded() {
+            return added;
+        }
+
+        /* Gets the number of IDs held by both sets */
+        public int getConflictCount() {
+            return existing.length;
+        }
+
+        /* Gets the polygon already held for a conflict */
+        public RegPolygon getExisting(int conflict) {
+            return existing[conflict];
+        }
+
+        /* Gets the incoming polygon for a conflict */
+        public RegPolygon getIncoming(int conflict) {
+            return incoming[conflict];
+        }
+
+        /* Gets the polygon added in place of a conflict's incoming polygon when renumbering, or null if none was */
+        public RegPolygon getRenumbered(int conflict) {
+            return conflict < renumbered.length ? renumbered[conflict] : null;
+        }
+
+        /* Gets the number of incoming records dropped because their ID was repeated within the incoming set */
+        public int getRepeated() {
+            return repeated;
+        }
+
+        /* Gets the number of polygons put in the store by the merge, including renumbered ones */
+        public int getStoredCount() {
+            return stored;
+        }
+
+        /* Gets the number of polygons that could not be added */
+        public int getSkipped() {
+            return skipped;
+        }
+
+        /* Gets the policy applied to the conflicts */
+        public int getPolicy() {
+            return policy;
+        }
+
+        /* Returns one line describing the merge, such as "1000 added, 12 conflicts (keep existing), 1 repeated" */
+        public String describe() {
+            String text = stored + " added, " + existing.length +
+                    (existing.length == 1 ? " conflict (" : " conflicts (") + policyName(policy) + ")";
+            if (repeated > 0) {
+                text += ", " + repeated + " repeated in the incoming set";
+            }
+            if (skipped > 0) {
+                text += ", " + skipped + " skipped";
+            }
+            return text;
+        }
+
+        // Records the policy applied, the polygons that replaced conflicts when renumbering and the counts stored and
+        // skipped
+        void resolved(int policy, RegPolygon[] renumbered, int stored, int skipped) {
+            this.policy = policy;
+            this.renumbered = renumbered;
+            this.stored = stored;
+            this.skipped = skipped;
+        }
+    }
+
+}
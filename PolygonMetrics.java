@@ -0,0 +1,209 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+/**
+ * PolygonMetrics class computes area and perimeter totals over a store snapshot
+ * Each polygon's metrics have closed forms (see RegPolygon.getArea), so a summary is a single pass over the slots,
+ * split into chunks summed in parallel and merged in order, so results do not depend on the thread count. A summary
+ * can be brought up to date from an earlier one of the same snapshot epoch by adding only the slots filled since; the
+ * totals do not depend on colour, so a recolour, which keeps the epoch, leaves them valid.
+ */
+public class PolygonMetrics {
+
+    // Polygons summed by each parallel task
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    // Side counts below this are tallied in arrays; larger ones, which only come from typed input, in a map
+    private static final int DIRECT_SIDES = 1024;
+
+    /*
+     * Summarises the polygons in a snapshot
+     * If an earlier summary of the same store and epoch is given, only the slots added since it was made are visited
+     */
+    public static Summary summarise(PolygonStore.Snapshot snapshot, Summary previous) {
+        boolean extend = previous != null && previous.epoch == snapshot.getEpoch() && previous.count <= snapshot.size();
+        int from = extend ? previous.count : 0;
+        int to = snapshot.size();
+        int chunks = (to - from + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+        Summary[] parts = IntStream.range(0, chunks).parallel()
+                .mapToObj(c -> summariseSlots(snapshot, from + c * CHUNK_SIZE,
+                        Math.min(to, from + (c + 1) * CHUNK_SIZE)))
+                .toArray(Summary[]::new);
+
+        Summary result = extend ? previous : new Summary();
+        for (Summary part : parts) {
+            result = result.merge(part);
+        }
+        return result;
+    }
+
+    // Sums the polygons in slots from up to to with primitive loops
+    private static Summary summariseSlots(PolygonStore.Snapshot snapshot, int from, int to) {
+        long[] directCounts = new long[DIRECT_SIDES];
+        double[] directAreas = new double[DIRECT_SIDES];
+        HashMap<Integer, double[]> otherSides = new HashMap<>();
+        double totalArea = 0;
+        double totalPerimeter = 0;
+        RegPolygon largest = null;
+        double largestArea = -1;
+
+        for (int slot = from; slot < to; slot++) {
+            RegPolygon p = snapshot.getBySlot(slot);
+            double area = p.getArea();
+            totalArea += area;
+            totalPerimeter += p.getPerimeter();
+            if (area > largestArea) {
+                largestArea = area;
+                largest = p;
+            }
+            int sides = p.getSides();
+            if (sides < DIRECT_SIDES) {
+                directCounts[sides]++;
+                directAreas[sides] += area;
+            } else {
+                double[] tally = otherSides.computeIfAbsent(sides, s -> new double[2]);
+                tally[0]++;
+                tally[1] += area;
+            }
+        }
+
+        // Collects the side counts present, in ascending order
+        TreeMap<Integer, double[]> bySides = new TreeMap<>(otherSides);
+        for (int s = 0; s < DIRECT_SIDES; s++) {
+            if (directCounts[s] > 0) {
+                bySides.put(s, new double[]{directCounts[s], directAreas[s]});
+            }
+        }
+        int[] sides = new int[bySides.size()];
+        long[] counts = new long[sides.length];
+        double[] areas = new double[sides.length];
+        int i = 0;
+        for (Map.Entry<Integer, double[]> entry : bySides.entrySet()) {
+            sides[i] = entry.getKey();
+            counts[i] = (long) entry.getValue()[0];
+            areas[i] = entry.getValue()[1];
+            i++;
+        }
+        return new Summary(snapshot.getEpoch(), to - from, totalArea, totalPerimeter, largest, largestArea, sides,
+                counts, areas);
+    }
+
+    /**
+     * Summary class is an immutable set of totals over some polygons
+     */
+    public static final class Summary {
+
+        // Epoch of the snapshot summarised, or 0 for no polygons
+        private final long epoch;
+
+        // Number of polygons and their total area and perimeter
+        private final int count;
+        private final double totalArea;
+        private final double totalPerimeter;
+
+        // Polygon with the largest area, the first one added on ties, and its area; null and -1 if there are none
+        private final RegPolygon largest;
+        private final double largestArea;
+
+        // Side counts present in ascending order, with the number of polygons and total area for each
+        private final int[] sides;
+        private final long[] countBySides;
+        private final double[] areaBySides;
+
+        // Creates a summary of no polygons
+        private Summary() {
+            this(0, 0, 0, 0, null, -1, new int[0], new long[0], new double[0]);
+        }
+
+        private Summary(long epoch, int count, double totalArea, double totalPerimeter, RegPolygon largest,
+                        double largestArea, int[] sides, long[] countBySides, double[] areaBySides) {
+            this.epoch = epoch;
+            this.count = count;
+            this.totalArea = totalArea;
+            this.totalPerimeter = totalPerimeter;
+            this.largest = largest;
+            this.largestArea = largestArea;
+            this.sides = sides;
+            this.countBySides = countBySides;
+            this.areaBySides = areaBySides;
+        }
+
+        // Returns the combined summary of this one's polygons followed by the other's
+        private Summary merge(Summary other) {
+            // Merges the two ascending side count lists
+            int[] mergedSides = new int[sides.length + other.sides.length];
+            long[] mergedCounts = new long[mergedSides.length];
+            double[] mergedAreas = new double[mergedSides.length];
+            int i = 0;
+            int j = 0;
+            int n = 0;
+            while (i < sides.length || j < other.sides.length) {
+                if (j == other.sides.length || (i < sides.length && sides[i] < other.sides[j])) {
+                    mergedSides[n] = sides[i];
+                    mergedCounts[n] = countBySides[i];
+                    mergedAreas[n++] = areaBySides[i++];
+                } else if (i == sides.length || other.sides[j] < sides[i]) {
+                    mergedSides[n] = other.sides[j];
+                    mergedCounts[n] = other.countBySides[j];
+                    mergedAreas[n++] = other.areaBySides[j++];
+                } else {
+                    mergedSides[n] = sides[i];
+                    mergedCounts[n] = countBySides[i] + other.countBySides[j];
+                    mergedAreas[n++] = areaBySides[i++] + other.areaBySides[j++];
+                }
+            }
+
+            boolean otherLarger = other.largestArea > largestArea;
+            return new Summary(other.epoch, count + other.count, totalArea + other.totalArea,
+                    totalPerimeter + other.totalPerimeter, otherLarger ? other.largest : largest,
+                    otherLarger ? other.largestArea : largestArea, Arrays.copyOf(mergedSides, n),
+                    Arrays.copyOf(mergedCounts, n), Arrays.copyOf(mergedAreas, n));
+        }
+
+        /* Gets the number of polygons summarised */
+        public int getCount() {
+            return count;
+        }
+
+        /* Gets the total area of the polygons */
+        public double getTotalArea() {
+            return totalArea;
+        }
+
+        /* Gets the total perimeter of the polygons */
+        public double getTotalPerimeter() {
+            return totalPerimeter;
+        }
+
+        /* Gets the polygon with the largest area, or null if there are none */
+        public RegPolygon getLargest() {
+            return largest;
+        }
+
+        /* Returns one line of totals, such as "Total area 1.20e+06, perimeter 3.40e+05, largest 123456 (2.1e+03)" */
+        public String describeTotals() {
+            String text = String.format("Total area %.4g, perimeter %.4g", totalArea, totalPerimeter);
+            if (largest != null) {
+                text += String.format(", largest %s (area %.4g)", largest.getFormattedId(largest.getID()),
+                        largestArea);
+            }
+            return text;
+        }
+
+        /* Returns one line of area by side count, such as "Area by sides: 3: 1.2e+03 (40), 4: 2.2e+03 (38)" */
+        public String describeBySides() {
+            StringBuilder text = new StringBuilder("Area by sides:");
+            for (int i = 0; i < sides.length; i++) {
+                text.append(i == 0 ? " " : ", ").append(sides[i]).append(": ")
+                        .append(String.format("%.4g", areaBySides[i])).append(" (").append(countBySides[i])
+                        .append(')');
+            }
+            return text.toString();
+        }
+    }
+
+}
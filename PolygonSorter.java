@@ -0,0 +1,196 @@
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * PolygonSorter class orders polygons by any combination of attributes, such as sides then radius descending
+ *
+ * Each attribute is first copied into a primitive array, in parallel. The order is then built as a permutation of
+ * positions by stable least-significant-key-first passes: every pass packs one 32 bit digit of a key with the current
+ * position into a long, sorts the longs with Arrays.parallelSort and reads the new permutation from the low bits, so
+ * ties keep the order of the previous pass. Integer keys take one pass and floating point keys two, one for each half
+ * of their sortable 64 bit form, so doubles are ordered exactly. Polygons equal on every key keep their input order.
+ */
+public class PolygonSorter {
+
+    // Attributes that can be sorted on
+    public static final int ID = 0;
+    public static final int SIDES = 1;
+    public static final int RADIUS = 2;
+    public static final int AREA = 3;
+    public static final int PERIMETER = 4;
+    public static final int COLOUR = 5;
+    public static final int FILL = 6;
+
+    // Names of the attributes in sort commands, in the order above
+    private static final String[] NAMES = {"id", "sides", "radius", "area", "perimeter", "colour", "fill"};
+
+    /* Returns the sort command names of the attributes, separated by commas */
+    public static String getKeyNames() {
+        return String.join(", ", NAMES);
+    }
+
+    /*
+     * Parses a comma separated list of attribute names, most significant first, each optionally preceded by - for
+     * descending order, such as "sides,-radius"; "color" is accepted for colour
+     * IDs are unique, so keys after id can never break a tie and are dropped
+     * Throws IllegalArgumentException naming the attributes if a name is unknown or the list is empty
+     */
+    public static Key[] parseKeys(String text) {
+        String[] parts = text.split(",");
+        if (parts.length == 0) {
+            throw new IllegalArgumentException("No sort keys given; sort keys are " + getKeyNames() +
+                    ", with - before a key for descending order");
+        }
+        Key[] keys = new Key[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            String part = parts[i].trim().toLowerCase();
+            boolean descending = part.startsWith("-");
+            String name = descending ? part.substring(1).trim() : part;
+            int attribute = Arrays.asList(NAMES).indexOf(name.equals("color") ? "colour" : name);
+            if (attribute == -1) {
+                throw new IllegalArgumentException("Unknown sort key \"" + parts[i].trim() + "\"; sort keys are " +
+                        getKeyNames() + ", with - before a key for descending order");
+            }
+            keys[i] = new Key(attribute, descending);
+        }
+        return significantKeys(keys);
+    }
+
+    /*
+     * Returns the polygons ordered by the keys, most significant first, ties keeping their input order; the input
+     * array is left unchanged
+     */
+    public static RegPolygon[] sort(RegPolygon[] polygons, Key[] keys) {
+        int n = polygons.length;
+        int[] permutation = IntStream.range(0, n).toArray();
+        long[] packed = new long[n];
+        keys = significantKeys(keys);
+
+        // Applies the least significant key first; an ascending id key can only be last, and needs no pass if the
+        // input is already in ID order, as the store's index is
+        int last = keys.length - 1;
+        if (last >= 0 && keys[last].isAscendingId() && isInIdOrder(polygons)) {
+            last--;
+        }
+        for (int k = last; k >= 0; k--) {
+            permutation = pass(polygons, keys[k], permutation, packed);
+        }
+
+        RegPolygon[] sorted = new RegPolygon[n];
+        int[] order = permutation;
+        IntStream.range(0, n).parallel().forEach(i -> sorted[i] = polygons[order[i]]);
+        return sorted;
+    }
+
+    /* Returns a description of the keys, such as "sides, radius descending" */
+    public static String describe(Key[] keys) {
+        StringBuilder text = new StringBuilder();
+        for (Key key : keys) {
+            if (text.length() > 0) {
+                text.append(", ");
+            }
+            text.append(NAMES[key.attribute]).append(key.descending ? " descending" : "");
+        }
+        return text.toString();
+    }
+
+    // Returns the keys up to and including the first id key, since IDs are unique and no later key can break a tie
+    private static Key[] significantKeys(Key[] keys) {
+        for (int k = 0; k < keys.length; k++) {
+            if (keys[k].attribute == ID) {
+                return Arrays.copyOf(keys, k + 1);
+            }
+        }
+        return keys;
+    }
+
+    // Returns true if the polygons are in ascending ID order
+    private static boolean isInIdOrder(RegPolygon[] polygons) {
+        for (int i = 1; i < polygons.length; i++) {
+            if (polygons[i - 1].getID() > polygons[i].getID()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Reorders the permutation stably by one key, in one pass per 32 bit digit, least significant digit first
+    private static int[] pass(RegPolygon[] polygons, Key key, int[] permutation, long[] packed) {
+        int n = polygons.length;
+        boolean wide = key.attribute == RADIUS || key.attribute == AREA || key.attribute == PERIMETER;
+
+        // Copies the key of each polygon into a primitive array, as a signed value ordered like the attribute
+        long[] values = new long[n];
+        IntStream.range(0, n).parallel().forEach(i -> values[i] = sortableValue(polygons[i], key.attribute));
+
+        for (int digit = wide ? 0 : 1; digit < 2; digit++) {
+            int shift = digit == 0 ? 0 : 32;
+            boolean low = wide && digit == 0;
+            int[] current = permutation;
+            IntStream.range(0, n).parallel().forEach(k -> {
+                long value = values[current[k]];
+                // The low digit is unsigned, so flipping its top bit orders it correctly as a signed int
+                int d = low ? (int) value ^ Integer.MIN_VALUE : (int) (value >> shift);
+                if (key.descending) {
+                    d = ~d;
+                }
+                packed[k] = ((long) d << 32) | k;
+            });
+            Arrays.parallelSort(packed);
+            int[] next = new int[n];
+            IntStream.range(0, n).parallel().forEach(k -> next[k] = current[(int) packed[k]]);
+            permutation = next;
+        }
+        return permutation;
+    }
+
+    /*
+     * Returns a polygon's attribute as a long ordered the same way: integer attributes fit in the upper half, and
+     * doubles use their bit pattern with the other bits flipped for negative values, which orders them as signed longs
+     */
+    private static long sortableValue(RegPolygon polygon, int attribute) {
+        double value;
+        switch (attribute) {
+            case ID:
+                return (long) polygon.getID() << 32;
+            case SIDES:
+                return (long) polygon.getSides() << 32;
+            case COLOUR:
+                return (long) (polygon.getColor().getRGB() & 0xFFFFFF) << 32;
+            case FILL:
+                return (long) (polygon.isFilled() ? 1 : 0) << 32;
+            case RADIUS:
+                value = polygon.getRadius();
+                break;
+            case AREA:
+                value = polygon.getArea();
+                break;
+            default:
+                value = polygon.getPerimeter();
+                break;
+        }
+        long bits = Double.doubleToLongBits(value + 0.0);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    /**
+     * Key class is one attribute to sort on and its direction
+     */
+    public static final class Key {
+
+        // Attribute, one of the constants above, and whether it is sorted largest first
+        private final int attribute;
+        private final boolean descending;
+
+        public Key(int attribute, boolean descending) {
+            this.attribute = attribute;
+            this.descending = descending;
+        }
+
+        /* Returns true if this key is ID in ascending order, the order of the store's ID index */
+        public boolean isAscendingId() {
+            return attribute == ID && !descending;
+        }
+    }
+
+}
@@ -0,0 +1,808 @@
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * PolygonStore class holds all created polygons and is safe to use from any thread
+ *
+ * Readers work on an immutable Snapshot: the polygons in display order, a sorted ID index for single ID, range and
+ * prefix queries, and secondary indexes (compressed bitmaps of slots per side count, colour and fill, plus a sorted
+ * radius index) for filters. Taking a snapshot is a single volatile read, so readers never block or see a partial add.
+ *
+ * Writers reserve their ID in a lock-free bitset of all 6 digit IDs and append to a lock-free staging queue. One
+ * writer at a time then merges everything staged into a new snapshot; writers arriving during a merge find their
+ * polygons already included, so concurrent adds are committed in groups rather than one full copy each.
+ *
+ * Polygons are only ever added, except that a merge keeping incoming polygons replaces the ones with the same IDs;
+ * that publishes a snapshot with a new epoch, so readers that build on earlier snapshots know to start over. A
+ * recolour also replaces polygons, but with copies differing only in colour, in their own slots and colour bitmaps,
+ * so it keeps the epoch and leaves every other index shared.
+ */
+public class PolygonStore {
+
+    // Estimated heap bytes of one polygon object and its colour reference, before its vertex arrays are created
+    private static final int POLYGON_BYTES = 96;
+
+    // Number of possible 6 digit IDs (000000 to 999999)
+    public static final int ID_SPACE = 1_000_000;
+
+    // One bit per possible ID, set once the ID is taken; reserving an ID is a single compare and set
+    private final AtomicLongArray usedIds = new AtomicLongArray((ID_SPACE + 63) / 64);
+
+    // Polygons whose IDs are reserved but which are not yet in a snapshot
+    private final ConcurrentLinkedQueue<RegPolygon> staged = new ConcurrentLinkedQueue<>();
+
+    // Held while staged polygons are merged into a new snapshot, or the display order is replaced
+    private final ReentrantLock publishLock = new ReentrantLock();
+
+    // Latest published snapshot
+    private volatile Snapshot current = new Snapshot();
+
+    /* Returns the latest consistent, immutable view of the store */
+    public Snapshot snapshot() {
+        return current;
+    }
+
+    /*
+     * Adds a polygon to the store and publishes it before returning
+     * Returns false, without adding, if a polygon with the same ID is already in the store
+     */
+    public boolean add(RegPolygon polygon) {
+        if (!reserve(polygon.getID())) {
+            return false;
+        }
+        staged.add(polygon);
+        publish();
+        return true;
+    }
+
+    /*
+     * Adds a batch of polygons and publishes them before returning, in one merge of O(m log m + n)
+     * Polygons whose ID is already in the store, or repeated earlier in the batch, are skipped
+     * Returns the number of polygons added
+     */
+    public int addAll(RegPolygon[] batch) {
+        int added = 0;
+        for (RegPolygon polygon : batch) {
+            if (reserve(polygon.getID())) {
+                staged.add(polygon);
+                added++;
+            }
+        }
+        if (added > 0) {
+            publish();
+        }
+        return added;
+    }
+
+    /*
+     * Merges incoming polygons into the store and publishes the result before returning
+     * The incoming polygons are sorted by ID unless they already are, then joined with the ID index in one linear
+     * pass (see PolygonMerger); IDs held by both are resolved by the policy: PolygonMerger.KEEP_LEFT leaves the
+     * existing polygon, KEEP_RIGHT replaces it in place in the display order, and RENUMBER adds a copy of the
+     * incoming polygon under the lowest free ID
+     */
+    public PolygonMerger.Result merge(RegPolygon[] incoming, int policy) {
+        RegPolygon[] sorted = PolygonMerger.sortById(incoming);
+        publishLock.lock();
+        try {
+            mergeStaged();
+            Snapshot s = current;
+            PolygonMerger.Result result = PolygonMerger.merge(s.sortedIds, s.sortedPolygons, s.size, sorted);
+
+            // Reserves the new IDs; one reserved by an add still in progress is skipped
+            RegPolygon[] added = result.getAdded();
+            ArrayList<RegPolygon> batch = new ArrayList<>(added.length);
+            int skipped = 0;
+            for (RegPolygon polygon : added) {
+                if (reserve(polygon.getID())) {
+                    batch.add(polygon);
+                } else {
+                    skipped++;
+                }
+            }
+
+            // Copies each conflicting incoming polygon under the next free ID, scanning the ID bitset once
+            int conflicts = result.getConflictCount();
+            RegPolygon[] renumbered = new RegPolygon[0];
+            if (policy == PolygonMerger.RENUMBER) {
+                renumbered = new RegPolygon[conflicts];
+                int id = 0;
+                for (int c = 0; c < conflicts; c++) {
+                    id = reserveFree(id);
+                    if (id < 0) {
+                        skipped += conflicts - c;
+                        break;
+                    }
+                    RegPolygon polygon = result.getIncoming(c);
+                    RegPolygon copy = new RegPolygon(polygon.getSides(), polygon.getStartingAngle(),
+                            polygon.getRadius(), id, polygon.isFilled(), polygon.getColor());
+                    copy.setScenePosition(polygon.getSceneX(), polygon.getSceneY());
+                    renumbered[c] = copy;
+                    batch.add(copy);
+                }
+            }
+
+            // Replacing polygons changes existing slots, so the indexes are rebuilt under a new epoch
+            Snapshot next = s;
+            if (policy == PolygonMerger.KEEP_RIGHT && conflicts > 0) {
+                IdentityHashMap<RegPolygon, RegPolygon> replacements = new IdentityHashMap<>(conflicts);
+                for (int c = 0; c < conflicts; c++) {
+                    replacements.put(result.getExisting(c), result.getIncoming(c));
+                }
+                RegPolygon[] order = Arrays.copyOf(s.displayOrder, s.size);
+                for (int k = 0; k < order.length; k++) {
+                    order[k] = replacements.getOrDefault(order[k], order[k]);
+                }
+                next = new Snapshot().withAdded(order);
+            }
+            if (!batch.isEmpty()) {
+                next = next.withAdded(batch.toArray(new RegPolygon[0]));
+            }
+            current = next;
+
+            result.resolved(policy, renumbered, batch.size(), skipped);
+            return result;
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    /*
+     * Replaces the polygons with the given IDs by copies in another colour and publishes them before returning
+     * Each copy takes its polygon's slot and place in the display order, and only the bitmaps of the old and new
+     * colours are rebuilt; IDs no longer in the store are skipped. Returns the polygons now in the store
+     */
+    public RegPolygon[] recolour(RegPolygon[] polygons, Color colour) {
+        publishLock.lock();
+        try {
+            mergeStaged();
+            Snapshot s = current;
+            IdentityHashMap<RegPolygon, RegPolygon> replacements = new IdentityHashMap<>(polygons.length);
+            ArrayList<RegPolygon> result = new ArrayList<>(polygons.length);
+            for (RegPolygon polygon : polygons) {
+                RegPolygon existing = s.findById(polygon.getID());
+                if (existing == null || replacements.containsKey(existing)) {
+                    continue;
+                }
+                RegPolygon copy = existing;
+                if (!existing.getColor().equals(colour)) {
+                    copy = new RegPolygon(existing.getSides(), existing.getStartingAngle(), existing.getRadius(),
+                            existing.getID(), existing.isFilled(), colour);
+                    copy.setScenePosition(existing.getSceneX(), existing.getSceneY());
+                }
+                replacements.put(existing, copy);
+                result.add(copy);
+            }
+            current = s.withRecoloured(replacements, colour);
+            return result.toArray(new RegPolygon[0]);
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    /* Reorders the display order by ID, as the Sort command does */
+    public void sortById() {
+        publishLock.lock();
+        try {
+            mergeStaged();
+            Snapshot s = current;
+            current = s.withDisplayOrder(Arrays.copyOf(s.sortedPolygons, s.size));
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    /*
+     * Reorders the display order by the keys, most significant first, ties in ID order
+     * The sort runs on a snapshot's ID index without holding the lock, so adds are not held up by a long sort; if a
+     * write is published meanwhile the sort is repeated on the newer snapshot
+     */
+    public void sortBy(PolygonSorter.Key[] keys) {
+        if (keys.length == 1 && keys[0].isAscendingId()) {
+            sortById();
+            return;
+        }
+        while (true) {
+            Snapshot s = snapshot();
+            RegPolygon[] order = PolygonSorter.sort(Arrays.copyOf(s.sortedPolygons, s.size), keys);
+            publishLock.lock();
+            try {
+                mergeStaged();
+                if (current == s) {
+                    current = s.withDisplayOrder(order);
+                    return;
+                }
+            } finally {
+                publishLock.unlock();
+            }
+        }
+    }
+
+    /* Returns true if a polygon with the given ID is in the store, or is being added */
+    public boolean containsId(int id) {
+        return id >= 0 && id < ID_SPACE && (usedIds.get(id >>> 6) & (1L << id)) != 0;
+    }
+
+    /* Returns the polygon with the given ID, or null if there is none */
+    public RegPolygon findById(int id) {
+        return current.findById(id);
+    }
+
+    /* Returns the polygons with IDs between fromId and toId (both inclusive), in ascending ID order */
+    public RegPolygon[] findRange(int fromId, int toId) {
+        return current.findRange(fromId, toId);
+    }
+
+    /* Returns the polygons matching every given criterion; see Snapshot.filter */
+    public RegPolygon[] filter(int sides, Color colour, Boolean filled, double minRadius, double maxRadius) {
+        return current.filter(sides, colour, filled, minRadius, maxRadius);
+    }
+
+    /* Returns a copy of all polygon IDs in ascending order */
+    public int[] getSortedIds() {
+        return current.getSortedIds();
+    }
+
+    /* Returns the number of polygons in the store */
+    public int size() {
+        return current.size;
+    }
+
+    /* Retrieves a read-only list of the polygons in display order, as of the latest snapshot */
+    public List<RegPolygon> getPolygonList() {
+        return current.getPolygonList();
+    }
+
+    // Marks an ID as used, returning false if it already was
+    private boolean reserve(int id) {
+        if (id < 0 || id >= ID_SPACE) {
+            throw new IllegalArgumentException("Polygon ID must be 6 digits: " + id);
+        }
+        int word = id >>> 6;
+        long bit = 1L << id;
+        while (true) {
+            long bits = usedIds.get(word);
+            if ((bits & bit) != 0) {
+                return false;
+            }
+            if (usedIds.compareAndSet(word, bits, bits | bit)) {
+                return true;
+            }
+        }
+    }
+
+    // Reserves the lowest free ID not below from and returns it, or -1 if every such ID is taken
+    private int reserveFree(int from) {
+        for (int word = from >>> 6; word < usedIds.length(); word++) {
+            long bits = usedIds.get(word);
+            // Ignores IDs below from in the first word
+            long free = ~bits & (word == from >>> 6 ? -1L << from : -1L);
+            while (free != 0) {
+                int id = (word << 6) + Long.numberOfTrailingZeros(free);
+                if (id >= ID_SPACE) {
+                    return -1;
+                }
+                if (reserve(id)) {
+                    return id;
+                }
+                free &= free - 1;
+            }
+        }
+        return -1;
+    }
+
+    // Merges all staged polygons into a new snapshot; a writer that waited finds its polygons already merged
+    private void publish() {
+        publishLock.lock();
+        try {
+            mergeStaged();
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    // Drains the staging queue into a new snapshot; must hold publishLock
+    private void mergeStaged() {
+        ArrayList<RegPolygon> batch = new ArrayList<>();
+        RegPolygon polygon;
+        while ((polygon = staged.poll()) != null) {
+            batch.add(polygon);
+        }
+        if (!batch.isEmpty()) {
+            current = current.withAdded(batch.toArray(new RegPolygon[0]));
+        }
+    }
+
+    /**
+     * Snapshot class is an immutable view of the store at one moment; every query on it sees the same polygons
+     * Successive snapshots share whatever did not change: the slot array, untouched bitmaps and the completed chunks
+     * of touched bitmaps
+     * Snapshots with the same epoch hold a polygon with the same ID and shape in every slot both have filled; only a
+     * recolour swaps one for a copy in another colour
+     */
+    public static final class Snapshot {
+
+        // Source of epochs; each empty snapshot starts a new one, which the snapshots built from it share
+        private static final AtomicLong EPOCHS = new AtomicLong();
+
+        // Epoch of this snapshot
+        private final long epoch;
+
+        // Number of polygons in the snapshot
+        private final int size;
+
+        // Polygons in display order
+        private final RegPolygon[] displayOrder;
+
+        // Polygon IDs in ascending order, with the polygon for each ID at the same position in sortedPolygons
+        private final int[] sortedIds;
+        private final RegPolygon[] sortedPolygons;
+
+        // Polygons by slot number, the order in which they were added; shared with later snapshots, which only
+        // write beyond this snapshot's size
+        private final RegPolygon[] slots;
+
+        // Bitmaps of slots for each side count and each colour (keyed by RGB value)
+        private final HashMap<Integer, PolygonBitmap> sidesIndex;
+        private final HashMap<Integer, PolygonBitmap> colourIndex;
+
+        // Bitmaps of slots for filled and unfilled polygons
+        private final PolygonBitmap filledIndex;
+        private final PolygonBitmap unfilledIndex;
+
+        // Polygon radii in ascending order, with the slot for each radius at the same position in radiusSlots
+        private final double[] sortedRadii;
+        private final int[] radiusSlots;
+
+        // Creates an empty snapshot
+        private Snapshot() {
+            this(EPOCHS.incrementAndGet(), 0, new RegPolygon[0], new int[0], new RegPolygon[0], new RegPolygon[16],
+                    new HashMap<>(), new HashMap<>(), new PolygonBitmap(), new PolygonBitmap(), new double[0],
+                    new int[0]);
+        }
+
+        private Snapshot(long epoch, int size, RegPolygon[] displayOrder, int[] sortedIds, RegPolygon[] sortedPolygons,
+                         RegPolygon[] slots, HashMap<Integer, PolygonBitmap> sidesIndex,
+                         HashMap<Integer, PolygonBitmap> colourIndex, PolygonBitmap filledIndex,
+                         PolygonBitmap unfilledIndex, double[] sortedRadii, int[] radiusSlots) {
+            this.epoch = epoch;
+            this.size = size;
+            this.displayOrder = displayOrder;
+            this.sortedIds = sortedIds;
+            this.sortedPolygons = sortedPolygons;
+            this.slots = slots;
+            this.sidesIndex = sidesIndex;
+            this.colourIndex = colourIndex;
+            this.filledIndex = filledIndex;
+            this.unfilledIndex = unfilledIndex;
+            this.sortedRadii = sortedRadii;
+            this.radiusSlots = radiusSlots;
+        }
+
+        // Returns a copy of this snapshot with a different display order
+        private Snapshot withDisplayOrder(RegPolygon[] order) {
+            return new Snapshot(epoch, size, order, sortedIds, sortedPolygons, slots, sidesIndex, colourIndex,
+                    filledIndex, unfilledIndex, sortedRadii, radiusSlots);
+        }
+
+        /*
+         * Returns a new snapshot with the batch added, leaving this one unchanged
+         * The batch is sorted by ID and radius as primitive keys and merged with the existing indexes into new arrays
+         */
+        private Snapshot withAdded(RegPolygon[] batch) {
+            int n = batch.length;
+            int newSize = size + n;
+
+            // Sorts the batch by ID as keys holding the ID in the high bits and the batch position in the low bits
+            long[] keys = new long[n];
+            for (int t = 0; t < n; t++) {
+                keys[t] = ((long) batch[t].getID() << 32) | t;
+            }
+            Arrays.parallelSort(keys);
+
+            // Merges the sorted batch with the sorted ID index into new arrays
+            int[] newIds = new int[newSize];
+            RegPolygon[] newSorted = new RegPolygon[newSize];
+            int i = 0;
+            int j = 0;
+            for (int k = 0; k < newSize; k++) {
+                RegPolygon next = j < n ? batch[(int) keys[j]] : null;
+                if (next == null || (i < size && sortedIds[i] < next.getID())) {
+                    newIds[k] = sortedIds[i];
+                    newSorted[k] = sortedPolygons[i];
+                    i++;
+                } else {
+                    newIds[k] = next.getID();
+                    newSorted[k] = next;
+                    j++;
+                }
+            }
+
+            // Appends to the shared slot array, which this snapshot never reads beyond its own size
+            RegPolygon[] newSlots = slots.length >= newSize ? slots :
+                    Arrays.copyOf(slots, Math.max(newSize, slots.length * 2));
+
+            // Copies only the bitmaps that receive new slots; copying a bitmap shares its completed chunks
+            HashMap<Integer, PolygonBitmap> newSides = new HashMap<>(sidesIndex);
+            HashMap<Integer, PolygonBitmap> newColours = new HashMap<>(colourIndex);
+            IdentityHashMap<PolygonBitmap, Boolean> copied = new IdentityHashMap<>();
+            PolygonBitmap newFilled = filledIndex.copy();
+            PolygonBitmap newUnfilled = unfilledIndex.copy();
+            for (int t = 0; t < n; t++) {
+                RegPolygon polygon = batch[t];
+                int slot = size + t;
+                newSlots[slot] = polygon;
+                writable(newSides, polygon.getSides(), copied).add(slot);
+                writable(newColours, polygon.getColor().getRGB(), copied).add(slot);
+                (polygon.isFilled() ? newFilled : newUnfilled).add(slot);
+            }
+
+            /*
+             * Sorts the new slots by radius: keys hold the radius as a float in the high bits and the batch position in
+             * the low bits, then an insertion pass fixes the rare pairs whose exact radii differ below float precision
+             */
+            for (int t = 0; t < n; t++) {
+                keys[t] = ((long) Float.floatToIntBits((float) batch[t].getRadius()) << 32) | t;
+            }
+            Arrays.parallelSort(keys);
+            double[] addedRadii = new double[n];
+            int[] addedSlots = new int[n];
+            for (int t = 0; t < n; t++) {
+                int index = (int) keys[t];
+                double radius = batch[index].getRadius();
+                int u = t - 1;
+                while (u >= 0 && addedRadii[u] > radius) {
+                    addedRadii[u + 1] = addedRadii[u];
+                    addedSlots[u + 1] = addedSlots[u];
+                    u--;
+                }
+                addedRadii[u + 1] = radius;
+                addedSlots[u + 1] = size + index;
+            }
+
+            // Merges the new radii with the radius index into new arrays
+            double[] newRadii = new double[newSize];
+            int[] newRadiusSlots = new int[newSize];
+            i = 0;
+            j = 0;
+            for (int k = 0; k < newSize; k++) {
+                if (j == n || (i < size && sortedRadii[i] <= addedRadii[j])) {
+                    newRadii[k] = sortedRadii[i];
+                    newRadiusSlots[k] = radiusSlots[i];
+                    i++;
+                } else {
+                    newRadii[k] = addedRadii[j];
+                    newRadiusSlots[k] = addedSlots[j];
+                    j++;
+                }
+            }
+
+            // New polygons go to the end of the display order
+            RegPolygon[] newOrder = Arrays.copyOf(displayOrder, newSize);
+            System.arraycopy(batch, 0, newOrder, size, n);
+
+            return new Snapshot(epoch, newSize, newOrder, newIds, newSorted, newSlots, newSides, newColours, newFilled,
+                    newUnfilled, newRadii, newRadiusSlots);
+        }
+
+        /*
+         * Returns a new snapshot with each polygon in the map replaced by its copy in the given colour, leaving this
+         * one unchanged
+         * Each polygon's slot is found through the radius index; the slot, display order and polygon arrays are copied
+         * with the copies in place, and only the colour bitmaps that gain or lose slots are changed. The ID, side
+         * count, fill and radius indexes are shared, as those attributes are unchanged
+         */
+        private Snapshot withRecoloured(IdentityHashMap<RegPolygon, RegPolygon> replacements, Color colour) {
+            RegPolygon[] newSlots = Arrays.copyOf(slots, slots.length);
+            RegPolygon[] newSorted = Arrays.copyOf(sortedPolygons, sortedPolygons.length);
+            HashMap<Integer, ArrayList<Integer>> removed = new HashMap<>();
+            int[] added = new int[replacements.size()];
+            int n = 0;
+            for (Map.Entry<RegPolygon, RegPolygon> entry : replacements.entrySet()) {
+                RegPolygon existing = entry.getKey();
+                RegPolygon copy = entry.getValue();
+                int slot = slotOf(existing);
+                if (copy == existing || slot < 0) {
+                    continue;
+                }
+                newSlots[slot] = copy;
+                newSorted[lowerBound(copy.getID())] = copy;
+                added[n++] = slot;
+                removed.computeIfAbsent(existing.getColor().getRGB(), k -> new ArrayList<>()).add(slot);
+            }
+            if (n == 0) {
+                return this;
+            }
+
+            // Finds the copies' places in the display order, testing each ID against a bitset before the map
+            long[] recolouredIds = new long[(ID_SPACE + 63) / 64];
+            for (RegPolygon copy : replacements.values()) {
+                recolouredIds[copy.getID() >>> 6] |= 1L << copy.getID();
+            }
+            RegPolygon[] newOrder = Arrays.copyOf(displayOrder, displayOrder.length);
+            for (int k = 0; k < newOrder.length; k++) {
+                int id = newOrder[k].getID();
+                if ((recolouredIds[id >>> 6] & (1L << id)) != 0) {
+                    newOrder[k] = replacements.getOrDefault(newOrder[k], newOrder[k]);
+                }
+            }
+
+            // Takes the slots out of the old colours' bitmaps and puts them in the new colour's bitmap
+            HashMap<Integer, PolygonBitmap> newColours = new HashMap<>(colourIndex);
+            for (Map.Entry<Integer, ArrayList<Integer>> entry : removed.entrySet()) {
+                int[] sorted = entry.getValue().stream().mapToInt(Integer::intValue).sorted().toArray();
+                PolygonBitmap bitmap = colourIndex.get(entry.getKey()).withChanged(sorted, false);
+                if (bitmap.cardinality() == 0) {
+                    newColours.remove(entry.getKey());
+                } else {
+                    newColours.put(entry.getKey(), bitmap);
+                }
+            }
+            added = Arrays.copyOf(added, n);
+            Arrays.sort(added);
+            newColours.put(colour.getRGB(), colourIndex.getOrDefault(colour.getRGB(), new PolygonBitmap())
+                    .withChanged(added, true));
+
+            return new Snapshot(epoch, size, newOrder, sortedIds, newSorted, newSlots, sidesIndex, newColours,
+                    filledIndex, unfilledIndex, sortedRadii, radiusSlots);
+        }
+
+        // Returns the slot holding the polygon, searching the radius index for its radius, or -1 if it is not here
+        private int slotOf(RegPolygon polygon) {
+            double radius = polygon.getRadius();
+            for (int k = radiusLowerBound(radius); k < size && sortedRadii[k] == radius; k++) {
+                if (slots[radiusSlots[k]] == polygon) {
+                    return radiusSlots[k];
+                }
+            }
+            return -1;
+        }
+
+        // Returns the bitmap for a key, copied once per merge so the previous snapshot's bitmap is left unchanged
+        private static PolygonBitmap writable(HashMap<Integer, PolygonBitmap> index, int key,
+                                              IdentityHashMap<PolygonBitmap, Boolean> copied) {
+            PolygonBitmap bitmap = index.get(key);
+            if (bitmap == null) {
+                bitmap = new PolygonBitmap();
+                index.put(key, bitmap);
+                copied.put(bitmap, Boolean.TRUE);
+            } else if (!copied.containsKey(bitmap)) {
+                bitmap = bitmap.copy();
+                index.put(key, bitmap);
+                copied.put(bitmap, Boolean.TRUE);
+            }
+            return bitmap;
+        }
+
+        /* Returns the number of polygons in the snapshot */
+        public int size() {
+            return size;
+        }
+
+        /*
+         * Returns the epoch of the snapshot; a later snapshot with the same epoch only added to this one or recoloured
+         * some of its polygons, while a new epoch means existing slots may hold different polygons
+         */
+        public long getEpoch() {
+            return epoch;
+        }
+
+        /* Returns true if a polygon with the given ID is in the snapshot */
+        public boolean containsId(int id) {
+            int pos = lowerBound(id);
+            return pos < size && sortedIds[pos] == id;
+        }
+
+        /* Returns the polygon with the given ID, or null if there is none */
+        public RegPolygon findById(int id) {
+            int pos = lowerBound(id);
+            if (pos < size && sortedIds[pos] == id) {
+                return sortedPolygons[pos];
+            }
+            return null;
+        }
+
+        /*
+         * Returns the polygons with IDs between fromId and toId (both inclusive), in ascending ID order
+         * Both ends are found by binary search, so the cost is O(log n) plus a copy of the matching references
+         */
+        public RegPolygon[] findRange(int fromId, int toId) {
+            if (fromId > toId) {
+                return new RegPolygon[0];
+            }
+            int start = lowerBound(fromId);
+            int end = toId == Integer.MAX_VALUE ? size : lowerBound(toId + 1);
+            return Arrays.copyOfRange(sortedPolygons, start, end);
+        }
+
+        /*
+         * Returns the polygon for each of the first count IDs of an ascending ID array, or null where there is none
+         * The IDs are resolved in one forward pass over the ID index: each search gallops on from the previous
+         * position, so m IDs cost O(m log(n / m)), never more than a merge of both lists or m separate searches
+         */
+        public RegPolygon[] findAll(int[] ids, int count) {
+            RegPolygon[] found = new RegPolygon[count];
+            int pos = 0;
+            for (int i = 0; i < count && pos < size; i++) {
+                int id = ids[i];
+                // Doubles the step until an ID not below the target, then binary searches the last step
+                int low = pos;
+                int high = pos;
+                int step = 1;
+                while (high < size && sortedIds[high] < id) {
+                    low = high + 1;
+                    high = low + step;
+                    step <<= 1;
+                }
+                pos = lowerBound(id, low, Math.min(high, size));
+                if (pos < size && sortedIds[pos] == id) {
+                    found[i] = sortedPolygons[pos];
+                }
+            }
+            return found;
+        }
+
+        /*
+         * Returns the polygons matching every given criterion, in the order they were added
+         * A side count below 3, a null colour or a null fill option leaves that attribute unfiltered; the radius
+         * bounds are inclusive, so passing 0 and Double.MAX_VALUE leaves radius unfiltered
+         * Each criterion gives a bitmap of slots and the bitmaps are intersected, smallest first
+         */
+        public RegPolygon[] filter(int sides, Color colour, Boolean filled, double minRadius, double maxRadius) {
+
+            ArrayList<PolygonBitmap> criteria = new ArrayList<>();
+
+            if (sides >= 3) {
+                criteria.add(sidesIndex.getOrDefault(sides, new PolygonBitmap()));
+            }
+            if (colour != null) {
+                criteria.add(colourIndex.getOrDefault(colour.getRGB(), new PolygonBitmap()));
+            }
+            if (filled != null) {
+                criteria.add(filled ? filledIndex : unfilledIndex);
+            }
+            if (minRadius > 0 || maxRadius < Double.MAX_VALUE) {
+                criteria.add(radiusRange(minRadius, maxRadius));
+            }
+
+            // With no criteria every polygon matches
+            if (criteria.isEmpty()) {
+                return Arrays.copyOf(slots, size);
+            }
+
+            // Intersects the smallest bitmaps first so intermediate results stay small
+            criteria.sort((a, b) -> Integer.compare(a.cardinality(), b.cardinality()));
+            PolygonBitmap result = criteria.get(0);
+            for (int i = 1; i < criteria.size() && result.cardinality() > 0; i++) {
+                result = result.and(criteria.get(i));
+            }
+
+            int[] matched = result.toArray();
+            RegPolygon[] polygons = new RegPolygon[matched.length];
+            for (int i = 0; i < matched.length; i++) {
+                polygons[i] = slots[matched[i]];
+            }
+            return polygons;
+        }
+
+        /*
+         * Returns an estimate of the heap bytes used by the polygons in this snapshot and their indexes
+         * Arrays are counted at their allocated length with 4 byte references; polygons at a fixed size, leaving out
+         * the vertex arrays of polygons that have been drawn
+         */
+        public long estimateHeapBytes() {
+            long bytes = (long) size * POLYGON_BYTES;
+            bytes += 16 + 4L * displayOrder.length + 16 + 4L * sortedIds.length + 16 + 4L * sortedPolygons.length;
+            bytes += 16 + 4L * slots.length + 16 + 8L * sortedRadii.length + 16 + 4L * radiusSlots.length;
+            bytes += filledIndex.estimateBytes() + unfilledIndex.estimateBytes();
+            for (PolygonBitmap bitmap : sidesIndex.values()) {
+                bytes += bitmap.estimateBytes();
+            }
+            for (PolygonBitmap bitmap : colourIndex.values()) {
+                bytes += bitmap.estimateBytes();
+            }
+            return bytes;
+        }
+
+        /*
+         * Returns the polygon in a slot, the order in which polygons were added
+         * Slots only change when recoloured, so a later snapshot of the same epoch has polygons of the same ID and
+         * shape in the slots this one has
+         */
+        public RegPolygon getBySlot(int slot) {
+            if (slot < 0 || slot >= size) {
+                throw new IndexOutOfBoundsException("Slot " + slot + " of " + size);
+            }
+            return slots[slot];
+        }
+
+        /* Returns a copy of all polygon IDs in ascending order */
+        public int[] getSortedIds() {
+            return Arrays.copyOf(sortedIds, size);
+        }
+
+        /* Returns a read-only list of the polygons in display order */
+        public List<RegPolygon> getPolygonList() {
+            return Collections.unmodifiableList(Arrays.asList(displayOrder));
+        }
+
+        // Builds a bitmap of the slots whose radius lies between minRadius and maxRadius (both inclusive)
+        private PolygonBitmap radiusRange(double minRadius, double maxRadius) {
+            PolygonBitmap bitmap = new PolygonBitmap();
+            if (minRadius > maxRadius) {
+                return bitmap;
+            }
+
+            // Finds the first radius not below minRadius and the first radius above maxRadius
+            int start = radiusLowerBound(minRadius);
+            int end = radiusUpperBound(maxRadius);
+
+            // Bitmaps take slots in ascending order, so the slots in the range are sorted first
+            int[] rangeSlots = Arrays.copyOfRange(radiusSlots, start, end);
+            Arrays.sort(rangeSlots);
+            for (int slot : rangeSlots) {
+                bitmap.add(slot);
+            }
+            return bitmap;
+        }
+
+        // Returns the index of the first radius in the radius index that is greater than or equal to the given radius
+        private int radiusLowerBound(double radius) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sortedRadii[mid] < radius) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // Returns the index of the first radius in the radius index that is greater than the given radius
+        private int radiusUpperBound(double radius) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sortedRadii[mid] <= radius) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // Returns the index of the first ID in the sorted index that is greater than or equal to the given ID
+        private int lowerBound(int id) {
+            return lowerBound(id, 0, size);
+        }
+
+        // Returns the first position from low to high whose ID is not below id, or high if there is none
+        private int lowerBound(int id, int low, int high) {
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sortedIds[mid] < id) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+}
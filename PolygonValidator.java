@@ -0,0 +1,655 @@
+import java.nio.charset.StandardCharsets;
+
+/**
+ * PolygonValidator class holds the polygon input rules without any Swing code, for the input fields and for batches
+ * Each check parses text from a CharSequence or a byte range without throwing or allocating and returns an error code;
+ * the parsed value is then read with intValue() or doubleValue()
+ * A validator keeps the last parsed value, so each thread should use its own instance
+ */
+public class PolygonValidator {
+
+    /* Error codes returned by the checks */
+
+    // Input passed validation
+    public static final int VALID = 0;
+
+    // Input is empty
+    public static final int MISSING = 1;
+
+    // Input is not a valid number
+    public static final int NOT_A_NUMBER = 2;
+
+    // ID is a number but not exactly 6 digits
+    public static final int WRONG_LENGTH = 3;
+
+    // Sides or radius is negative
+    public static final int NEGATIVE = 4;
+
+    // Sides is 0, 1 or 2, which does not make a polygon
+    public static final int TOO_FEW_SIDES = 5;
+
+    // Radius is 0, so the polygon would not be visible
+    public static final int ZERO_RADIUS = 6;
+
+    // Batch record does not have 4 to 6 comma separated fields
+    public static final int WRONG_FIELD_COUNT = 7;
+
+    // Batch record fill field is not true, false, 1 or 0
+    public static final int INVALID_FILL = 8;
+
+    // Batch record colour field is not a 6 digit hex colour
+    public static final int INVALID_COLOUR = 9;
+
+    // ID is already used, by an existing polygon or an earlier record in the batch
+    public static final int DUPLICATE_ID = 10;
+
+    // Search query with .. is not two 6 digit IDs
+    public static final int INVALID_RANGE = 11;
+
+    // Search query range starts at a greater ID than it ends
+    public static final int REVERSED_RANGE = 12;
+
+    // Search query with * is not leading digits followed by * wildcards, 6 characters in total
+    public static final int INVALID_PREFIX = 13;
+
+    // Number is outside the range allowed for a setting
+    public static final int OUT_OF_RANGE = 14;
+
+    // Descriptions of each error code, indexed by code
+    private static final String[] ERROR_MESSAGES = {
+            "valid",
+            "value is missing",
+            "value is not a valid number",
+            "ID must be exactly 6 digits",
+            "value must not be negative",
+            "a polygon needs at least 3 sides",
+            "radius must be above 0",
+            "record must have 4 to 6 comma separated fields: id,sides,angle,radius[,fill[,colour]]",
+            "fill must be true, false, 1 or 0",
+            "colour must be a 6 digit hex value such as ff8000",
+            "ID already exists",
+            "an ID range must be two 6 digit IDs separated by .. e.g. 120000..129999",
+            "the first ID of a range must not be greater than the second",
+            "an ID prefix must be leading digits followed by * wildcards, 6 characters in total e.g. 12****",
+            "value is outside the allowed range"
+    };
+
+    // Names of the batch record fields, indexed by field position
+    private static final String[] FIELD_NAMES = {"ID", "sides", "angle", "radius", "fill", "colour"};
+
+    // Powers of ten exactly representable as doubles, for the fast decimal path
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    // Largest mantissa a double holds exactly
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    // Last parsed whole number and decimal values
+    private int intValue;
+    private double doubleValue;
+
+    // Inclusive ID bounds of the last valid search query
+    private int fromId;
+    private int toId;
+
+    // Reused view of a byte range as characters, so byte input needs no conversion
+    private final ByteChars bytes = new ByteChars();
+
+    /* Returns the whole number parsed by the last successful ID, sides or whole number check */
+    public int intValue() {
+        return intValue;
+    }
+
+    /* Returns the decimal parsed by the last successful angle, radius or decimal check */
+    public double doubleValue() {
+        return doubleValue;
+    }
+
+    /* Returns the lowest ID matched by the last valid search query */
+    public int fromId() {
+        return fromId;
+    }
+
+    /* Returns the highest ID matched by the last valid search query */
+    public int toId() {
+        return toId;
+    }
+
+    /* Returns a description of an error code */
+    public static String errorMessage(int code) {
+        return ERROR_MESSAGES[code];
+    }
+
+    /* Returns the name of a batch record field */
+    public static String fieldName(int field) {
+        return FIELD_NAMES[field];
+    }
+
+    /* Checks that text is a 6 digit ID */
+    public int validateId(CharSequence text) {
+        return validateId(text, 0, text.length());
+    }
+
+    /* Checks that a byte range holds a 6 digit ID */
+    public int validateId(byte[] data, int start, int end) {
+        return validateId(bytes.set(data), start, end);
+    }
+
+    /* Checks that characters start to end of text are a 6 digit ID */
+    public int validateId(CharSequence text, int start, int end) {
+        if (start == end) {
+            return MISSING;
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return NOT_A_NUMBER;
+            }
+            // Stops accumulating past 6 digits; the length check below rejects the value anyway
+            if (i - start < 6) {
+                value = value * 10 + (c - '0');
+            }
+        }
+        if (end - start != 6) {
+            return WRONG_LENGTH;
+        }
+        intValue = value;
+        return VALID;
+    }
+
+    /*
+     * Checks that text is a search query: a 6 digit ID, two IDs separated by .. such as 120000..129999, or leading
+     * digits followed by * wildcards to make 6 characters such as 12****, which covers 120000 to 129999
+     * The inclusive ID bounds of a valid query are read with fromId() and toId()
+     */
+    public int validateIdQuery(CharSequence text) {
+        int length = text.length();
+
+        // Range query: two 6 digit IDs separated by ".."
+        for (int i = 0; i + 1 < length; i++) {
+            if (text.charAt(i) == '.' && text.charAt(i + 1) == '.') {
+                if (validateId(text, 0, i) != VALID) {
+                    return INVALID_RANGE;
+                }
+                int from = intValue;
+                if (validateId(text, i + 2, length) != VALID) {
+                    return INVALID_RANGE;
+                }
+                if (from > intValue) {
+                    return REVERSED_RANGE;
+                }
+                fromId = from;
+                toId = intValue;
+                return VALID;
+            }
+        }
+
+        // Prefix query: leading digits followed by '*' wildcards, 6 characters in total
+        int wildcard = 0;
+        while (wildcard < length && text.charAt(wildcard) != '*') {
+            wildcard++;
+        }
+        if (wildcard < length) {
+            if (length != 6 || wildcard == 0) {
+                return INVALID_PREFIX;
+            }
+            int prefix = 0;
+            int span = 1;
+            for (int i = 0; i < 6; i++) {
+                char c = text.charAt(i);
+                if (i < wildcard ? c < '0' || c > '9' : c != '*') {
+                    return INVALID_PREFIX;
+                }
+                if (i < wildcard) {
+                    prefix = prefix * 10 + (c - '0');
+                } else {
+                    span *= 10;
+                }
+            }
+            fromId = prefix * span;
+            toId = fromId + span - 1;
+            return VALID;
+        }
+
+        // Single ID
+        int code = validateId(text);
+        if (code == VALID) {
+            fromId = intValue;
+            toId = intValue;
+        }
+        return code;
+    }
+
+    /* Checks that text is a number of sides of 3 or more */
+    public int validateSides(CharSequence text) {
+        return validateSides(text, 0, text.length());
+    }
+
+    /* Checks that a byte range holds a number of sides of 3 or more */
+    public int validateSides(byte[] data, int start, int end) {
+        return validateSides(bytes.set(data), start, end);
+    }
+
+    /* Checks that characters start to end of text are a number of sides of 3 or more */
+    public int validateSides(CharSequence text, int start, int end) {
+        if (start == end) {
+            return MISSING;
+        }
+        int code = parseInt(text, start, end);
+        if (code != VALID) {
+            return code;
+        }
+        if (intValue < 0) {
+            return NEGATIVE;
+        }
+        if (intValue < 3) {
+            return TOO_FEW_SIDES;
+        }
+        return VALID;
+    }
+
+    /* Checks that text is a whole number from min to max, both inclusive, such as a count or a port number */
+    public int validateInteger(CharSequence text, int min, int max) {
+        if (text.length() == 0) {
+            return MISSING;
+        }
+        int code = parseInt(text, 0, text.length());
+        if (code != VALID) {
+            return code;
+        }
+        return intValue < min || intValue > max ? OUT_OF_RANGE : VALID;
+    }
+
+    /* Checks that text is a number from min to max, both inclusive, such as a percentage */
+    public int validateDecimal(CharSequence text, double min, double max) {
+        if (text.length() == 0) {
+            return MISSING;
+        }
+        int code = parseDouble(text, 0, text.length());
+        if (code != VALID) {
+            return code;
+        }
+        return doubleValue < min || doubleValue > max ? OUT_OF_RANGE : VALID;
+    }
+
+    /* Checks that text is a starting angle */
+    public int validateAngle(CharSequence text) {
+        return validateAngle(text, 0, text.length());
+    }
+
+    /* Checks that a byte range holds a starting angle */
+    public int validateAngle(byte[] data, int start, int end) {
+        return validateAngle(bytes.set(data), start, end);
+    }
+
+    /* Checks that characters start to end of text are a starting angle; any finite number is accepted */
+    public int validateAngle(CharSequence text, int start, int end) {
+        if (start == end) {
+            return MISSING;
+        }
+        return parseDouble(text, start, end);
+    }
+
+    /* Checks that text is a radius above 0 */
+    public int validateRadius(CharSequence text) {
+        return validateRadius(text, 0, text.length());
+    }
+
+    /* Checks that a byte range holds a radius above 0 */
+    public int validateRadius(byte[] data, int start, int end) {
+        return validateRadius(bytes.set(data), start, end);
+    }
+
+    /* Checks that characters start to end of text are a radius above 0 */
+    public int validateRadius(CharSequence text, int start, int end) {
+        if (start == end) {
+            return MISSING;
+        }
+        int code = parseDouble(text, start, end);
+        if (code != VALID) {
+            return code;
+        }
+        if (doubleValue < 0) {
+            return NEGATIVE;
+        }
+        if (doubleValue == 0) {
+            return ZERO_RADIUS;
+        }
+        return VALID;
+    }
+
+    /*
+     * Validates a batch of polygon records, one per line, from a byte range of ASCII or UTF-8 text
+     * See validateBatch(CharSequence, int, int, PolygonBatch) for the record format
+     */
+    public void validateBatch(byte[] data, int start, int end, PolygonBatch batch) {
+        validateBatch(bytes.set(data), start, end, batch);
+    }
+
+    /* Validates a batch of polygon records from text; see validateBatch(CharSequence, int, int, PolygonBatch) */
+    public void validateBatch(CharSequence text, PolygonBatch batch) {
+        validateBatch(text, 0, text.length(), batch);
+    }
+
+    /*
+     * Validates a batch of polygon records, appending one entry per record to the batch
+     * Each line is id,sides,angle,radius[,fill[,colour]] with fill as true/false/1/0 (default false) and colour as a
+     * 6 digit hex value with an optional # (default black); blank lines and lines starting with # are skipped
+     * Every record gets an error code and, if invalid, the position of the first field that failed
+     */
+    public void validateBatch(CharSequence text, int start, int end, PolygonBatch batch) {
+        int line = 0;
+        int lineStart = start;
+        while (lineStart < end) {
+            // Finds the end of the line, ignoring a trailing carriage return
+            int lineEnd = lineStart;
+            while (lineEnd < end && text.charAt(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int next = lineEnd + 1;
+            if (lineEnd > lineStart && text.charAt(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+            line++;
+
+            if (lineEnd > lineStart && text.charAt(lineStart) != '#' && !isBlank(text, lineStart, lineEnd)) {
+                validateRecord(text, lineStart, lineEnd, line, batch);
+            }
+            lineStart = next;
+        }
+    }
+
+    // Validates one comma separated record and appends it to the batch
+    private void validateRecord(CharSequence text, int start, int end, int line, PolygonBatch batch) {
+        int record = batch.append(line);
+
+        // Finds the field boundaries; fieldStart[i] to fieldEnd[i] is field i, trimmed of spaces
+        int fields = 0;
+        int fieldStart = start;
+        for (int i = start; i <= end && fields <= 6; i++) {
+            if (i == end || text.charAt(i) == ',') {
+                if (fields < 6) {
+                    batch.fieldStart[fields] = trimStart(text, fieldStart, i);
+                    batch.fieldEnd[fields] = trimEnd(text, fieldStart, i);
+                }
+                fields++;
+                fieldStart = i + 1;
+            }
+        }
+        if (fields < 4 || fields > 6) {
+            batch.fail(record, WRONG_FIELD_COUNT, 0);
+            return;
+        }
+
+        int[] s = batch.fieldStart;
+        int[] e = batch.fieldEnd;
+
+        int code = validateId(text, s[0], e[0]);
+        if (code != VALID) {
+            batch.fail(record, code, 0);
+            return;
+        }
+        batch.ids[record] = intValue;
+
+        code = validateSides(text, s[1], e[1]);
+        if (code != VALID) {
+            batch.fail(record, code, 1);
+            return;
+        }
+        batch.sides[record] = intValue;
+
+        code = validateAngle(text, s[2], e[2]);
+        if (code != VALID) {
+            batch.fail(record, code, 2);
+            return;
+        }
+        batch.angles[record] = doubleValue;
+
+        code = validateRadius(text, s[3], e[3]);
+        if (code != VALID) {
+            batch.fail(record, code, 3);
+            return;
+        }
+        batch.radii[record] = doubleValue;
+
+        // Optional fill field
+        batch.filled[record] = false;
+        if (fields > 4 && s[4] < e[4]) {
+            if (matches(text, s[4], e[4], "true") || matches(text, s[4], e[4], "1")) {
+                batch.filled[record] = true;
+            } else if (!matches(text, s[4], e[4], "false") && !matches(text, s[4], e[4], "0")) {
+                batch.fail(record, INVALID_FILL, 4);
+                return;
+            }
+        }
+
+        // Optional colour field, black by default
+        batch.colours[record] = 0;
+        if (fields > 5 && s[5] < e[5]) {
+            int colourStart = text.charAt(s[5]) == '#' ? s[5] + 1 : s[5];
+            int rgb = parseHexColour(text, colourStart, e[5]);
+            if (rgb < 0) {
+                batch.fail(record, INVALID_COLOUR, 5);
+                return;
+            }
+            batch.colours[record] = rgb;
+        }
+    }
+
+    // Parses an optionally signed whole number into intValue
+    private int parseInt(CharSequence text, int start, int end) {
+        boolean negative = false;
+        int i = start;
+        if (text.charAt(i) == '-' || text.charAt(i) == '+') {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+        if (i == end) {
+            return NOT_A_NUMBER;
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return NOT_A_NUMBER;
+            }
+            value = value * 10 + (c - '0');
+            // Values outside the int range are rejected, as Integer.parseInt does
+            if (value > (long) Integer.MAX_VALUE + (negative ? 1 : 0)) {
+                return NOT_A_NUMBER;
+            }
+        }
+        intValue = (int) (negative ? -value : value);
+        return VALID;
+    }
+
+    /*
+     * Parses a decimal such as -12.5 or 3e2 into doubleValue, ignoring surrounding spaces
+     * Up to 18 significant digits with a small exponent are converted exactly by one multiply or divide; longer
+     * input falls back to Double.parseDouble, which only happens for text that is already known to be valid
+     */
+    private int parseDouble(CharSequence text, int start, int end) {
+        start = trimStart(text, start, end);
+        end = trimEnd(text, start, end);
+        if (start == end) {
+            return NOT_A_NUMBER;
+        }
+
+        int i = start;
+        boolean negative = false;
+        if (text.charAt(i) == '-' || text.charAt(i) == '+') {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int significantDigits = 0;
+        int exponent = 0;
+        boolean sawDigit = false;
+        boolean exact = true;
+
+        // Whole part
+        for (; i < end && isDigit(text.charAt(i)); i++) {
+            sawDigit = true;
+            int digit = text.charAt(i) - '0';
+            if (significantDigits < 18) {
+                mantissa = mantissa * 10 + digit;
+                if (mantissa != 0) {
+                    significantDigits++;
+                }
+            } else {
+                exponent++;
+                exact &= digit == 0;
+            }
+        }
+
+        // Fraction part
+        if (i < end && text.charAt(i) == '.') {
+            i++;
+            for (; i < end && isDigit(text.charAt(i)); i++) {
+                sawDigit = true;
+                int digit = text.charAt(i) - '0';
+                if (significantDigits < 18) {
+                    mantissa = mantissa * 10 + digit;
+                    exponent--;
+                    if (mantissa != 0) {
+                        significantDigits++;
+                    }
+                } else {
+                    exact &= digit == 0;
+                }
+            }
+        }
+        if (!sawDigit) {
+            return NOT_A_NUMBER;
+        }
+
+        // Exponent part
+        if (i < end && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+                negativeExponent = text.charAt(i) == '-';
+                i++;
+            }
+            if (i == end) {
+                return NOT_A_NUMBER;
+            }
+            int written = 0;
+            for (; i < end && isDigit(text.charAt(i)); i++) {
+                // Caps the exponent; anything this large overflows or underflows regardless
+                written = Math.min(written * 10 + (text.charAt(i) - '0'), 100_000);
+            }
+            exponent += negativeExponent ? -written : written;
+        }
+        if (i != end) {
+            return NOT_A_NUMBER;
+        }
+
+        double value;
+        if (exact && mantissa <= MAX_EXACT_MANTISSA && exponent >= -22 && exponent <= 22) {
+            value = exponent >= 0 ? mantissa * POWERS_OF_TEN[exponent] : mantissa / POWERS_OF_TEN[-exponent];
+        } else {
+            value = Double.parseDouble(text.subSequence(start, end).toString());
+            negative = false;
+        }
+        if (Double.isInfinite(value)) {
+            return NOT_A_NUMBER;
+        }
+        doubleValue = negative ? -value : value;
+        return VALID;
+    }
+
+    // Parses 6 hex digits into an RGB value, or returns -1 if they are not valid
+    private static int parseHexColour(CharSequence text, int start, int end) {
+        if (end - start != 6) {
+            return -1;
+        }
+        int rgb = 0;
+        for (int i = start; i < end; i++) {
+            int digit = Character.digit(text.charAt(i), 16);
+            if (digit < 0) {
+                return -1;
+            }
+            rgb = (rgb << 4) | digit;
+        }
+        return rgb;
+    }
+
+    // Returns true if characters start to end of text equal the word, ignoring case
+    private static boolean matches(CharSequence text, int start, int end, String word) {
+        if (end - start != word.length()) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (Character.toLowerCase(text.charAt(start + i)) != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Returns true if characters start to end of text are all spaces or control characters
+    private static boolean isBlank(CharSequence text, int start, int end) {
+        return trimStart(text, start, end) == end;
+    }
+
+    // Returns the first position from start that is not a space or control character
+    private static int trimStart(CharSequence text, int start, int end) {
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    // Returns the position after the last character before end that is not a space or control character
+    private static int trimEnd(CharSequence text, int start, int end) {
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    // Returns true for the characters 0 to 9
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /*
+     * Reusable CharSequence over a byte array, treating each byte as one character
+     * Only charAt and length are used on the validation path; subSequence is only used by the rare decimal fallback
+     */
+    private static final class ByteChars implements CharSequence {
+
+        private byte[] data = new byte[0];
+
+        ByteChars set(byte[] data) {
+            this.data = data;
+            return this;
+        }
+
+        @Override
+        public int length() {
+            return data.length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (data[index] & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new String(data, start, end - start, StandardCharsets.ISO_8859_1);
+        }
+
+        @Override
+        public String toString() {
+            return subSequence(0, data.length).toString();
+        }
+    }
+
+}
@@ -0,0 +1,219 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * PosterExporter class renders the whole scene to a PNG file up to MAX_SIDE pixels wide, one horizontal band at a time
+ *
+ * Each band is a small image as wide as the poster, drawn through a Graphics2D translated to the band's position, and
+ * its rows are compressed straight into the file before the next band is drawn. Band height is chosen so a band holds
+ * a fixed number of pixels, and the width is capped so that even a one row band fits that budget, so memory use
+ * depends on the budget rather than on the poster size; a 50000 x 50000 poster needs about the same memory as a
+ * 5000 x 5000 one. Only polygons reaching into a band are drawn for it, and of those only the ones not hidden behind
+ * later opaque polygons (see OcclusionCuller).
+ */
+public class PosterExporter {
+
+    // Pixels held in one band at most, 16 MB at 4 bytes per pixel
+    private static final long PIXELS_PER_BAND = 1L << 22;
+
+    // Empty border around the scene, as a fraction of the poster width
+    private static final double MARGIN = 0.02;
+
+    // Largest poster side in pixels. A band is always full width and at least one row, so capping the width at the
+    // band budget keeps the band within it and the row buffer at 3 bytes per pixel of width; PNG allows 2^31 - 1
+    public static final int MAX_SIDE = (int) PIXELS_PER_BAND;
+
+    // Bytes of compressed data in each PNG data chunk
+    private static final int CHUNK_BYTES = 1 << 16;
+
+    // The eight bytes every PNG file starts with
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    /* Returns the poster height for a given width, keeping the scene's proportions */
+    public static int heightFor(List<RegPolygon> polygons, int width) {
+        return heightFor(new SceneIndex(polygons), width);
+    }
+
+    // Returns the poster height for a given width from an index of the scene
+    private static int heightFor(SceneIndex index, int width) {
+        double sceneWidth = Math.max(index.getMaxX() - index.getMinX(), 1e-9);
+        double sceneHeight = Math.max(index.getMaxY() - index.getMinY(), 1e-9);
+        return (int) Math.max(1, Math.min(MAX_SIDE, Math.ceil(width * sceneHeight / sceneWidth)));
+    }
+
+    /*
+     * Renders the polygons at their scene positions into a PNG file of the given width, with the height following the
+     * scene's proportions; progress is reported as a percentage after each band
+     */
+    public void export(List<RegPolygon> polygons, int width, Path path, IntConsumer progress) throws IOException {
+        SceneIndex index = new SceneIndex(polygons);
+        int height = heightFor(index, width);
+
+        // Fits the scene inside the margin: a world point (x, y) lands at ((x - originX) * scale,
+        // (y - originY) * scale)
+        double sceneWidth = Math.max(index.getMaxX() - index.getMinX(), 1e-9);
+        double sceneHeight = Math.max(index.getMaxY() - index.getMinY(), 1e-9);
+        double scale = (1 - 2 * MARGIN) * Math.min(width / sceneWidth, height / sceneHeight);
+        double originX = (index.getMinX() + index.getMaxX()) / 2 - width / 2.0 / scale;
+        double originY = (index.getMinY() + index.getMaxY()) / 2 - height / 2.0 / scale;
+
+        int bandHeight = (int) Math.max(1, Math.min(height, PIXELS_PER_BAND / width));
+        BufferedImage band = new BufferedImage(width, bandHeight, BufferedImage.TYPE_INT_RGB);
+        int[] pixels = ((DataBufferInt) band.getRaster().getDataBuffer()).getData();
+        byte[] row = new byte[1 + 3 * width];
+        Polygon buffer = new Polygon(new int[16], new int[16], 0);
+        OcclusionCuller culler = new OcclusionCuller();
+
+        try (DataOutputStream file = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path),
+                CHUNK_BYTES))) {
+            writeHeader(file, width, height);
+
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try (OutputStream data = new DeflaterOutputStream(new ChunkOutputStream(file), deflater, CHUNK_BYTES)) {
+                for (int top = 0; top < height; top += bandHeight) {
+                    int rows = Math.min(bandHeight, height - top);
+
+                    // Clears the band and draws the polygons reaching into it, shifted up to the band's position
+                    Graphics2D g = band.createGraphics();
+                    g.setColor(Color.WHITE);
+                    g.fillRect(0, 0, width, rows);
+                    g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                    g.translate(0, -top);
+                    double bandTop = originY + top / scale;
+                    double bandBottom = originY + (top + rows) / scale;
+                    culler.reset();
+                    index.forEachInView(originX, bandTop, originX + width / scale, bandBottom, p ->
+                            culler.add(p, (p.getSceneX() - originX) * scale, (p.getSceneY() - originY) * scale,
+                                    Math.max(p.getRadius() * scale, 0.5), p.getSides(),
+                                    p.isFilled() && p.getColor().getAlpha() == 255));
+                    culler.cull();
+                    for (int i = 0; i < culler.size(); i++) {
+                        if (!culler.isHidden(i)) {
+                            culler.getPolygon(i).drawPolygonAt(g, culler.getX(i), culler.getY(i),
+                                    culler.getRadius(i), buffer, true, Integer.MAX_VALUE);
+                        }
+                    }
+                    g.dispose();
+
+                    // Compresses each row, stored as the difference from the pixel to its left (PNG filter type 1)
+                    for (int y = 0; y < rows; y++) {
+                        row[0] = 1;
+                        int previous = 0;
+                        int offset = y * width;
+                        for (int x = 0; x < width; x++) {
+                            int rgb = pixels[offset + x];
+                            row[1 + 3 * x] = (byte) ((rgb >> 16) - (previous >> 16));
+                            row[2 + 3 * x] = (byte) ((rgb >> 8) - (previous >> 8));
+                            row[3 + 3 * x] = (byte) (rgb - previous);
+                            previous = rgb;
+                        }
+                        data.write(row);
+                    }
+
+                    progress.accept((int) ((long) (top + rows) * 100 / height));
+                }
+            } finally {
+                deflater.end();
+            }
+
+            writeChunk(file, "IEND", new byte[0], 0);
+        }
+    }
+
+    // Writes the PNG signature and the header chunk for an 8 bit RGB image
+    private static void writeHeader(DataOutputStream file, int width, int height) throws IOException {
+        file.write(PNG_SIGNATURE);
+        byte[] header = new byte[13];
+        putInt(header, 0, width);
+        putInt(header, 4, height);
+        header[8] = 8;  // bits per sample
+        header[9] = 2;  // colour type RGB
+        writeChunk(file, "IHDR", header, header.length);
+    }
+
+    // Writes one PNG chunk: length, type, data and the CRC of type and data
+    private static void writeChunk(DataOutputStream file, String type, byte[] data, int length) throws IOException {
+        byte[] typeBytes = type.getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data, 0, length);
+        file.writeInt(length);
+        file.write(typeBytes);
+        file.write(data, 0, length);
+        file.writeInt((int) crc.getValue());
+    }
+
+    // Stores an int in big-endian order, as PNG requires
+    private static void putInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    /**
+     * ChunkOutputStream class packs the compressed image data into PNG data chunks of a fixed size as it arrives
+     * Closing it writes the last partial chunk but leaves the file open for the end chunk
+     */
+    private static class ChunkOutputStream extends OutputStream {
+
+        // File the chunks are written to
+        private final DataOutputStream file;
+
+        // Compressed bytes waiting for a full chunk
+        private final byte[] pending = new byte[CHUNK_BYTES];
+        private int size;
+
+        ChunkOutputStream(DataOutputStream file) {
+            this.file = file;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            pending[size++] = (byte) b;
+            if (size == CHUNK_BYTES) {
+                flushChunk();
+            }
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                int n = Math.min(length, CHUNK_BYTES - size);
+                System.arraycopy(bytes, offset, pending, size, n);
+                size += n;
+                offset += n;
+                length -= n;
+                if (size == CHUNK_BYTES) {
+                    flushChunk();
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (size > 0) {
+                flushChunk();
+            }
+        }
+
+        // Writes the waiting bytes as one data chunk
+        private void flushChunk() throws IOException {
+            writeChunk(file, "IDAT", pending, size);
+            size = 0;
+        }
+    }
+
+}
@@ -32,12 +32,25 @@ public class RegPolygon implements Comparable<RegPolygon> {
     // Field to store the fill option
     private boolean filled;
 
-    // Array to store X-coordinates of polygon vertices
+    // X and Y-coordinates of polygon centre in the scene, relative to the scene origin
+    private double sceneX;
+    private double sceneY;
+
+    // Array to store X-coordinates of polygon vertices, created on first draw
     private double[] pointsX;
 
-    // Array to store Y-coordinates of polygon vertices
+    // Array to store Y-coordinates of polygon vertices, created on first draw
     private double[] pointsY;
 
+    // Polygon reused for the screen vertices on every draw, so drawing does not allocate; created on first draw
+    private Polygon screenPolygon;
+
+    // Display scale applied to the radius when drawing, used by animation without changing the stored radius
+    private double pScale = 1.0;
+
+    // Counts changes to the polygon's shape, so images rendered from an earlier shape can be recognised as stale
+    private int geometryVersion;
+
     /* Constructor for creating RegPolygon object. */
     public RegPolygon(int sides, double startingAngle, double radius, int id, boolean filled, Color color) {
         this.pSides = sides;
@@ -46,11 +59,12 @@ public class RegPolygon implements Comparable<RegPolygon> {
         this.pColor = color;
         this.pId = id;
         this.filled = filled;
-        pointsX = new double[pSides];
-        pointsY = new double[pSides];
     }
 
-    /* Calculates and returns a Polygon object representing polygon vertices */
+    /*
+     * Calculates the polygon vertices and returns them in the reused Polygon object
+     * Vertices come from VertexGenerator's rotation recurrence, so large side counts need no trigonometry per vertex
+     */
     private Polygon getPolygonPoints(Dimension dim) {
         // Calculates X-coordinate of polygon center
         polyCenX = dim.width / 2;
@@ -58,29 +72,26 @@ public class RegPolygon implements Comparable<RegPolygon> {
         // Calculates Y-coordinate of polygon center
         polyCenY = dim.height / 2;
 
-        // Determine angle increment between each polygon vertex
-        double angleIncrement = 2 * Math.PI / pSides;
-
-        // Create new Polygon object to store vertices
-        Polygon p = new Polygon();
-
-        // Iterate through each polygon side to calculate and add vertex coordinates
-        for (int i = 0; i < pSides; i++) {
-            // Calculate X-coordinate of current vertex with cosine
-            pointsX[i] = polyCenX + pRadius * Math.cos(pStartingAngle);
+        // Radius drawn on screen, including any animation scale
+        double radius = pRadius * pScale;
 
-            // Calculate the Y-coordinate of current vertex with sine
-            pointsY[i] = polyCenY + pRadius * Math.sin(pStartingAngle);
+        // Creates the vertex arrays on first draw, so polygons that are never drawn stay small
+        if (screenPolygon == null) {
+            pointsX = new double[pSides];
+            pointsY = new double[pSides];
+            screenPolygon = new Polygon(new int[pSides], new int[pSides], pSides);
+        }
 
-            // Add vertex to the Polygon
-            p.addPoint((int) pointsX[i], (int) pointsY[i]);
+        // Calculates the vertex coordinates from the starting angle round the centre, storing them truncated to whole
+        // pixels in the reused Polygon in the same pass
+        VertexGenerator.fill(polyCenX, polyCenY, radius, pStartingAngle, pSides, pointsX, pointsY,
+                screenPolygon.xpoints, screenPolygon.ypoints);
 
-            // Update the starting angle for the next vertex
-            pStartingAngle = pStartingAngle + angleIncrement;
-        }
+        // Clears the cached bounds of the reused Polygon, as its vertices have changed
+        screenPolygon.invalidate();
 
         // Returns Polygon object containing all vertices
-        return p;
+        return screenPolygon;
     }
 
 
@@ -101,11 +112,119 @@ public class RegPolygon implements Comparable<RegPolygon> {
         g.drawPolygon(polygonPoints);
     }
 
+    /*
+     * Draws the polygon centred at a screen position with the given screen radius, as the scene view places it
+     * The vertices go into a Polygon owned by the caller and reused for every polygon drawn, so drawing a scene neither
+     * allocates nor gives each polygon its own vertex arrays
+     * For reduced quality, fills only if fill is true and the polygon is filled, and uses at most maxVertices evenly
+     * spaced vertices, so polygons with many sides approach their circle more coarsely
+     */
+    public void drawPolygonAt(Graphics2D g, double centreX, double centreY, double radius, Polygon buffer,
+                              boolean fill, int maxVertices) {
+        // Number of vertices drawn, at least 3 so the shape stays a polygon
+        int vertices = Math.max(3, Math.min(pSides, maxVertices));
+
+        // Grows the shared buffer if this polygon has more vertices than any drawn before
+        if (buffer.xpoints.length < vertices) {
+            buffer.xpoints = new int[vertices];
+            buffer.ypoints = new int[vertices];
+        }
+        buffer.npoints = vertices;
+
+        // Steps round the vertices from the starting angle, as getPolygonPoints does
+        VertexGenerator.fill(centreX, centreY, radius, pStartingAngle, vertices, buffer.xpoints, buffer.ypoints);
+        buffer.invalidate();
+
+        // Fills if the filled option is selected and fills are wanted, then draws the outline
+        g.setColor(pColor);
+        if (filled && fill) {
+            g.fillPolygon(buffer);
+        }
+        g.drawPolygon(buffer);
+    }
+
     /* Gets polygon ID */
     public int getID() {
         return pId;
     }
 
+    /* Gets number of polygon sides */
+    public int getSides() {
+        return pSides;
+    }
+
+    /* Gets starting angle of the first side in radians */
+    public double getStartingAngle() {
+        return pStartingAngle;
+    }
+
+    /* Sets starting angle of the first side in radians, rotating the polygon */
+    public void setStartingAngle(double startingAngle) {
+        this.pStartingAngle = startingAngle;
+        geometryVersion++;
+    }
+
+    /* Gets the number of times the polygon's shape has changed; scale and scene position only resize or move it */
+    public int getGeometryVersion() {
+        return geometryVersion;
+    }
+
+    /* Sets the display scale applied to the radius when drawing; the stored radius is unchanged */
+    public void setScale(double scale) {
+        this.pScale = scale;
+    }
+
+    /* Gets the display scale applied to the radius when drawing */
+    public double getScale() {
+        return pScale;
+    }
+
+    /* Gets X-coordinate of polygon centre in the scene */
+    public double getSceneX() {
+        return sceneX;
+    }
+
+    /* Gets Y-coordinate of polygon centre in the scene */
+    public double getSceneY() {
+        return sceneY;
+    }
+
+    /* Sets position of polygon centre in the scene; polygons added by hand sit at the scene origin */
+    public void setScenePosition(double x, double y) {
+        this.sceneX = x;
+        this.sceneY = y;
+    }
+
+    /* Gets polygon area, n/2 * r^2 * sin(2pi/n) for n sides and radius r */
+    public double getArea() {
+        return 0.5 * pSides * pRadius * pRadius * Math.sin(2 * Math.PI / pSides);
+    }
+
+    /* Gets polygon perimeter, 2n * r * sin(pi/n) for n sides and radius r */
+    public double getPerimeter() {
+        return 2 * pSides * pRadius * Math.sin(Math.PI / pSides);
+    }
+
+    /* Gets polygon apothem, the distance from the centre to the middle of a side, r * cos(pi/n) */
+    public double getApothem() {
+        return pRadius * Math.cos(Math.PI / pSides);
+    }
+
+    /* Gets polygon radius */
+    public double getRadius() {
+        return pRadius;
+    }
+
+    /* Gets polygon colour */
+    public Color getColor() {
+        return pColor;
+    }
+
+    /* Gets the fill option of the polygon */
+    public boolean isFilled() {
+        return filled;
+    }
+
     /* Formats polygon ID into a fixed-length string with leading zeros, ensuring a minimum length of 6 digits */
     public String getFormattedId(int id) {
         return String.format("%06d", id);
@@ -130,8 +249,9 @@ public class RegPolygon implements Comparable<RegPolygon> {
                 "\nPolygon Sides: " + pSides +
                 "\nPolygon Radius: " + pRadius +
                 "\nStarting Angle: " + pStartingAngle +
-                "\nPoints X: " + Arrays.toString(pointsX) +
-                "\nPoints Y: " + Arrays.toString(pointsY) +
+                "\nArea: " + getArea() + ", Perimeter: " + getPerimeter() + ", Apothem: " + getApothem() +
+                "\nPoints X: " + Arrays.toString(pointsX == null ? new double[pSides] : pointsX) +
+                "\nPoints Y: " + Arrays.toString(pointsY == null ? new double[pSides] : pointsY) +
                 "\nPolygon Color: " + pColor.toString();
     }
 }
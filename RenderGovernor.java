@@ -0,0 +1,121 @@
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * RenderGovernor class picks the drawing quality of the draw panel from how long its frames take to paint
+ *
+ * While frames follow each other closely, as during dragging, zooming, animation or resizing, a frame that overruns the
+ * budget steps quality down one level: first antialiasing is turned off, then fills are drawn as outlines, then
+ * polygons with many sides are drawn with fewer vertices and small polygons as points. A run of frames well inside the
+ * budget steps back up one level at a time, and once no frame has been painted for a short while the panel is
+ * repainted at full quality. A lone repaint after a pause never lowers quality, so an idle scene is always shown at
+ * its best.
+ */
+public class RenderGovernor {
+
+    // Quality levels, from best to fastest
+    public static final int FULL = 0;
+    public static final int NO_ANTIALIAS = 1;
+    public static final int OUTLINES = 2;
+    public static final int LOW_DETAIL = 3;
+
+    // Names of the quality levels, in the order above
+    private static final String[] NAMES = {"full", "no antialiasing", "outlines", "low detail"};
+
+    // Paint time allowed for one frame, for 60 frames per second
+    private static final long FRAME_BUDGET_NANOS = 16_666_667L;
+
+    // Time without frames after which the scene counts as idle and full quality returns, in milliseconds
+    private static final int IDLE_MILLIS = 250;
+
+    // Consecutive frames inside a third of the budget needed to step quality back up one level
+    private static final int FAST_FRAMES_TO_STEP_UP = 30;
+
+    // Most vertices drawn per polygon at low detail, and the screen radius below which a polygon becomes a point
+    private static final int LOW_DETAIL_VERTICES = 8;
+    private static final double LOW_DETAIL_POINT_RADIUS = 2.5;
+
+    // Current quality level
+    private int level = FULL;
+
+    // End of the previous frame in System.nanoTime units, or 0 before the first frame
+    private long lastFrameEnd;
+
+    // Consecutive frames painted well inside the budget
+    private int fastFrames;
+
+    // Restores full quality once frames stop
+    private final Timer idleTimer;
+
+    /* Creates a governor for a panel, which is repainted at full quality when it goes idle */
+    public RenderGovernor(JComponent panel) {
+        idleTimer = new Timer(IDLE_MILLIS, e -> {
+            if (level != FULL) {
+                level = FULL;
+                fastFrames = 0;
+                panel.repaint();
+            }
+        });
+        idleTimer.setRepeats(false);
+    }
+
+    /* Sets the rendering hints for the current level on the graphics about to be painted */
+    public void beginFrame(Graphics2D g) {
+        Object antialias = level == FULL ? RenderingHints.VALUE_ANTIALIAS_ON : RenderingHints.VALUE_ANTIALIAS_OFF;
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, antialias);
+    }
+
+    /*
+     * Records how long a frame took, given its start time from System.nanoTime, and adjusts the level for the next
+     * Only frames that closely follow the previous one can lower quality
+     */
+    public void endFrame(long startNanos) {
+        long now = System.nanoTime();
+        long duration = now - startNanos;
+        boolean interactive = lastFrameEnd != 0 && startNanos - lastFrameEnd < IDLE_MILLIS * 1_000_000L;
+        lastFrameEnd = now;
+
+        if (interactive && duration > FRAME_BUDGET_NANOS && level < LOW_DETAIL) {
+            level++;
+            fastFrames = 0;
+        } else if (duration < FRAME_BUDGET_NANOS / 3 && level > FULL) {
+            if (++fastFrames >= FAST_FRAMES_TO_STEP_UP) {
+                level--;
+                fastFrames = 0;
+            }
+        } else {
+            fastFrames = 0;
+        }
+
+        // Waits for a pause in frames to restore full quality
+        if (level != FULL) {
+            idleTimer.restart();
+        }
+    }
+
+    /* Returns true if filled polygons should be filled at the current level */
+    public boolean drawFills() {
+        return level < OUTLINES;
+    }
+
+    /* Returns the most vertices to draw for one polygon at the current level */
+    public int maxVertices() {
+        return level < LOW_DETAIL ? Integer.MAX_VALUE : LOW_DETAIL_VERTICES;
+    }
+
+    /* Returns the screen radius below which a polygon is drawn as a single point at the current level */
+    public double pointRadius() {
+        return level < LOW_DETAIL ? 1 : LOW_DETAIL_POINT_RADIUS;
+    }
+
+    /* Gets the current quality level */
+    public int getLevel() {
+        return level;
+    }
+
+    /* Returns the name of the current quality level, for the statistics overlay */
+    public String getLevelName() {
+        return NAMES[level];
+    }
+
+}
@@ -0,0 +1,183 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * SceneIndex class is a uniform grid of polygons by scene position, so the scene view finds the polygons in view
+ * without looking at the rest
+ * Polygons are bucketed by centre; a query widens its rectangle by the largest radius so polygons centred just outside
+ * but reaching in are found, then tests each candidate's bounding circle against the rectangle
+ * Each cell keeps the display positions of its polygons, so the polygons found are sorted back into display order and
+ * overlapping polygons are drawn in the same order as outside the scene view
+ * An index is built once per store snapshot and never changes
+ */
+public class SceneIndex {
+
+    // Target average number of polygons per grid cell
+    private static final int POLYGONS_PER_CELL = 4;
+
+    // Grid origin, cell size and dimensions
+    private final double originX;
+    private final double originY;
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+
+    // Polygons in display order
+    private final RegPolygon[] polygons;
+
+    // Polygons in cell order, and their display positions: those of cell c are cellPolygons[cellStart[c]] to
+    // cellPolygons[cellStart[c + 1]], in display order within each cell
+    private final int[] cellStart;
+    private final RegPolygon[] cellPolygons;
+    private final int[] cellPositions;
+
+    // Largest radius of any polygon, and the world bounds of all polygons
+    private final double maxRadius;
+    private final double minX;
+    private final double minY;
+    private final double maxX;
+    private final double maxY;
+
+    /* Builds the index of the given polygons by counting sort into grid cells */
+    public SceneIndex(List<RegPolygon> polygonList) {
+        polygons = polygonList.toArray(new RegPolygon[0]);
+        int n = polygons.length;
+        double loX = Double.MAX_VALUE;
+        double loY = Double.MAX_VALUE;
+        double hiX = -Double.MAX_VALUE;
+        double hiY = -Double.MAX_VALUE;
+        double largest = 0;
+        for (int i = 0; i < n; i++) {
+            RegPolygon p = polygons[i];
+            loX = Math.min(loX, p.getSceneX() - p.getRadius());
+            loY = Math.min(loY, p.getSceneY() - p.getRadius());
+            hiX = Math.max(hiX, p.getSceneX() + p.getRadius());
+            hiY = Math.max(hiY, p.getSceneY() + p.getRadius());
+            largest = Math.max(largest, p.getRadius());
+        }
+        if (n == 0) {
+            loX = loY = hiX = hiY = 0;
+        }
+        minX = loX;
+        minY = loY;
+        maxX = hiX;
+        maxY = hiY;
+        maxRadius = largest;
+
+        // Sizes cells so there are about POLYGONS_PER_CELL polygons in each on average
+        double width = Math.max(hiX - loX, 1e-9);
+        double height = Math.max(hiY - loY, 1e-9);
+        cellSize = Math.sqrt(width * height * POLYGONS_PER_CELL / Math.max(1, n));
+        originX = loX;
+        originY = loY;
+        columns = Math.max(1, (int) Math.ceil(width / cellSize));
+        rows = Math.max(1, (int) Math.ceil(height / cellSize));
+
+        // Counts polygons per cell, then places each one
+        cellStart = new int[columns * rows + 1];
+        int[] cells = new int[n];
+        for (int i = 0; i < n; i++) {
+            RegPolygon p = polygons[i];
+            cells[i] = row(p.getSceneY()) * columns + column(p.getSceneX());
+            cellStart[cells[i] + 1]++;
+        }
+        for (int c = 0; c < columns * rows; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        cellPolygons = new RegPolygon[n];
+        cellPositions = new int[n];
+        int[] next = new int[columns * rows];
+        System.arraycopy(cellStart, 0, next, 0, next.length);
+        for (int i = 0; i < n; i++) {
+            cellPolygons[next[cells[i]]] = polygons[i];
+            cellPositions[next[cells[i]]++] = i;
+        }
+    }
+
+    /*
+     * Calls the action for each polygon whose bounding circle meets the given world rectangle, in display order
+     * Polygons are found cell by cell, then their display positions are sorted, so later polygons are drawn on top
+     */
+    public void forEachInView(double viewMinX, double viewMinY, double viewMaxX, double viewMaxY,
+                              Consumer<RegPolygon> action) {
+        if (polygons.length == 0 || viewMinX > maxX || viewMaxX < minX || viewMinY > maxY || viewMaxY < minY) {
+            return;
+        }
+        int x0 = column(viewMinX - maxRadius);
+        int x1 = column(viewMaxX + maxRadius);
+        int y0 = row(viewMinY - maxRadius);
+        int y1 = row(viewMaxY + maxRadius);
+
+        // Collects the display positions of the polygons in view
+        int[] found = new int[64];
+        int count = 0;
+        for (int y = y0; y <= y1; y++) {
+            for (int c = y * columns + x0; c <= y * columns + x1; c++) {
+                for (int i = cellStart[c]; i < cellStart[c + 1]; i++) {
+                    RegPolygon p = cellPolygons[i];
+                    double r = p.getRadius();
+                    if (p.getSceneX() + r >= viewMinX && p.getSceneX() - r <= viewMaxX &&
+                            p.getSceneY() + r >= viewMinY && p.getSceneY() - r <= viewMaxY) {
+                        if (count == found.length) {
+                            found = Arrays.copyOf(found, count * 2);
+                        }
+                        found[count++] = cellPositions[i];
+                    }
+                }
+            }
+        }
+
+        // Visits them in display order: a few are sorted, and more are marked in a bitset walked in order, which costs
+        // one word per 64 polygons in the index and beats sorting once about one polygon in a thousand is in view
+        if (count < polygons.length / 1024) {
+            Arrays.sort(found, 0, count);
+            for (int i = 0; i < count; i++) {
+                action.accept(polygons[found[i]]);
+            }
+            return;
+        }
+        long[] marked = new long[(polygons.length + 63) / 64];
+        for (int i = 0; i < count; i++) {
+            marked[found[i] >>> 6] |= 1L << found[i];
+        }
+        for (int w = 0; w < marked.length; w++) {
+            long word = marked[w];
+            while (word != 0) {
+                action.accept(polygons[(w << 6) + Long.numberOfTrailingZeros(word)]);
+                word &= word - 1;
+            }
+        }
+    }
+
+    /* Gets the smallest world x coordinate reached by any polygon */
+    public double getMinX() {
+        return minX;
+    }
+
+    /* Gets the smallest world y coordinate reached by any polygon */
+    public double getMinY() {
+        return minY;
+    }
+
+    /* Gets the largest world x coordinate reached by any polygon */
+    public double getMaxX() {
+        return maxX;
+    }
+
+    /* Gets the largest world y coordinate reached by any polygon */
+    public double getMaxY() {
+        return maxY;
+    }
+
+    // Returns the grid column holding an x coordinate, clamped to the grid
+    private int column(double x) {
+        return (int) Math.min(columns - 1, Math.max(0, (x - originX) / cellSize));
+    }
+
+    // Returns the grid row holding a y coordinate, clamped to the grid
+    private int row(double y) {
+        return (int) Math.min(rows - 1, Math.max(0, (y - originY) / cellSize));
+    }
+
+}
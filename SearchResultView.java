@@ -0,0 +1,90 @@
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * SearchResultView class shows the polygons matched by an ID range or prefix search in a scrolling list
+ * Selecting rows makes those polygons the current selection in the ContainerFrame
+ */
+public class SearchResultView {
+
+    // Window containing the result list, and the ContainerFrame the results belong to
+    protected JDialog dialog;
+    protected ContainerFrame containerFrame;
+
+    // Polygons matched by the query, in ascending ID order
+    private final RegPolygon[] results;
+
+    // Search query shown in the window title
+    private final String query;
+
+    public SearchResultView(ContainerFrame frame, String query, RegPolygon[] results) {
+        this.containerFrame = frame;
+        this.query = query;
+        this.results = results;
+    }
+
+    /*
+     * Creates the graphical user interface for the result list
+     * The list model reads straight from the result array and rows have a fixed height, so only the visible rows are
+     * ever rendered, however many polygons matched
+     */
+    public void createResultView() {
+
+        // Creates a non-modal dialog so the main frame can still be used while results are open
+        dialog = new JDialog(containerFrame, "Search Results: " + query + " (" + results.length + ")", false);
+
+        // List model reading rows directly from the result array without copying them
+        AbstractListModel<RegPolygon> model = new AbstractListModel<>() {
+            @Override
+            public int getSize() {
+                return results.length;
+            }
+
+            @Override
+            public RegPolygon getElementAt(int index) {
+                return results[index];
+            }
+        };
+
+        JList<RegPolygon> resultList = new JList<>(model);
+        resultList.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+
+        // Fixed cell height stops the list measuring every row when it is first shown
+        resultList.setFixedCellHeight(20);
+
+        // Renders each polygon as a one line summary rather than the full toString output
+        resultList.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                RegPolygon p = (RegPolygon) value;
+                String text = "Polygon " + p.getFormattedId(p.getID()) + " - " + p.getSides() + " sides, radius " +
+                        p.getRadius() + (p.isFilled() ? ", filled" : "");
+                return super.getListCellRendererComponent(list, text, index, isSelected, cellHasFocus);
+            }
+        });
+
+        // Selecting rows draws those polygons in the ContainerFrame
+        resultList.addListSelectionListener(e -> {
+            if (e.getValueIsAdjusting() || resultList.isSelectionEmpty()) {
+                return;
+            }
+            RegPolygon[] selected = resultList.getSelectedValuesList().toArray(new RegPolygon[0]);
+            containerFrame.selectPolygons(selected);
+            containerFrame.repaint();
+            if (selected.length == 1) {
+                containerFrame.appendText("Current Polygon: " + selected[0].getFormattedId(selected[0].getID()));
+            } else {
+                containerFrame.appendText("Current Polygons: " + selected.length + " selected");
+            }
+        });
+
+        // Adds a scroll pane for the list and sets properties of the dialog
+        dialog.add(new JScrollPane(resultList));
+        dialog.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+        dialog.setSize(400, 400);
+        dialog.setLocationRelativeTo(containerFrame);
+        dialog.setVisible(true);
+    }
+
+}
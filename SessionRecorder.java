@@ -0,0 +1,96 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SessionRecorder class captures the commands a user issues through the window's buttons and fields while recording
+ * Each action is kept as the command line that repeats it (see CommandRegistry), with the pause before it as a
+ * comment, so a saved session is a script that the Script button or SessionReplay can run back
+ *
+ * Add, search, lookup, sort, display, merge and export have command lines and are replayed. Filter, generate, gallery,
+ * animate, overlaps, poster, follow and script have none, so each is kept as a "# not replayable:" comment describing
+ * it, with its pause, and a replay passes over it; the view toggles and colour choice are not recorded at all
+ */
+public class SessionRecorder {
+
+    // Command lines and skipped action comments recorded so far, with pause comments, and whether recording is on
+    private final List<String> lines = new ArrayList<>();
+    private boolean recording;
+
+    // Number of command lines and of skipped actions recorded
+    private int commands;
+    private int skipped;
+
+    // Time of the previous recorded action in System.nanoTime units
+    private long lastAction;
+
+    /* Starts a new recording, discarding any earlier one */
+    public void start() {
+        lines.clear();
+        commands = 0;
+        skipped = 0;
+        lastAction = System.nanoTime();
+        recording = true;
+    }
+
+    /* Stops recording and returns the number of commands recorded */
+    public int stop() {
+        recording = false;
+        return commandCount();
+    }
+
+    /* Returns true while recording */
+    public boolean isRecording() {
+        return recording;
+    }
+
+    /* Records a command line if recording is on, preceded by the pause since the previous action */
+    public void record(String commandLine) {
+        if (recording) {
+            add(commandLine);
+            commands++;
+        }
+    }
+
+    /*
+     * Records an action that has no command line as a comment describing it, if recording is on, preceded by the
+     * pause since the previous action; a replay skips it, but the script still shows where it happened
+     */
+    public void recordSkipped(String action) {
+        if (recording) {
+            add("# not replayable: " + action);
+            skipped++;
+        }
+    }
+
+    /* Returns the number of commands in the recording */
+    public int commandCount() {
+        return commands;
+    }
+
+    /* Returns the number of actions recorded only as comments because they cannot be replayed */
+    public int skippedCount() {
+        return skipped;
+    }
+
+    /* Writes the recording as a script */
+    public void save(Path path) throws IOException {
+        List<String> script = new ArrayList<>();
+        script.add("# Session recorded " + LocalDateTime.now().withNano(0) + ", " + commands + " commands, " +
+                skipped + " not replayable");
+        script.addAll(lines);
+        Files.write(path, script);
+    }
+
+    // Adds a line preceded by the pause since the previous action
+    private void add(String line) {
+        long now = System.nanoTime();
+        lines.add("# +" + (now - lastAction) / 1_000_000 + " ms");
+        lines.add(line);
+        lastAction = now;
+    }
+
+}
@@ -0,0 +1,195 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SessionReplay class replays a recorded session (see SessionRecorder) against a large generated polygon set and
+ * reports how long each action takes, from the command starting to the draw panel finishing its repaint
+ *
+ * With a display, which may be Xvfb, the real window is built in batch mode, so notifications are queued instead of
+ * blocking, and every action runs on the event dispatch thread through the window's ContainerFrameHandler as its
+ * button would once its dialog is answered (see ContainerFrameHandler.replay), followed by a synchronous repaint of the
+ * draw panel. Without a display the window and its handler cannot be built, so each action runs the registry command
+ * the handler delegates to, output goes to an off-screen text area and the selection is painted onto an off-screen
+ * image the size of the draw panel instead. Every run starts from a freshly generated set, and the first of several
+ * runs is a warm-up that is not counted.
+ *
+ * Usage: java -cp classes SessionReplay session.txt [polygons] [runs]
+ * Prints each action of the last run, a table of percentiles per command, and one RESULT line per command with its
+ * median, 99th percentile and maximum in nanoseconds, for comparing builds run to run.
+ */
+public class SessionReplay {
+
+    // Polygons generated before each run, and number of runs, unless given on the command line
+    private static final int DEFAULT_POLYGONS = 200_000;
+    private static final int DEFAULT_RUNS = 5;
+
+    // Size of the window, as Main opens it, and of the off-screen image standing in for the draw panel
+    private static final int FRAME_WIDTH = 1500;
+    private static final int FRAME_HEIGHT = 750;
+    private static final int PANEL_WIDTH = 1000;
+    private static final int PANEL_HEIGHT = 600;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Usage: java SessionReplay session.txt [polygons] [runs]");
+            System.exit(2);
+        }
+        List<String> commandLines = new ArrayList<>();
+        for (String line : Files.readAllLines(Paths.get(args[0]))) {
+            if (!line.isBlank() && !line.trim().startsWith("#")) {
+                commandLines.add(line.trim());
+            }
+        }
+        int polygons = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_POLYGONS;
+        int runs = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_RUNS;
+        boolean headless = GraphicsEnvironment.isHeadless();
+        System.out.println("Replaying " + commandLines.size() + " commands from " + args[0] + " over " + polygons +
+                " polygons, " + runs + (runs == 1 ? " run" : " runs") + (headless ? ", headless" : ", with display"));
+
+        // IDs added by the session are kept free, so its adds succeed on the generated set
+        int[] sessionIds = sessionIds(commandLines);
+
+        Map<String, LatencyRecorder> latencies = new LinkedHashMap<>();
+        for (int run = 0; run < runs; run++) {
+            boolean counted = runs == 1 || run > 0;
+            boolean last = run == runs - 1;
+            long[] times;
+            try {
+                times = replay(commandLines, polygons, sessionIds, headless, counted ? latencies : null);
+            } catch (InvocationTargetException ex) {
+                System.err.println("Error: replay failed - " + ex.getCause().getMessage());
+                System.exit(1);
+                return;
+            }
+            if (last) {
+                for (int i = 0; i < commandLines.size(); i++) {
+                    System.out.printf("  %3d  %12s  %s%n", i + 1, LatencyRecorder.formatMillis(times[i]),
+                            commandLines.get(i));
+                }
+            }
+        }
+
+        // Summarises each command over the counted runs
+        System.out.printf("%-10s %6s %12s %12s %12s%n", "command", "n", "p50", "p99", "max");
+        for (Map.Entry<String, LatencyRecorder> entry : latencies.entrySet()) {
+            LatencyRecorder recorder = entry.getValue();
+            System.out.printf("%-10s %6d %12s %12s %12s%n", entry.getKey(), recorder.getCount(),
+                    LatencyRecorder.formatMillis(recorder.getPercentile(0.5)),
+                    LatencyRecorder.formatMillis(recorder.getPercentile(0.99)),
+                    LatencyRecorder.formatMillis(recorder.getMax()));
+        }
+        for (Map.Entry<String, LatencyRecorder> entry : latencies.entrySet()) {
+            LatencyRecorder recorder = entry.getValue();
+            System.out.println("RESULT " + entry.getKey() + " " + recorder.getPercentile(0.5) + " " +
+                    recorder.getPercentile(0.99) + " " + recorder.getMax());
+        }
+        System.exit(0);
+    }
+
+    /*
+     * Runs the session once on a freshly generated set and returns the time of each action in nanoseconds, recording
+     * them by command name if a map is given
+     */
+    private static long[] replay(List<String> commandLines, int polygons, int[] sessionIds, boolean headless,
+                                 Map<String, LatencyRecorder> latencies)
+            throws InterruptedException, InvocationTargetException {
+
+        // Builds the window, or its off-screen stand-ins, on the event dispatch thread
+        ContainerFrame[] frame = new ContainerFrame[1];
+        PolygonStore[] store = new PolygonStore[1];
+        JTextArea[] output = new JTextArea[1];
+        SwingUtilities.invokeAndWait(() -> {
+            if (headless) {
+                store[0] = new PolygonStore();
+                output[0] = new JTextArea();
+            } else {
+                frame[0] = new ContainerFrame();
+                frame[0].createComponents();
+                frame[0].setSize(FRAME_WIDTH, FRAME_HEIGHT);
+                frame[0].setVisible(true);
+                frame[0].batchModeBox.setSelected(true);
+                store[0] = frame[0].getPolygonStore();
+            }
+        });
+
+        // Preloads the set with the generator's default settings
+        PolygonGenerator generator = new PolygonGenerator(42, 3, 12, 10, 100, 0.5, null, 10000);
+        store[0].addAll(generator.generate(polygons, sessionIds));
+
+        CommandRegistry commands = CommandRegistry.standard();
+        CommandContext context = new CommandContext(store[0], line -> output[0].append(line + "\n"), null);
+        BufferedImage panelImage = headless ?
+                new BufferedImage(PANEL_WIDTH, PANEL_HEIGHT, BufferedImage.TYPE_INT_RGB) : null;
+        Dimension panelSize = new Dimension(PANEL_WIDTH, PANEL_HEIGHT);
+
+        long[] times = new long[commandLines.size()];
+        for (int i = 0; i < commandLines.size(); i++) {
+            String line = commandLines.get(i);
+            int index = i;
+
+            // Runs the action and its repaint as one event, as a button press would be handled
+            SwingUtilities.invokeAndWait(() -> {
+                long start = System.nanoTime();
+                if (headless) {
+                    try {
+                        commands.dispatch(context, line);
+                    } catch (Exception ex) {
+                        throw new IllegalStateException("Command " + (index + 1) + " (" + line + ") failed - " +
+                                ex.getMessage(), ex);
+                    }
+                    Graphics2D g = panelImage.createGraphics();
+                    g.clearRect(0, 0, PANEL_WIDTH, PANEL_HEIGHT);
+                    for (RegPolygon p : context.getSelection()) {
+                        p.drawPolygon(g, panelSize);
+                    }
+                    g.dispose();
+                } else {
+                    frame[0].handler.replay(line);
+                    ContainerPanel panel = frame[0].drawPanel;
+                    panel.paintImmediately(0, 0, panel.getWidth(), panel.getHeight());
+                }
+                times[index] = System.nanoTime() - start;
+            });
+
+            if (latencies != null) {
+                String name = line.split("\\s+", 2)[0];
+                latencies.computeIfAbsent(name, n -> new LatencyRecorder()).record(times[i]);
+            }
+        }
+
+        if (frame[0] != null) {
+            // Failures were queued in the status panel rather than stopping the run
+            System.out.println("Window notifications: " + frame[0].statusPanel.getSummary());
+            SwingUtilities.invokeAndWait(frame[0]::dispose);
+        }
+        return times;
+    }
+
+    // Returns the IDs of the session's add commands in ascending order, without repeats
+    private static int[] sessionIds(List<String> commandLines) {
+        PolygonValidator validator = new PolygonValidator();
+        int[] ids = new int[commandLines.size()];
+        int n = 0;
+        for (String line : commandLines) {
+            if (line.startsWith("add ")) {
+                String record = line.substring(4).trim();
+                int comma = record.indexOf(',');
+                if (validator.validateId(comma == -1 ? record : record.substring(0, comma).trim()) ==
+                        PolygonValidator.VALID) {
+                    ids[n++] = validator.intValue();
+                }
+            }
+        }
+        return Arrays.stream(ids, 0, n).sorted().distinct().toArray();
+    }
+
+}
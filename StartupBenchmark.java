@@ -0,0 +1,106 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * StartupBenchmark class measures how long the tool takes to show its first frame, against a target time
+ *
+ * Each run launches the tool in a new Java process with --startup-benchmark and reads the phase times it prints.
+ * The runs are repeated with a class data sharing archive, created by a first run with -XX:ArchiveClassesAtExit,
+ * to show what the archive saves. Exits with status 1 if the median time to the first frame misses the target.
+ *
+ * Usage: java -cp classes StartupBenchmark [runs] [targetMillis]
+ * Needs a display, as the tool shows its frame on every run.
+ */
+public class StartupBenchmark {
+
+    // Runs for each configuration, and the target median time from launch to the first painted frame
+    private static final int DEFAULT_RUNS = 5;
+    private static final long DEFAULT_TARGET_MILLIS = 800;
+
+    // Archive file created and used for the class data sharing runs
+    private static final String ARCHIVE_FILE = "polygons-startup.jsa";
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_RUNS;
+        long target = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_TARGET_MILLIS;
+
+        // Plain runs, with only the default class data sharing archive of the Java runtime
+        long plain = measure("default", runs, new ArrayList<>());
+
+        // Creates the application archive, then runs with it
+        File archive = new File(System.getProperty("java.io.tmpdir"), ARCHIVE_FILE);
+        launch(List.of("-XX:ArchiveClassesAtExit=" + archive.getPath()));
+        long shared = archive.exists() ?
+                measure("AppCDS", runs, List.of("-XX:SharedArchiveFile=" + archive.getPath())) : -1;
+        if (shared == -1) {
+            System.out.println("AppCDS: archive could not be created; skipped");
+        }
+
+        // Judges the best configuration against the target
+        long best = shared == -1 ? plain : Math.min(plain, shared);
+        System.out.println("Target: first frame within " + target + " ms; best median " + best + " ms - " +
+                (best <= target ? "met" : "MISSED"));
+        System.exit(best <= target ? 0 : 1);
+    }
+
+    // Launches the tool a number of times with the given JVM options and prints the phase times; returns the median
+    // time to the first painted frame in milliseconds
+    private static long measure(String name, int runs, List<String> jvmOptions)
+            throws IOException, InterruptedException {
+        long[] painted = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            String report = launch(jvmOptions);
+            System.out.println(name + " run " + (i + 1) + ": " + report);
+            painted[i] = phaseMillis(report, "painted");
+        }
+        Arrays.sort(painted);
+        long median = painted[runs / 2];
+        System.out.println(name + ": median first frame " + median + " ms (min " + painted[0] + ", max " +
+                painted[runs - 1] + ")");
+        return median;
+    }
+
+    // Runs the tool once in a new Java process and returns the startup report it prints
+    private static String launch(List<String> jvmOptions) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("Main");
+        command.add(Main.STARTUP_BENCHMARK_OPTION);
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String report = null;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("Startup:")) {
+                    report = line;
+                }
+            }
+        }
+        if (process.waitFor() != 0 || report == null) {
+            throw new IOException("Startup run failed (exit status " + process.exitValue() + ")");
+        }
+        return report;
+    }
+
+    // Reads the milliseconds of one phase from a report such as "Startup: main=95ms (+95) painted=402ms (+307)"
+    private static long phaseMillis(String report, String phase) throws IOException {
+        int start = report.indexOf(" " + phase + "=");
+        if (start == -1) {
+            throw new IOException("No " + phase + " time in: " + report);
+        }
+        start += phase.length() + 2;
+        return Long.parseLong(report.substring(start, report.indexOf("ms", start)));
+    }
+
+}
@@ -0,0 +1,53 @@
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Optional;
+
+/**
+ * StartupTimer class records how long each startup phase takes, measured from the launch of the Java process
+ * Phases are marked from whichever thread reaches them; the report lists each phase with its time since launch and
+ * the time since the previous phase
+ */
+public class StartupTimer {
+
+    // Time the process was launched, in System.nanoTime units
+    private final long launchNanos;
+
+    // Names of the marked phases and their times since launch in nanoseconds, in the order they were marked
+    private final ArrayList<String> phases = new ArrayList<>();
+    private final ArrayList<Long> times = new ArrayList<>();
+
+    /*
+     * Creates a timer measuring from the process launch time reported by the operating system, or from now if it
+     * reports none; the launch time is only as precise as the operating system keeps it, typically 10 ms
+     */
+    public StartupTimer() {
+        long now = System.nanoTime();
+        Optional<Instant> launched = ProcessHandle.current().info().startInstant();
+        long sinceLaunch = launched.map(instant -> {
+            Instant current = Instant.now();
+            return (current.getEpochSecond() - instant.getEpochSecond()) * 1_000_000_000L +
+                    (current.getNano() - instant.getNano());
+        }).orElse(0L);
+        launchNanos = now - Math.max(0, sinceLaunch);
+    }
+
+    /* Marks the end of a startup phase; safe to call from any thread */
+    public synchronized void mark(String phase) {
+        phases.add(phase);
+        times.add(System.nanoTime() - launchNanos);
+    }
+
+    /* Returns a one line report such as "Startup: main=95ms (+95) frame=310ms (+215) painted=402ms (+92)" */
+    public synchronized String getReport() {
+        StringBuilder report = new StringBuilder("Startup:");
+        long previous = 0;
+        for (int i = 0; i < phases.size(); i++) {
+            long millis = times.get(i) / 1_000_000;
+            report.append(' ').append(phases.get(i)).append('=').append(millis).append("ms (+")
+                    .append(millis - previous).append(')');
+            previous = millis;
+        }
+        return report.toString();
+    }
+
+}
@@ -0,0 +1,120 @@
+import javax.swing.*;
+import java.awt.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * StatusPanel class collects notifications while batch mode is on, instead of showing one blocking dialog for each
+ * Messages can be queued from any thread without blocking; a timer moves them into a collapsible list a few times a
+ * second, and a one-line header keeps running totals of errors, warnings and information messages
+ */
+public class StatusPanel extends JPanel {
+
+    // Serialized form version, as JPanel is Serializable
+    private static final long serialVersionUID = 1L;
+
+    // Most messages kept in the list; older ones are dropped from view but still counted
+    private static final int MAX_SHOWN = 1000;
+
+    // How often queued messages are moved into the list, in milliseconds
+    private static final int REFRESH_MILLIS = 250;
+
+    // Messages waiting to be shown, added from any thread
+    private final ConcurrentLinkedQueue<String> pending = new ConcurrentLinkedQueue<>();
+
+    // Running totals since the last reset
+    private final AtomicInteger errors = new AtomicInteger();
+    private final AtomicInteger warnings = new AtomicInteger();
+    private final AtomicInteger infos = new AtomicInteger();
+
+    // Header button that expands and collapses the list, showing the totals
+    private final JToggleButton header;
+
+    // List of shown messages and the scroll pane holding it
+    private final DefaultListModel<String> messages = new DefaultListModel<>();
+    private final JScrollPane listPane;
+
+    public StatusPanel() {
+        setLayout(new BorderLayout());
+
+        // Message list, hidden until the header is clicked
+        JList<String> list = new JList<>(messages);
+        list.setFixedCellHeight(18);
+        listPane = new JScrollPane(list);
+        listPane.setPreferredSize(new Dimension(200, 150));
+        listPane.setVisible(false);
+
+        // Collapsed by default; clicking the header shows or hides the message list
+        header = new JToggleButton();
+        header.setHorizontalAlignment(SwingConstants.LEFT);
+        header.addActionListener(e -> {
+            listPane.setVisible(header.isSelected());
+            updateHeader();
+            revalidate();
+        });
+
+        add(header, BorderLayout.NORTH);
+        add(listPane, BorderLayout.CENTER);
+        updateHeader();
+
+        // Moves queued messages into the list on the event dispatch thread
+        Timer refresh = new Timer(REFRESH_MILLIS, e -> drain());
+        refresh.start();
+    }
+
+    /* Queues a message of the given JOptionPane message type; safe to call from any thread and never blocks */
+    public void queue(String message, String title, int messageType) {
+        String label;
+        if (messageType == JOptionPane.ERROR_MESSAGE) {
+            errors.incrementAndGet();
+            label = "[Error] ";
+        } else if (messageType == JOptionPane.WARNING_MESSAGE) {
+            warnings.incrementAndGet();
+            label = "[Warning] ";
+        } else {
+            infos.incrementAndGet();
+            label = "[Info] ";
+        }
+        pending.add(label + title + ": " + message.replace('\n', ' '));
+    }
+
+    /* Returns a one line summary of the totals since the last reset */
+    public String getSummary() {
+        int total = errors.get() + warnings.get() + infos.get();
+        return total + (total == 1 ? " message" : " messages") + " (" + errors.get() + " errors, " +
+                warnings.get() + " warnings, " + infos.get() + " information)";
+    }
+
+    /* Clears the totals and the message list for a new batch */
+    public void reset() {
+        pending.clear();
+        messages.clear();
+        errors.set(0);
+        warnings.set(0);
+        infos.set(0);
+        updateHeader();
+    }
+
+    // Moves all queued messages into the list, trimming the oldest beyond the display limit
+    private void drain() {
+        boolean changed = false;
+        String message;
+        while ((message = pending.poll()) != null) {
+            messages.addElement(message);
+            changed = true;
+        }
+        if (!changed) {
+            return;
+        }
+        if (messages.size() > MAX_SHOWN) {
+            messages.removeRange(0, messages.size() - MAX_SHOWN - 1);
+        }
+        updateHeader();
+    }
+
+    // Shows the totals and whether the list is expanded in the header
+    private void updateHeader() {
+        header.setText((header.isSelected() ? "\u25BE " : "\u25B8 ") + "Status: " + getSummary());
+    }
+
+}
@@ -0,0 +1,167 @@
+import java.awt.Color;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+
+/**
+ * SvgExporter class writes polygons to an SVG file, placing each polygon at its scene position
+ * Each side count is written once as a unit <symbol> whose vertices are computed a single time; every polygon is then
+ * a short <use> element that translates, rotates and scales the shared symbol, so output stays compact
+ * Elements are streamed straight to a buffered writer, so memory use does not grow with the number of polygons
+ */
+public class SvgExporter {
+
+    // Size of the output buffer in characters
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // Margin added around the polygons in the SVG view box
+    private static final double MARGIN = 10;
+
+    // Hex digits for writing colours
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /* Exports the polygons to an SVG file at the given path, replacing any existing file */
+    public void export(RegPolygon[] polygons, Path path) throws IOException {
+        try (Writer out = new BufferedWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            export(polygons, out);
+        }
+    }
+
+    /*
+     * Writes the polygons as an SVG document to the writer
+     * A first pass finds the scene bounds and the side counts in use; a second pass streams one element per polygon
+     */
+    public void export(RegPolygon[] polygons, Writer out) throws IOException {
+
+        // Finds the bounds of all polygons and which side counts need a symbol
+        double minX = 0;
+        double minY = 0;
+        double maxX = 0;
+        double maxY = 0;
+        BitSet sideCounts = new BitSet();
+        for (int i = 0; i < polygons.length; i++) {
+            RegPolygon p = polygons[i];
+            double r = p.getRadius();
+            if (i == 0) {
+                minX = p.getSceneX() - r;
+                minY = p.getSceneY() - r;
+                maxX = p.getSceneX() + r;
+                maxY = p.getSceneY() + r;
+            } else {
+                minX = Math.min(minX, p.getSceneX() - r);
+                minY = Math.min(minY, p.getSceneY() - r);
+                maxX = Math.max(maxX, p.getSceneX() + r);
+                maxY = Math.max(maxY, p.getSceneY() + r);
+            }
+            sideCounts.set(p.getSides());
+        }
+
+        // Writes the document header with a view box around the scene
+        out.write("<svg xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\" viewBox=\"");
+        writeNumber(out, minX - MARGIN);
+        out.write(' ');
+        writeNumber(out, minY - MARGIN);
+        out.write(' ');
+        writeNumber(out, maxX - minX + 2 * MARGIN);
+        out.write(' ');
+        writeNumber(out, maxY - minY + 2 * MARGIN);
+        out.write("\">\n<defs>\n");
+
+        // Writes one unit radius symbol for each side count; the stroke is kept at 1 pixel whatever the scale
+        for (int sides = sideCounts.nextSetBit(0); sides >= 0; sides = sideCounts.nextSetBit(sides + 1)) {
+            out.write("<symbol id=\"s");
+            writeNumber(out, sides);
+            out.write("\" overflow=\"visible\"><polygon vector-effect=\"non-scaling-stroke\" points=\"");
+            double angleIncrement = 2 * Math.PI / sides;
+            for (int i = 0; i < sides; i++) {
+                if (i > 0) {
+                    out.write(' ');
+                }
+                writeUnit(out, Math.cos(i * angleIncrement));
+                out.write(',');
+                writeUnit(out, Math.sin(i * angleIncrement));
+            }
+            out.write("\"/></symbol>\n");
+        }
+        out.write("</defs>\n");
+
+        // Streams one element per polygon referring to the symbol for its side count
+        for (RegPolygon p : polygons) {
+            out.write("<use xlink:href=\"#s");
+            writeNumber(out, p.getSides());
+            out.write("\" transform=\"translate(");
+            writeNumber(out, p.getSceneX());
+            out.write(' ');
+            writeNumber(out, p.getSceneY());
+            out.write(") rotate(");
+            writeNumber(out, Math.toDegrees(p.getStartingAngle()));
+            out.write(") scale(");
+            writeNumber(out, p.getRadius());
+            out.write(")\" stroke=\"");
+            writeColour(out, p.getColor());
+            out.write("\" fill=\"");
+            if (p.isFilled()) {
+                writeColour(out, p.getColor());
+            } else {
+                out.write("none");
+            }
+            out.write("\"/>\n");
+        }
+
+        out.write("</svg>\n");
+    }
+
+    // Writes a colour as a 6 digit hex value such as #ff8000
+    private static void writeColour(Writer out, Color colour) throws IOException {
+        int rgb = colour.getRGB();
+        out.write('#');
+        for (int shift = 20; shift >= 0; shift -= 4) {
+            out.write(HEX[(rgb >> shift) & 0xF]);
+        }
+    }
+
+    // Writes a number rounded to 2 decimal places, without trailing zeros and without building a string
+    private static void writeNumber(Writer out, double value) throws IOException {
+        writeFixed(out, Math.round(value * 100), 2);
+    }
+
+    // Writes a unit vertex coordinate rounded to 4 decimal places, enough for large radii
+    private static void writeUnit(Writer out, double value) throws IOException {
+        writeFixed(out, Math.round(value * 10000), 4);
+    }
+
+    // Writes a fixed point value scaled by 10 to the power of decimals, dropping trailing zeros
+    private static void writeFixed(Writer out, long scaled, int decimals) throws IOException {
+        if (scaled < 0) {
+            out.write('-');
+            scaled = -scaled;
+        }
+        long unit = 1;
+        for (int i = 0; i < decimals; i++) {
+            unit *= 10;
+        }
+        writeDigits(out, scaled / unit);
+        long fraction = scaled % unit;
+        if (fraction != 0) {
+            out.write('.');
+            // Writes fraction digits from the most significant, stopping once the rest are zeros
+            for (long digit = unit / 10; fraction != 0; digit /= 10) {
+                out.write((char) ('0' + fraction / digit));
+                fraction %= digit;
+            }
+        }
+    }
+
+    // Writes the decimal digits of a non-negative whole number
+    private static void writeDigits(Writer out, long value) throws IOException {
+        if (value >= 10) {
+            writeDigits(out, value / 10);
+        }
+        out.write((char) ('0' + value % 10));
+    }
+
+}
@@ -0,0 +1,95 @@
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ThumbnailCache class keeps rendered polygon thumbnails, bounded by the memory their pixels use
+ * Images are keyed by polygon ID, colour and geometry version, so a rotated or recoloured polygon misses the cache
+ * rather than showing a stale image; when the byte limit is passed the least recently used images are dropped first
+ *
+ * The cache is not thread safe and is used only on the event dispatch thread
+ */
+public class ThumbnailCache {
+
+    // Most bytes of pixel data kept in the cache
+    private final long maxBytes;
+
+    // Bytes of pixel data currently kept
+    private long usedBytes;
+
+    // Cached images in access order, least recently used first
+    private final LinkedHashMap<Long, BufferedImage> images = new LinkedHashMap<>(256, 0.75f, true);
+
+    // Number of lookups that found an image, and that did not
+    private long hits;
+    private long misses;
+
+    public ThumbnailCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /*
+     * Returns the cache key for a polygon's current shape and colour: 20 bits of ID, 24 of RGB colour (polygon colours
+     * are always opaque) and the low 20 bits of the geometry version
+     */
+    public static long key(RegPolygon polygon) {
+        return ((long) polygon.getID() << 44) | ((long) (polygon.getColor().getRGB() & 0xFFFFFF) << 20) |
+                (polygon.getGeometryVersion() & 0xFFFFFL);
+    }
+
+    /* Returns the cached image for the key, marking it recently used, or null if there is none */
+    public BufferedImage get(long key) {
+        BufferedImage image = images.get(key);
+        if (image == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return image;
+    }
+
+    /* Adds an image, dropping the least recently used images until the cache is back within its byte limit */
+    public void put(long key, BufferedImage image) {
+        BufferedImage previous = images.put(key, image);
+        if (previous != null) {
+            usedBytes -= bytes(previous);
+        }
+        usedBytes += bytes(image);
+
+        Iterator<Map.Entry<Long, BufferedImage>> eldest = images.entrySet().iterator();
+        while (usedBytes > maxBytes && eldest.hasNext()) {
+            usedBytes -= bytes(eldest.next().getValue());
+            eldest.remove();
+        }
+    }
+
+    /* Drops every cached image */
+    public void clear() {
+        images.clear();
+        usedBytes = 0;
+    }
+
+    /* Returns the number of cached images */
+    public int size() {
+        return images.size();
+    }
+
+    /* Returns the bytes of pixel data currently cached */
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+
+    /* Returns a one line summary such as "420 thumbnails, 15.1 of 16.0 MB, 97% hits" */
+    public String getSummary() {
+        long lookups = hits + misses;
+        return String.format("%d thumbnails, %.1f of %.1f MB, %d%% hits", images.size(), usedBytes / 1048576.0,
+                maxBytes / 1048576.0, lookups == 0 ? 0 : hits * 100 / lookups);
+    }
+
+    // Returns the bytes of pixel data in an image, at 4 bytes per pixel
+    private static long bytes(BufferedImage image) {
+        return (long) image.getWidth() * image.getHeight() * 4;
+    }
+
+}
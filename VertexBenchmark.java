@@ -0,0 +1,91 @@
+/**
+ * VertexBenchmark class compares VertexGenerator with computing every vertex by cosine and sine, as polygons were
+ * drawn before, for a range of side counts
+ *
+ * For each side count it reports the time per vertex of both methods, the speedup, the largest distance between their
+ * vertices and how many vertices land on a different pixel once truncated for drawing. Exits with status 1 if any
+ * vertex is further than MAX_ERROR pixels from the direct result.
+ *
+ * Usage: java -cp classes VertexBenchmark [radius]
+ */
+public class VertexBenchmark {
+
+    // Side counts measured
+    private static final int[] SIDE_COUNTS = {3, 6, 12, 32, 64, 256, 1024, 4096, 65536};
+
+    // Vertices computed per timed pass of each method, and the number of passes, the first ones being warm-up
+    private static final int VERTICES_PER_PASS = 4_000_000;
+    private static final int PASSES = 5;
+
+    // Largest distance from the direct result accepted, in pixels
+    private static final double MAX_ERROR = 1e-6;
+
+    public static void main(String[] args) {
+        double radius = args.length > 0 ? Double.parseDouble(args[0]) : 1000;
+        System.out.printf("%8s %12s %12s %8s %12s %10s%n", "sides", "direct", "recurrence", "speedup", "max error",
+                "pixels off");
+
+        boolean accurate = true;
+        for (int sides : SIDE_COUNTS) {
+            double[] directX = new double[sides];
+            double[] directY = new double[sides];
+            double[] generatedX = new double[sides];
+            double[] generatedY = new double[sides];
+
+            // Compares the two methods over many starting angles
+            double maxError = 0;
+            long pixelsOff = 0;
+            int polygons = Math.max(1, VERTICES_PER_PASS / sides);
+            for (int p = 0; p < polygons; p++) {
+                double start = p * 0.001;
+                direct(500, 300, radius, start, sides, directX, directY);
+                VertexGenerator.fill(500, 300, radius, start, sides, generatedX, generatedY);
+                for (int i = 0; i < sides; i++) {
+                    maxError = Math.max(maxError, Math.hypot(directX[i] - generatedX[i], directY[i] - generatedY[i]));
+                    if ((int) directX[i] != (int) generatedX[i] || (int) directY[i] != (int) generatedY[i]) {
+                        pixelsOff++;
+                    }
+                }
+            }
+            accurate &= maxError <= MAX_ERROR;
+
+            // Times each method, keeping the last pass once the code is compiled
+            long directNanos = 0;
+            long generatedNanos = 0;
+            for (int pass = 0; pass < PASSES; pass++) {
+                long start = System.nanoTime();
+                for (int p = 0; p < polygons; p++) {
+                    direct(500, 300, radius, p * 0.001, sides, directX, directY);
+                }
+                directNanos = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                for (int p = 0; p < polygons; p++) {
+                    VertexGenerator.fill(500, 300, radius, p * 0.001, sides, generatedX, generatedY);
+                }
+                generatedNanos = System.nanoTime() - start;
+            }
+
+            double vertices = (double) polygons * sides;
+            System.out.printf("%8d %9.2f ns %9.2f ns %7.1fx %12.2e %10d%n", sides, directNanos / vertices,
+                    generatedNanos / vertices, (double) directNanos / generatedNanos, maxError, pixelsOff);
+        }
+
+        System.out.println("Accuracy: every vertex within " + MAX_ERROR + " px of the direct result - " +
+                (accurate ? "met" : "MISSED"));
+        System.exit(accurate ? 0 : 1);
+    }
+
+    // Computes each vertex by cosine and sine of an angle stepped by addition, as RegPolygon did before
+    private static void direct(double centreX, double centreY, double radius, double startAngle, int count,
+                               double[] xs, double[] ys) {
+        double angleIncrement = 2 * Math.PI / count;
+        double angle = startAngle;
+        for (int i = 0; i < count; i++) {
+            xs[i] = centreX + radius * Math.cos(angle);
+            ys[i] = centreY + radius * Math.sin(angle);
+            angle = angle + angleIncrement;
+        }
+    }
+
+}
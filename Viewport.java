@@ -0,0 +1,67 @@
+/**
+ * Viewport class holds the zoom and pan of the scene view as a world-to-screen transform
+ * The world point at the viewport centre appears at the middle of the panel, and one world unit spans zoom pixels
+ */
+public class Viewport {
+
+    // Limits on zoom, in pixels per world unit
+    private static final double MIN_ZOOM = 1e-4;
+    private static final double MAX_ZOOM = 1e4;
+
+    // World point shown at the middle of the panel
+    private double centreX;
+    private double centreY;
+
+    // Pixels per world unit
+    private double zoom = 1.0;
+
+    /* Converts a world x coordinate to a screen x coordinate on a panel of the given width */
+    public double toScreenX(double worldX, int width) {
+        return (worldX - centreX) * zoom + width / 2.0;
+    }
+
+    /* Converts a world y coordinate to a screen y coordinate on a panel of the given height */
+    public double toScreenY(double worldY, int height) {
+        return (worldY - centreY) * zoom + height / 2.0;
+    }
+
+    /* Converts a screen x coordinate on a panel of the given width to a world x coordinate */
+    public double toWorldX(double screenX, int width) {
+        return (screenX - width / 2.0) / zoom + centreX;
+    }
+
+    /* Converts a screen y coordinate on a panel of the given height to a world y coordinate */
+    public double toWorldY(double screenY, int height) {
+        return (screenY - height / 2.0) / zoom + centreY;
+    }
+
+    /* Gets pixels per world unit */
+    public double getZoom() {
+        return zoom;
+    }
+
+    /* Moves the view by a distance in pixels, as when the scene is dragged */
+    public void pan(double screenDx, double screenDy) {
+        centreX -= screenDx / zoom;
+        centreY -= screenDy / zoom;
+    }
+
+    /* Zooms by a factor while keeping the world point under the given screen position in place */
+    public void zoomAt(double screenX, double screenY, double factor, int width, int height) {
+        double worldX = toWorldX(screenX, width);
+        double worldY = toWorldY(screenY, height);
+        zoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom * factor));
+        centreX = worldX - (screenX - width / 2.0) / zoom;
+        centreY = worldY - (screenY - height / 2.0) / zoom;
+    }
+
+    /* Centres and zooms the view so the given world rectangle fills the panel, with a small margin */
+    public void fit(double minX, double minY, double maxX, double maxY, int width, int height) {
+        centreX = (minX + maxX) / 2;
+        centreY = (minY + maxY) / 2;
+        double worldWidth = Math.max(maxX - minX, 1e-9);
+        double worldHeight = Math.max(maxY - minY, 1e-9);
+        zoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, 0.95 * Math.min(width / worldWidth, height / worldHeight)));
+    }
+
+}